@@ -0,0 +1,37 @@
+#!/bin/bash
+
+# Exécution des benchmarks JMH du backend EcoGuard
+# Usage: ./backend-benchmarks/run_benchmarks.sh [options JMH, ex: GeoUtils -f 2]
+#
+# Maven est lancé hors ligne (-o) : les dépendances doivent avoir été téléchargées une fois,
+# par exemple avec "mvn -B dependency:go-offline" ou un premier build.
+# Les résultats sont écrits dans backend-benchmarks/results/ :
+#   - jmh-<date>.json : résultats JMH (temps par opération)
+#   - cache-sizes-<date>.csv : taille en octets des valeurs de cache par sérialiseur
+#   - report-sizes-<date>.csv : taille sur le réseau des signalements anonymes par format
+
+set -e
+
+ROOT_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+RESULTS_DIR="$ROOT_DIR/backend-benchmarks/results"
+TIMESTAMP="$(date +%Y%m%d-%H%M%S)"
+BENCHMARKS_JAR="$ROOT_DIR/backend-benchmarks/target/benchmarks.jar"
+
+echo "[INFO] Compilation des benchmarks..."
+cd "$ROOT_DIR"
+mvn -B -o -q -pl backend-benchmarks -am package -DskipTests
+
+mkdir -p "$RESULTS_DIR"
+
+echo "[INFO] Mesure de la taille des valeurs de cache..."
+java -cp "$BENCHMARKS_JAR" com.ecoguard.tracking.benchmark.CacheValueSizeReport \
+    "$RESULTS_DIR/cache-sizes-$TIMESTAMP.csv"
+
+echo "[INFO] Mesure de la taille des signalements anonymes..."
+java -cp "$BENCHMARKS_JAR" com.ecoguard.tracking.benchmark.AnonymousReportSizeReport \
+    "$RESULTS_DIR/report-sizes-$TIMESTAMP.csv"
+
+echo "[INFO] Exécution des benchmarks JMH..."
+java -jar "$BENCHMARKS_JAR" -rf json -rff "$RESULTS_DIR/jmh-$TIMESTAMP.json" "$@"
+
+echo "[SUCCÈS] Résultats disponibles dans $RESULTS_DIR"
@@ -0,0 +1,84 @@
+package com.ecoguard.tracking.benchmark;
+
+import com.ecoguard.tracking.dto.AnonymousReportBatchDTO;
+import com.ecoguard.tracking.dto.AnonymousReportDTO;
+import com.ecoguard.tracking.web.CompactReportCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Parsing of anonymous report request bodies: JSON against the compact CBOR encoding, optionally
+ * gzip-compressed as accepted by {@code GzipRequestBodyFilter}. Divide batch timings by
+ * {@code reports} for the parse time per report; sizes on the wire are written by
+ * {@link AnonymousReportSizeReport}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AnonymousReportCodecBenchmark {
+
+    @Param({"1", "100"})
+    private int reports;
+
+    @Param({"false", "true"})
+    private boolean gzip;
+
+    private ObjectMapper jsonMapper;
+    private CompactReportCodec compactCodec;
+    private byte[] json;
+    private byte[] cbor;
+
+    @Setup
+    public void setUp() {
+        jsonMapper = AnonymousReportCodecs.jsonMapper();
+        compactCodec = new CompactReportCodec();
+        List<AnonymousReportDTO> data = BenchmarkData.anonymousReports(reports);
+        json = AnonymousReportCodecs.encode("json", data);
+        cbor = AnonymousReportCodecs.encode("cbor", data);
+        if (gzip) {
+            json = AnonymousReportCodecs.gzip(json);
+            cbor = AnonymousReportCodecs.gzip(cbor);
+        }
+    }
+
+    @Benchmark
+    public Object parseJson() throws IOException {
+        try (InputStream in = body(json)) {
+            return reports == 1
+                    ? jsonMapper.readValue(in, AnonymousReportDTO.class)
+                    : jsonMapper.readValue(in, AnonymousReportBatchDTO.class);
+        }
+    }
+
+    @Benchmark
+    public Object parseCbor() throws IOException {
+        try (InputStream in = body(cbor)) {
+            return reports == 1 ? compactCodec.readReport(in) : compactCodec.readBatch(in);
+        }
+    }
+
+    private InputStream body(byte[] bytes) throws IOException {
+        InputStream in = new ByteArrayInputStream(bytes);
+        return gzip ? new GZIPInputStream(in) : in;
+    }
+}
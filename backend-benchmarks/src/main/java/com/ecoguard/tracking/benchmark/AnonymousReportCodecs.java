@@ -0,0 +1,64 @@
+package com.ecoguard.tracking.benchmark;
+
+import com.ecoguard.tracking.dto.AnonymousReportBatchDTO;
+import com.ecoguard.tracking.dto.AnonymousReportDTO;
+import com.ecoguard.tracking.web.CompactReportCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Request body encodings of anonymous reports compared by {@link AnonymousReportCodecBenchmark}
+ * and {@link AnonymousReportSizeReport}.
+ */
+final class AnonymousReportCodecs {
+
+    static final String[] NAMES = {"json", "cbor"};
+
+    private AnonymousReportCodecs() {
+    }
+
+    /**
+     * JSON as read by the default Spring Boot converter, with ISO-8601 dates.
+     */
+    static ObjectMapper jsonMapper() {
+        return new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    static byte[] encode(String format, List<AnonymousReportDTO> reports) {
+        try {
+            switch (format) {
+                case "json":
+                    ObjectMapper mapper = jsonMapper();
+                    return reports.size() == 1
+                            ? mapper.writeValueAsBytes(reports.get(0))
+                            : mapper.writeValueAsBytes(new AnonymousReportBatchDTO(reports));
+                case "cbor":
+                    CompactReportCodec codec = new CompactReportCodec();
+                    return reports.size() == 1 ? codec.writeReport(reports.get(0)) : codec.writeBatch(reports);
+                default:
+                    throw new IllegalArgumentException("Unknown format: " + format);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
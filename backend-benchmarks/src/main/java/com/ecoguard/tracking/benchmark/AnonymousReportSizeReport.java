@@ -0,0 +1,50 @@
+package com.ecoguard.tracking.benchmark;
+
+import com.ecoguard.tracking.dto.AnonymousReportDTO;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Writes the size on the wire of anonymous report request bodies per encoding as CSV,
+ * to complement the timings of {@link AnonymousReportCodecBenchmark}.
+ * <p>
+ * Usage: {@code java -cp benchmarks.jar com.ecoguard.tracking.benchmark.AnonymousReportSizeReport [output.csv]}.
+ * Without argument the report is printed to the standard output.
+ */
+public final class AnonymousReportSizeReport {
+
+    private static final int[] REPORT_COUNTS = {1, 100};
+
+    private AnonymousReportSizeReport() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0) {
+            Path output = Paths.get(args[0]);
+            try (PrintStream out = new PrintStream(Files.newOutputStream(output), false, StandardCharsets.UTF_8.name())) {
+                write(out);
+            }
+        } else {
+            write(System.out);
+        }
+    }
+
+    private static void write(PrintStream out) {
+        out.println("format,reports,bytes,gzip_bytes,bytes_per_report,gzip_bytes_per_report");
+        for (int count : REPORT_COUNTS) {
+            List<AnonymousReportDTO> reports = BenchmarkData.anonymousReports(count);
+            for (String format : AnonymousReportCodecs.NAMES) {
+                byte[] bytes = AnonymousReportCodecs.encode(format, reports);
+                byte[] compressed = AnonymousReportCodecs.gzip(bytes);
+                out.println(format + "," + count + "," + bytes.length + "," + compressed.length + ","
+                        + bytes.length / count + "," + compressed.length / count);
+            }
+        }
+    }
+}
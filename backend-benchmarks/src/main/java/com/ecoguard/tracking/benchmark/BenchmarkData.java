@@ -0,0 +1,156 @@
+package com.ecoguard.tracking.benchmark;
+
+import com.ecoguard.tracking.cache.CachedPage;
+import com.ecoguard.tracking.dto.AnonymousReportDTO;
+import com.ecoguard.tracking.dto.ObservationDTO;
+import com.ecoguard.tracking.dto.ObservationStatsDTO;
+import com.ecoguard.tracking.entity.Device;
+import com.ecoguard.tracking.entity.Observation;
+import com.ecoguard.tracking.entity.User;
+import com.ecoguard.tracking.util.GeoUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Representative entities and cached values shared by the benchmarks.
+ * Values come from a fixed seed so that runs are comparable.
+ */
+final class BenchmarkData {
+
+    static final double PARIS_LATITUDE = 48.8566;
+    static final double PARIS_LONGITUDE = 2.3522;
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 15, 12, 0);
+
+    private BenchmarkData() {
+    }
+
+    static User user() {
+        return User.builder()
+                .id(1L)
+                .email("utilisateur@example.com")
+                .password("$2a$10$abcdefghijklmnopqrstuv")
+                .name("Utilisateur Test")
+                .accountEnabled(true)
+                .build();
+    }
+
+    static Device device() {
+        return Device.builder()
+                .id(42L)
+                .user(user())
+                .partitionUuid(UUID.nameUUIDFromBytes("device-42".getBytes()).toString())
+                .name("Pixel 7")
+                .model("Google Pixel 7")
+                .status(Device.DeviceStatus.STOLEN)
+                .registrationDate(NOW.minusMonths(6))
+                .lastSeen(NOW)
+                .lastLatitude(PARIS_LATITUDE)
+                .lastLongitude(PARIS_LONGITUDE)
+                .lastAccuracy(12.5)
+                .createdAt(NOW.minusMonths(6))
+                .updatedAt(NOW)
+                .build();
+    }
+
+    static Observation observation(Device device) {
+        return Observation.builder()
+                .id(1000L)
+                .device(device)
+                .observationTime(NOW)
+                .latitude(PARIS_LATITUDE)
+                .longitude(PARIS_LONGITUDE)
+                .location(GeoUtils.createPoint(PARIS_LONGITUDE, PARIS_LATITUDE))
+                .accuracy(12.5)
+                .confidence(85)
+                .reporterHash("9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08")
+                .ghost(false)
+                .ghostSeed(1000L)
+                .ghostCount(5)
+                .signalStrength(-67)
+                .batteryLevel(54)
+                .networkType("BLE")
+                .createdAt(NOW)
+                .build();
+    }
+
+    static ObservationStatsDTO observationStats() {
+        return ObservationStatsDTO.builder()
+                .deviceId(42L)
+                .deviceName("Pixel 7")
+                .totalObservations(1250)
+                .last24HoursObservations(36)
+                .last7DaysObservations(240)
+                .firstObservation(NOW.minusDays(30))
+                .lastObservation(NOW)
+                .averageConfidence(71.4)
+                .uniqueReporters(87)
+                .lastLatitude(PARIS_LATITUDE)
+                .lastLongitude(PARIS_LONGITUDE)
+                .lastAccuracy(12.5)
+                .lastConfidence(85)
+                .build();
+    }
+
+    /**
+     * A page of observations as cached by {@code ObservationService.getDeviceObservations}.
+     */
+    static CachedPage<ObservationDTO> observationPage(int size) {
+        Random random = new Random(size);
+        List<ObservationDTO> content = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            content.add(ObservationDTO.builder()
+                    .id(1000L + i)
+                    .deviceId(42L)
+                    .deviceName("Pixel 7")
+                    .observationTime(NOW.minusMinutes(i * 5L))
+                    .latitude(PARIS_LATITUDE + (random.nextDouble() - 0.5) * 0.01)
+                    .longitude(PARIS_LONGITUDE + (random.nextDouble() - 0.5) * 0.01)
+                    .accuracy(5 + random.nextDouble() * 20)
+                    .confidence(40 + random.nextInt(60))
+                    .reporterHash(Long.toHexString(random.nextLong()) + Long.toHexString(random.nextLong()))
+                    .signalStrength(-40 - random.nextInt(50))
+                    .batteryLevel(random.nextInt(100))
+                    .networkType("BLE")
+                    .createdAt(NOW.minusMinutes(i * 5L))
+                    .build());
+        }
+        return new CachedPage<>(content, 0, size, 1250);
+    }
+
+    /**
+     * Anonymous reports as sent by phones, with a 64 character reporter hash and signature.
+     */
+    static List<AnonymousReportDTO> anonymousReports(int count) {
+        Random random = new Random(count);
+        List<AnonymousReportDTO> reports = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            reports.add(AnonymousReportDTO.builder()
+                    .devicePartitionUuid(UUID.nameUUIDFromBytes(("device-" + random.nextInt(1000)).getBytes()).toString())
+                    .observationTime(NOW.minusSeconds(random.nextInt(3600)))
+                    .latitude(PARIS_LATITUDE + (random.nextDouble() - 0.5) * 0.01)
+                    .longitude(PARIS_LONGITUDE + (random.nextDouble() - 0.5) * 0.01)
+                    .accuracy(5 + random.nextDouble() * 20)
+                    .confidence(40 + random.nextInt(60))
+                    .reporterHash(hex(random, 32))
+                    .signalStrength(-40 - random.nextInt(50))
+                    .batteryLevel(random.nextInt(100))
+                    .networkType("BLE")
+                    .signature(hex(random, 32))
+                    .build());
+        }
+        return reports;
+    }
+
+    private static String hex(Random random, int bytes) {
+        StringBuilder sb = new StringBuilder(bytes * 2);
+        for (int i = 0; i < bytes; i++) {
+            sb.append(String.format("%02x", random.nextInt(256)));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,56 @@
+package com.ecoguard.tracking.benchmark;
+
+import com.ecoguard.tracking.cache.CodecRedisSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to write and read cached values with each Redis value serializer.
+ * The matching sizes are reported by {@link CacheValueSizeReport}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CacheSerializerBenchmark {
+
+    @Param({"json", "smile", "smile-lz4"})
+    private String serializer;
+
+    @Param({"stats", "page-20", "page-100"})
+    private String value;
+
+    private CodecRedisSerializer redisSerializer;
+    private Object cachedValue;
+    private byte[] serializedValue;
+
+    @Setup
+    public void setUp() {
+        redisSerializer = CacheSerializers.create(serializer);
+        cachedValue = CacheSerializers.value(value);
+        serializedValue = redisSerializer.serialize(cachedValue);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return redisSerializer.serialize(cachedValue);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return redisSerializer.deserialize(serializedValue);
+    }
+}
@@ -0,0 +1,53 @@
+package com.ecoguard.tracking.benchmark;
+
+import com.ecoguard.tracking.cache.CacheValueCodec;
+import com.ecoguard.tracking.cache.CodecRedisSerializer;
+import com.ecoguard.tracking.cache.JacksonCacheValueCodec;
+
+import java.util.Map;
+
+/**
+ * Redis value serializers configured as in {@code RedisConfig}.
+ * {@code json} writes the same Jackson JSON with type information as the former
+ * {@code GenericJackson2JsonRedisSerializer}, plus the two header bytes, and serves as the baseline.
+ */
+final class CacheSerializers {
+
+    static final String[] NAMES = {"json", "smile", "smile-lz4"};
+
+    // Same value as ecoguard.cache.codec.compression-threshold
+    private static final int COMPRESSION_THRESHOLD = 1024;
+
+    private CacheSerializers() {
+    }
+
+    static CodecRedisSerializer create(String name) {
+        JacksonCacheValueCodec json = JacksonCacheValueCodec.json();
+        JacksonCacheValueCodec smile = JacksonCacheValueCodec.smile();
+        Map<Byte, CacheValueCodec> readCodecs = Map.of(json.getId(), json, smile.getId(), smile);
+
+        switch (name) {
+            case "json":
+                return new CodecRedisSerializer(json, readCodecs, -1);
+            case "smile":
+                return new CodecRedisSerializer(smile, readCodecs, -1);
+            case "smile-lz4":
+                return new CodecRedisSerializer(smile, readCodecs, COMPRESSION_THRESHOLD);
+            default:
+                throw new IllegalArgumentException("Unknown serializer: " + name);
+        }
+    }
+
+    static Object value(String name) {
+        switch (name) {
+            case "stats":
+                return BenchmarkData.observationStats();
+            case "page-20":
+                return BenchmarkData.observationPage(20);
+            case "page-100":
+                return BenchmarkData.observationPage(100);
+            default:
+                throw new IllegalArgumentException("Unknown value: " + name);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.ecoguard.tracking.benchmark;
+
+import com.ecoguard.tracking.cache.CodecRedisSerializer;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Writes the size in bytes of each cached value with each Redis value serializer as CSV,
+ * to complement the timings of {@link CacheSerializerBenchmark}.
+ * <p>
+ * Usage: {@code java -cp benchmarks.jar com.ecoguard.tracking.benchmark.CacheValueSizeReport [output.csv]}.
+ * Without argument the report is printed to the standard output.
+ */
+public final class CacheValueSizeReport {
+
+    private static final String[] VALUES = {"stats", "page-20", "page-100"};
+
+    private CacheValueSizeReport() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0) {
+            Path output = Paths.get(args[0]);
+            try (PrintStream out = new PrintStream(Files.newOutputStream(output), false, StandardCharsets.UTF_8.name())) {
+                write(out);
+            }
+        } else {
+            write(System.out);
+        }
+    }
+
+    private static void write(PrintStream out) {
+        out.println("serializer,value,bytes");
+        for (String serializer : CacheSerializers.NAMES) {
+            CodecRedisSerializer redisSerializer = CacheSerializers.create(serializer);
+            for (String value : VALUES) {
+                byte[] bytes = redisSerializer.serialize(CacheSerializers.value(value));
+                out.println(serializer + "," + value + "," + bytes.length);
+            }
+        }
+    }
+}
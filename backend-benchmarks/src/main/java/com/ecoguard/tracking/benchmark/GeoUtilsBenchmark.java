@@ -0,0 +1,98 @@
+package com.ecoguard.tracking.benchmark;
+
+import com.ecoguard.tracking.util.GeoUtils;
+import com.ecoguard.tracking.util.Geohash;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Haversine distance, as used for proximity alerts and nearby device searches, and geohash
+ * operations. The batch methods are reported per batch of {@value #POINTS} points, so they
+ * compare directly with {@code calculateDistanceBatch}, the scalar method called in a loop.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GeoUtilsBenchmark {
+
+    private static final int POINTS = 1024;
+
+    private double[] latitudes;
+    private double[] longitudes;
+    private double[] distances;
+    private String geohash;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        latitudes = new double[POINTS];
+        longitudes = new double[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            latitudes[i] = BenchmarkData.PARIS_LATITUDE + (random.nextDouble() - 0.5);
+            longitudes[i] = BenchmarkData.PARIS_LONGITUDE + (random.nextDouble() - 0.5);
+        }
+        distances = new double[POINTS];
+        geohash = Geohash.encode(BenchmarkData.PARIS_LATITUDE, BenchmarkData.PARIS_LONGITUDE, 7);
+    }
+
+    @Benchmark
+    public double calculateDistance() {
+        return GeoUtils.calculateDistance(BenchmarkData.PARIS_LATITUDE, BenchmarkData.PARIS_LONGITUDE,
+                latitudes[0], longitudes[0]);
+    }
+
+    /**
+     * Distance from one point to a batch of points, reported per batch of {@value #POINTS}.
+     */
+    @Benchmark
+    public void calculateDistanceBatch(Blackhole blackhole) {
+        for (int i = 0; i < POINTS; i++) {
+            blackhole.consume(GeoUtils.calculateDistance(BenchmarkData.PARIS_LATITUDE, BenchmarkData.PARIS_LONGITUDE,
+                    latitudes[i], longitudes[i]));
+        }
+    }
+
+    @Benchmark
+    public double[] calculateDistances() {
+        GeoUtils.calculateDistances(BenchmarkData.PARIS_LATITUDE, BenchmarkData.PARIS_LONGITUDE,
+                latitudes, longitudes, distances);
+        return distances;
+    }
+
+    @Benchmark
+    public double[] approximateDistances() {
+        GeoUtils.approximateDistances(BenchmarkData.PARIS_LATITUDE, BenchmarkData.PARIS_LONGITUDE,
+                latitudes, longitudes, distances);
+        return distances;
+    }
+
+    @Benchmark
+    public String geohashEncode() {
+        return Geohash.encode(latitudes[0], longitudes[0], 7);
+    }
+
+    @Benchmark
+    public double[] geohashDecode() {
+        return Geohash.decode(geohash);
+    }
+
+    @Benchmark
+    public String[] geohashNeighbours() {
+        return Geohash.neighbours(geohash);
+    }
+}
@@ -0,0 +1,144 @@
+package com.ecoguard.tracking.benchmark;
+
+import com.ecoguard.tracking.entity.Geofence;
+import com.ecoguard.tracking.entity.User;
+import com.ecoguard.tracking.geofence.GeofenceIndex;
+import com.ecoguard.tracking.geofence.IndexedGeofence;
+import com.ecoguard.tracking.util.GeoUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.locationtech.jts.geom.Point;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Geofence evaluation of one observation against fences of 100 m to 2 km spread over the Paris
+ * region, where they are the densest. {@code evaluate} is the cost paid by ingest for a device
+ * whose owner has a few fences among all the others; {@code evaluateOwnerOfAll} the worst case
+ * where every candidate of the tree needs a point-in-polygon test; {@code bruteForce} tests every
+ * fence without the tree, for comparison. {@code updateFence} is the cost of publishing one
+ * changed fence, which packs the tree again.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GeofenceEvaluatorBenchmark {
+
+    private static final int QUERIES = 1024;
+    private static final long OWNER_ID = 1L;
+    private static final long DEVICE_ID = 42L;
+
+    // Roughly the Île-de-France region
+    private static final double MIN_LATITUDE = 48.4;
+    private static final double MAX_LATITUDE = 49.2;
+    private static final double MIN_LONGITUDE = 1.6;
+    private static final double MAX_LONGITUDE = 3.2;
+
+    @Param({"1000", "10000"})
+    private int fences;
+
+    private GeofenceIndex index;
+    private GeofenceIndex ownerOfAllIndex;
+    private List<IndexedGeofence> all;
+    private IndexedGeofence changed;
+    private double[] latitudes;
+    private double[] longitudes;
+    private Point[] points;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        all = new ArrayList<>(fences);
+        List<IndexedGeofence> ownedByOne = new ArrayList<>(fences);
+        for (long id = 1; id <= fences; id++) {
+            double latitude = MIN_LATITUDE + random.nextDouble() * (MAX_LATITUDE - MIN_LATITUDE);
+            double longitude = MIN_LONGITUDE + random.nextDouble() * (MAX_LONGITUDE - MIN_LONGITUDE);
+            double radius = 100 + random.nextDouble() * 1900;
+            // One fence in a hundred belongs to the owner of the benchmarked device
+            long userId = id % 100 == 0 ? OWNER_ID : 2 + random.nextInt(Math.max(1, fences / 3));
+            all.add(IndexedGeofence.of(fence(id, userId, latitude, longitude, radius)));
+            ownedByOne.add(IndexedGeofence.of(fence(id, OWNER_ID, latitude, longitude, radius)));
+        }
+        index = new GeofenceIndex(null, new SimpleMeterRegistry());
+        index.putAll(all);
+        ownerOfAllIndex = new GeofenceIndex(null, new SimpleMeterRegistry());
+        ownerOfAllIndex.putAll(ownedByOne);
+        changed = IndexedGeofence.of(fence(1, OWNER_ID, BenchmarkData.PARIS_LATITUDE, BenchmarkData.PARIS_LONGITUDE, 500));
+
+        latitudes = new double[QUERIES];
+        longitudes = new double[QUERIES];
+        points = new Point[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            latitudes[i] = MIN_LATITUDE + random.nextDouble() * (MAX_LATITUDE - MIN_LATITUDE);
+            longitudes[i] = MIN_LONGITUDE + random.nextDouble() * (MAX_LONGITUDE - MIN_LONGITUDE);
+            points[i] = GeoUtils.createPoint(longitudes[i], latitudes[i]);
+        }
+    }
+
+    private static Geofence fence(long id, long userId, double latitude, double longitude, double radius) {
+        return Geofence.builder()
+                .id(id)
+                .user(User.builder().id(userId).build())
+                .name("Zone " + id)
+                .type(Geofence.GeofenceType.OTHER)
+                .area(GeoUtils.createCircle(latitude, longitude, radius, 64))
+                .centerLatitude(latitude)
+                .centerLongitude(longitude)
+                .radiusMeters(radius)
+                .alertOnEnter(true)
+                .alertOnExit(true)
+                .active(true)
+                .updatedAt(LocalDateTime.of(2024, 1, 15, 12, 0))
+                .build();
+    }
+
+    @Benchmark
+    public List<IndexedGeofence> evaluate() {
+        int i = ThreadLocalRandom.current().nextInt(QUERIES);
+        return index.containing(DEVICE_ID, OWNER_ID, latitudes[i], longitudes[i]);
+    }
+
+    @Benchmark
+    public List<IndexedGeofence> evaluateOwnerOfAll() {
+        int i = ThreadLocalRandom.current().nextInt(QUERIES);
+        return ownerOfAllIndex.containing(DEVICE_ID, OWNER_ID, latitudes[i], longitudes[i]);
+    }
+
+    @Benchmark
+    public int bruteForce() {
+        Point point = points[ThreadLocalRandom.current().nextInt(QUERIES)];
+        int containing = 0;
+        for (IndexedGeofence fence : all) {
+            if (fence.covers(point)) {
+                containing++;
+            }
+        }
+        return containing;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int updateFence() {
+        index.putAll(List.of(changed));
+        return index.size();
+    }
+}
@@ -0,0 +1,55 @@
+package com.ecoguard.tracking.benchmark;
+
+import com.ecoguard.tracking.entity.Device;
+import com.ecoguard.tracking.entity.Observation;
+import com.ecoguard.tracking.service.GhostObservationGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ghost observations: seeding them when a report is accepted, and generating them again each
+ * time the observation is listed or counted.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GhostObservationBenchmark {
+
+    private GhostObservationGenerator generator;
+    private Device device;
+    private Observation observation;
+
+    @Setup
+    public void setUp() {
+        // Same bounds as the application defaults
+        generator = new GhostObservationGenerator(3, 7);
+        device = BenchmarkData.device();
+        observation = BenchmarkData.observation(device);
+    }
+
+    @Benchmark
+    public List<Observation> generateGhosts() {
+        return generator.generate(observation);
+    }
+
+    @Benchmark
+    public Observation assignGhosts() {
+        Observation realObservation = BenchmarkData.observation(device);
+        generator.assignGhosts(realObservation);
+        return realObservation;
+    }
+}
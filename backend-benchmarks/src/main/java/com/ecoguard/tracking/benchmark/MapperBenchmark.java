@@ -0,0 +1,57 @@
+package com.ecoguard.tracking.benchmark;
+
+import com.ecoguard.tracking.dto.DeviceDTO;
+import com.ecoguard.tracking.dto.ObservationDTO;
+import com.ecoguard.tracking.entity.Device;
+import com.ecoguard.tracking.entity.Observation;
+import com.ecoguard.tracking.mapper.DeviceMapper;
+import com.ecoguard.tracking.mapper.DeviceMapperImpl;
+import com.ecoguard.tracking.mapper.ObservationMapper;
+import com.ecoguard.tracking.mapper.ObservationMapperImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generated MapStruct mappers used by the observation and device listings.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    private ObservationMapper observationMapper;
+    private DeviceMapper deviceMapper;
+    private Device device;
+    private Observation observation;
+
+    @Setup
+    public void setUp() {
+        observationMapper = new ObservationMapperImpl();
+        deviceMapper = new DeviceMapperImpl();
+        device = BenchmarkData.device();
+        observation = BenchmarkData.observation(device);
+    }
+
+    @Benchmark
+    public ObservationDTO observationToDTO() {
+        return observationMapper.toDTO(observation);
+    }
+
+    @Benchmark
+    public DeviceDTO deviceToDTO() {
+        return deviceMapper.toDTO(device);
+    }
+}
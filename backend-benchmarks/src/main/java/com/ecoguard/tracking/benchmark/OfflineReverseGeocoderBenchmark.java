@@ -0,0 +1,122 @@
+package com.ecoguard.tracking.benchmark;
+
+import com.ecoguard.tracking.geocoding.GazetteerIndex;
+import com.ecoguard.tracking.geocoding.OfflineReverseGeocoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Offline reverse geocoding on a synthetic GeoNames gazetteer spread over metropolitan France.
+ * {@code lookup} is the latency of one nearest-place search on one thread; {@code lookupUnderLoad}
+ * the throughput with all cores querying the same mapped index, as when notifications are sent
+ * in bursts. {@code buildIndex} is the one-off cost of indexing the gazetteer at startup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OfflineReverseGeocoderBenchmark {
+
+    private static final int QUERIES = 1024;
+
+    // Bounding box of metropolitan France
+    private static final double MIN_LATITUDE = 42.3;
+    private static final double MAX_LATITUDE = 51.1;
+    private static final double MIN_LONGITUDE = -4.8;
+    private static final double MAX_LONGITUDE = 8.2;
+
+    @Param({"10000", "200000"})
+    private int places;
+
+    private Path directory;
+    private Path gazetteer;
+    private OfflineReverseGeocoder geocoder;
+    private double[] latitudes;
+    private double[] longitudes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("gazetteer");
+        gazetteer = directory.resolve("places.txt");
+        Random random = new Random(42);
+        try (BufferedWriter writer = Files.newBufferedWriter(gazetteer, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < places; i++) {
+                // GeoNames columns: id, name, ascii name, alternate names, lat, lon, class, code,
+                // country, cc2, admin1, admin2, admin3, admin4, population
+                writer.write(i + "\tLieu " + i + "\tLieu " + i + "\t\t"
+                        + (MIN_LATITUDE + random.nextDouble() * (MAX_LATITUDE - MIN_LATITUDE)) + "\t"
+                        + (MIN_LONGITUDE + random.nextDouble() * (MAX_LONGITUDE - MIN_LONGITUDE))
+                        + "\tP\tPPL\tFR\t\t11\t\t\t\t" + random.nextInt(100000) + "\n");
+            }
+        }
+        geocoder = OfflineReverseGeocoder.load(gazetteer, null, directory.resolve("places.kdt"), 0, 50);
+
+        latitudes = new double[QUERIES];
+        longitudes = new double[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            latitudes[i] = MIN_LATITUDE + random.nextDouble() * (MAX_LATITUDE - MIN_LATITUDE);
+            longitudes[i] = MIN_LONGITUDE + random.nextDouble() * (MAX_LONGITUDE - MIN_LONGITUDE);
+        }
+        if (geocoder.getAddress(BenchmarkData.PARIS_LATITUDE, BenchmarkData.PARIS_LONGITUDE) == null) {
+            throw new IllegalStateException("No place found near Paris");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public String lookup() {
+        int i = ThreadLocalRandom.current().nextInt(QUERIES);
+        return geocoder.getAddress(latitudes[i], longitudes[i]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Threads(Threads.MAX)
+    public String lookupUnderLoad() {
+        int i = ThreadLocalRandom.current().nextInt(QUERIES);
+        return geocoder.getAddress(latitudes[i], longitudes[i]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public GazetteerIndex buildIndex() {
+        Path index = directory.resolve("rebuilt.kdt");
+        GazetteerIndex.build(gazetteer, null, index, 0);
+        return GazetteerIndex.open(index);
+    }
+}
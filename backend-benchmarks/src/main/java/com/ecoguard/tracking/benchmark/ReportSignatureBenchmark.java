@@ -0,0 +1,117 @@
+package com.ecoguard.tracking.benchmark;
+
+import com.ecoguard.tracking.dto.AnonymousReportDTO;
+import com.ecoguard.tracking.security.ReportSignaturePayload;
+import com.ecoguard.tracking.security.ReportSignatureVerifier;
+import com.ecoguard.tracking.service.IngestMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Anonymous report signature verification. Single report benchmarks run on one thread, so their
+ * throughput is the verification rate of one core; {@code verifyBatch} uses the verifier pool
+ * (one thread per CPU) on batches of 100 reports.
+ * <p>
+ * {@code Ed25519} requires JDK 15 or later, its runs fail on older JDKs.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(1)
+@State(Scope.Benchmark)
+public class ReportSignatureBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"EC", "Ed25519"})
+    private String algorithm;
+
+    private ReportSignatureVerifier verifier;
+    private ReportSignatureVerifier uncachedVerifier;
+    private AnonymousReportDTO report;
+    private List<AnonymousReportDTO> batch;
+
+    @Setup
+    public void setUp() throws GeneralSecurityException {
+        IngestMetrics ingestMetrics = new IngestMetrics(new SimpleMeterRegistry());
+        verifier = new ReportSignatureVerifier(true, 0, 1000, ingestMetrics);
+        uncachedVerifier = new ReportSignatureVerifier(true, 1, 0, ingestMetrics);
+
+        KeyPair keyPair = keyPairGenerator().generateKeyPair();
+        batch = BenchmarkData.anonymousReports(BATCH_SIZE);
+        for (AnonymousReportDTO each : batch) {
+            sign(each, keyPair);
+        }
+        report = batch.get(0);
+        if (!verifier.isValid(report)) {
+            throw new IllegalStateException("Benchmark report does not verify");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        verifier.destroy();
+        uncachedVerifier.destroy();
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return verifier.isValid(report);
+    }
+
+    /**
+     * Includes decoding the public key, as for the first report of a phone.
+     */
+    @Benchmark
+    public boolean verifyWithoutKeyCache() {
+        return uncachedVerifier.isValid(report);
+    }
+
+    @Benchmark
+    public boolean[] verifyBatch() {
+        return verifier.verifyAll(batch);
+    }
+
+    private KeyPairGenerator keyPairGenerator() throws GeneralSecurityException {
+        if ("EC".equals(algorithm)) {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            return generator;
+        }
+        return KeyPairGenerator.getInstance(algorithm);
+    }
+
+    private void sign(AnonymousReportDTO report, KeyPair keyPair) throws GeneralSecurityException {
+        byte[] encodedPublicKey = keyPair.getPublic().getEncoded();
+        report.setReporterHash(ReportSignaturePayload.reporterHash(encodedPublicKey));
+        report.setReporterPublicKey(Base64.getEncoder().encodeToString(encodedPublicKey));
+
+        Signature signature = Signature.getInstance("EC".equals(algorithm) ? "SHA256withECDSA" : algorithm);
+        signature.initSign(keyPair.getPrivate());
+        signature.update(ReportSignaturePayload.of(report));
+        report.setSignature(Base64.getEncoder().encodeToString(signature.sign()));
+    }
+}
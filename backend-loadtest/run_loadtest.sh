@@ -0,0 +1,25 @@
+#!/bin/bash
+
+# Test de charge de l'ingestion des rapports anonymes (POST /anonymous-reports)
+# Usage: ./backend-loadtest/run_loadtest.sh [--loadtest.reports=50000 --loadtest.concurrency=64 ...]
+#
+# Prérequis : une base PostgreSQL/PostGIS locale "ecoguard_loadtest" (recréée à chaque exécution,
+# modifiable avec --spring.datasource.url=...). Redis est embarqué, Firebase et le géocodage sont simulés.
+# Maven est lancé hors ligne (-o) : les dépendances doivent avoir été téléchargées une fois.
+
+set -e
+
+ROOT_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+RESULTS_DIR="$ROOT_DIR/backend-loadtest/results"
+TIMESTAMP="$(date +%Y%m%d-%H%M%S)"
+
+echo "[INFO] Compilation du test de charge..."
+cd "$ROOT_DIR"
+mvn -B -o -q -pl backend-loadtest -am package -DskipTests
+
+mkdir -p "$RESULTS_DIR"
+
+echo "[INFO] Exécution du test de charge..."
+java -jar "$ROOT_DIR/backend-loadtest/target/loadtest.jar" \
+    --loadtest.histogram-file="$RESULTS_DIR/latency-$TIMESTAMP.hgrm" "$@" \
+    | tee "$RESULTS_DIR/loadtest-$TIMESTAMP.txt"
@@ -0,0 +1,266 @@
+package com.ecoguard.tracking.loadtest;
+
+import com.ecoguard.tracking.EcoGuardTrackingApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.QueryCount;
+import net.ttddyy.dsproxy.listener.SingleQueryCountHolder;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * End-to-end load test of {@code POST /anonymous-reports}.
+ * <p>
+ * Boots the application with the {@code loadtest} profile against a local PostgreSQL/PostGIS
+ * database and an embedded Redis, with Firebase and geocoding stubbed. It seeds stolen devices,
+ * then sends generated reports from a fixed number of concurrent clients, each waiting for its
+ * response before sending the next report. It prints the throughput, the latency distribution
+ * and the number of database statements per report.
+ * <p>
+ * Options are described in {@link LoadTestOptions}, for example
+ * {@code java -jar loadtest.jar --loadtest.reports=50000 --loadtest.concurrency=64}.
+ */
+@Slf4j
+public class IngestLoadTest {
+
+    private static final long HIGHEST_TRACKABLE_LATENCY_MICROS = TimeUnit.SECONDS.toMicros(60);
+
+    private final LoadTestOptions options;
+    private final ConfigurableApplicationContext context;
+    private final ReportGenerator generator;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final URI reportUri;
+
+    private IngestLoadTest(LoadTestOptions options, ConfigurableApplicationContext context) {
+        this.options = options;
+        this.context = context;
+        this.generator = new ReportGenerator(options);
+        this.objectMapper = context.getBean(ObjectMapper.class);
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        Environment environment = context.getEnvironment();
+        this.reportUri = URI.create("http://localhost:" + environment.getProperty("local.server.port")
+                + environment.getProperty("server.servlet.context-path", "") + "/anonymous-reports"
+                + ("async".equals(options.getEndpoint()) ? "/async" : ""));
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+
+        int redisPort = freePort();
+        RedisServer redisServer = new RedisServer(redisPort);
+        redisServer.start();
+
+        ConfigurableApplicationContext context = null;
+        try {
+            context = new SpringApplicationBuilder(EcoGuardTrackingApplication.class)
+                    .profiles("loadtest")
+                    .properties(
+                            "spring.redis.host=localhost",
+                            "spring.redis.port=" + redisPort,
+                            "ecoguard.loadtest.fcm-latency-ms=" + options.getFcmLatencyMs(),
+                            "ecoguard.loadtest.geocoding-latency-ms=" + options.getGeocodingLatencyMs())
+                    .run(args);
+
+            new IngestLoadTest(options, context).run();
+        } finally {
+            if (context != null) {
+                SpringApplication.exit(context);
+            }
+            redisServer.stop();
+        }
+    }
+
+    private void run() throws InterruptedException, IOException {
+        log.info("Seeding {} stolen devices", options.getDevices());
+        new LoadTestSeeder(context).seed(generator);
+
+        log.info("Warming up with {} reports", options.getWarmupReports());
+        send(0, options.getWarmupReports(), new ConcurrentHistogram(HIGHEST_TRACKABLE_LATENCY_MICROS, 3));
+        waitForBufferedWrites();
+
+        SingleQueryCountHolder queryCountHolder = context.getBean(SingleQueryCountHolder.class);
+        StubFCMService fcmService = context.getBean(StubFCMService.class);
+        StubGeocodingService geocodingService = context.getBean(StubGeocodingService.class);
+        MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+        queryCountHolder.clear();
+        fcmService.reset();
+        geocodingService.reset();
+        Map<String, HistogramSnapshot> stagesBefore = stageSnapshots(meterRegistry);
+
+        log.info("Sending {} reports from {} concurrent clients", options.getReports(), options.getConcurrency());
+        Histogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_LATENCY_MICROS, 3);
+        long start = System.nanoTime();
+        Map<Integer, LongAdder> statuses = send(options.getWarmupReports(), options.getReports(), histogram);
+        long elapsedNanos = System.nanoTime() - start;
+
+        // Count the statements of the coalesced last-seen and last-login updates as well
+        waitForBufferedWrites();
+
+        printReport(System.out, histogram, statuses, elapsedNanos, queryCountHolder, fcmService, geocodingService,
+                stagesBefore, stageSnapshots(meterRegistry));
+
+        if (options.getHistogramFile() != null) {
+            try (PrintStream out = new PrintStream(options.getHistogramFile(), StandardCharsets.UTF_8.name())) {
+                histogram.outputPercentileDistribution(out, 1000.0);
+            }
+            log.info("Latency histogram written to {}", options.getHistogramFile());
+        }
+    }
+
+    /**
+     * Send {@code count} reports starting at report {@code firstIndex} and return the number of
+     * responses per HTTP status, {@code -1} standing for connection errors.
+     */
+    private Map<Integer, LongAdder> send(long firstIndex, int count, Histogram histogram) throws InterruptedException {
+        Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        AtomicLong next = new AtomicLong(firstIndex);
+        long end = firstIndex + count;
+
+        ExecutorService clients = Executors.newFixedThreadPool(options.getConcurrency());
+        for (int i = 0; i < options.getConcurrency(); i++) {
+            clients.execute(() -> {
+                long index;
+                while ((index = next.getAndIncrement()) < end) {
+                    int status = sendReport(index, histogram);
+                    statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+                }
+            });
+        }
+        clients.shutdown();
+        clients.awaitTermination(1, TimeUnit.HOURS);
+        return statuses;
+    }
+
+    private int sendReport(long index, Histogram histogram) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(reportUri)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(generator.generate(index))))
+                    .build();
+
+            long start = System.nanoTime();
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            histogram.recordValue(Math.min(HIGHEST_TRACKABLE_LATENCY_MICROS,
+                    TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start)));
+            return response.statusCode();
+        } catch (IOException e) {
+            log.debug("Report {} failed: {}", index, e.getMessage());
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+
+    private void waitForBufferedWrites() throws InterruptedException {
+        Environment environment = context.getEnvironment();
+        long flushInterval = Math.max(
+                environment.getProperty("ecoguard.device.last-seen-flush-interval-ms", Long.class, 1000L),
+                environment.getProperty("ecoguard.auth.last-login-flush-interval-ms", Long.class, 5000L));
+        Thread.sleep(flushInterval * 2);
+    }
+
+    private static Map<String, HistogramSnapshot> stageSnapshots(MeterRegistry meterRegistry) {
+        Map<String, HistogramSnapshot> snapshots = new TreeMap<>();
+        for (Timer timer : meterRegistry.find("ecoguard.ingest.stage").timers()) {
+            snapshots.put(timer.getId().getTag("stage"), timer.takeSnapshot());
+        }
+        return snapshots;
+    }
+
+    private void printReport(PrintStream out, Histogram histogram, Map<Integer, LongAdder> statuses, long elapsedNanos,
+                             SingleQueryCountHolder queryCountHolder, StubFCMService fcmService,
+                             StubGeocodingService geocodingService, Map<String, HistogramSnapshot> stagesBefore,
+                             Map<String, HistogramSnapshot> stagesAfter) {
+        double reports = options.getReports();
+        double seconds = elapsedNanos / 1e9;
+
+        out.println();
+        out.println("=== Ingest load test ===");
+        out.println("Options: " + options);
+        out.printf("Throughput: %.1f reports/s (%d reports in %.2f s)%n", reports / seconds, options.getReports(), seconds);
+
+        out.print("Responses:");
+        new TreeMap<>(statuses).forEach((status, count) ->
+                out.print(" " + (status < 0 ? "error" : status.toString()) + "=" + count.sum()));
+        out.println();
+
+        out.printf("Latency (ms): p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f mean=%.2f%n",
+                histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(90) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0,
+                histogram.getMean() / 1000.0);
+
+        long select = 0;
+        long insert = 0;
+        long update = 0;
+        long delete = 0;
+        long other = 0;
+        for (QueryCount count : queryCountHolder.getQueryCountMap().values()) {
+            select += count.getSelect();
+            insert += count.getInsert();
+            update += count.getUpdate();
+            delete += count.getDelete();
+            other += count.getOther();
+        }
+        out.printf("Database statements per report: select=%.2f insert=%.2f update=%.2f delete=%.2f other=%.2f total=%.2f%n",
+                select / reports, insert / reports, update / reports, delete / reports, other / reports,
+                (select + insert + update + delete + other) / reports);
+
+        out.printf("Stubbed calls per report: fcm=%.2f geocoding=%.2f%n",
+                fcmService.getCalls() / reports, geocodingService.getCalls() / reports);
+
+        out.println("Ingest stages (mean ms):");
+        stagesAfter.forEach((stage, after) -> {
+            HistogramSnapshot before = stagesBefore.get(stage);
+            long count = after.count() - (before != null ? before.count() : 0);
+            double totalMs = after.total(TimeUnit.MILLISECONDS) - (before != null ? before.total(TimeUnit.MILLISECONDS) : 0);
+            if (count > 0) {
+                out.printf("  %-22s %.3f (%d calls)%n", stage, totalMs / count, count);
+            }
+        });
+
+        out.println();
+        out.println("Latency distribution (ms):");
+        histogram.outputPercentileDistribution(out, 1000.0);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.ecoguard.tracking.loadtest;
+
+import net.ttddyy.dsproxy.listener.SingleQueryCountHolder;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+
+import javax.sql.DataSource;
+
+/**
+ * Replaces the external dependencies of the ingest path with stubs and counts the
+ * statements sent to the database.
+ */
+@Configuration
+@Profile("loadtest")
+public class LoadTestConfiguration {
+
+    @Bean
+    @Primary
+    StubFCMService stubFcmService(@Value("${ecoguard.loadtest.fcm-latency-ms:0}") long latencyMs) {
+        return new StubFCMService(latencyMs);
+    }
+
+    @Bean
+    @Primary
+    StubGeocodingService stubGeocodingService(@Value("${ecoguard.loadtest.geocoding-latency-ms:0}") long latencyMs) {
+        return new StubGeocodingService(latencyMs);
+    }
+
+    /**
+     * Start every run from an empty database, with the schema of the migrations.
+     */
+    @Bean
+    FlywayMigrationStrategy cleanMigrateStrategy() {
+        return flyway -> {
+            flyway.clean();
+            flyway.migrate();
+        };
+    }
+
+    /**
+     * Statement counts of all threads, per data source.
+     */
+    @Bean
+    SingleQueryCountHolder queryCountHolder() {
+        return new SingleQueryCountHolder();
+    }
+
+    /**
+     * Wrap the data source so that every statement, including JDBC batches, is counted
+     * in {@link #queryCountHolder()}.
+     */
+    @Bean
+    static BeanPostProcessor queryCountingDataSourcePostProcessor(ObjectProvider<SingleQueryCountHolder> queryCountHolder) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create((DataSource) bean)
+                            .name(beanName)
+                            .countQuery(queryCountHolder.getObject())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
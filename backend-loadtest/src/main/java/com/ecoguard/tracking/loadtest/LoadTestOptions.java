@@ -0,0 +1,112 @@
+package com.ecoguard.tracking.loadtest;
+
+import lombok.Getter;
+
+/**
+ * Load test settings, given on the command line as {@code --loadtest.name=value}.
+ * All arguments, including these, are also passed on to Spring Boot, so application properties
+ * can be overridden the same way.
+ */
+@Getter
+class LoadTestOptions {
+
+    private static final String PREFIX = "--loadtest.";
+
+    /** Number of simulated phones sending reports. */
+    private int phones = 1000;
+
+    /** Number of stolen devices the phones report on. */
+    private int devices = 100;
+
+    /** Reports sent before measuring, to warm up the JIT, connection pools and caches. */
+    private int warmupReports = 2000;
+
+    /** Reports sent during the measurement. */
+    private int reports = 20000;
+
+    /** Concurrent clients, each sending one report at a time. */
+    private int concurrency = 32;
+
+    /** Ingest endpoint: {@code sync} for /anonymous-reports or {@code async} for /anonymous-reports/async. */
+    private String endpoint = "sync";
+
+    /** Whether phones sign their reports, so that signature verification is part of the measurement. */
+    private boolean signReports = true;
+
+    /** Simulated latency of the stubbed Firebase calls. */
+    private long fcmLatencyMs = 0;
+
+    /** Simulated latency of the stubbed geocoding calls. */
+    private long geocodingLatencyMs = 0;
+
+    /** Seed for the generated data, so that runs are comparable. */
+    private long seed = 42;
+
+    /** Optional file receiving the latency histogram in HdrHistogram percentile format. */
+    private String histogramFile;
+
+    static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (String arg : args) {
+            if (!arg.startsWith(PREFIX)) {
+                continue;
+            }
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Missing value for option " + arg);
+            }
+            options.set(arg.substring(PREFIX.length(), separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+
+    private void set(String name, String value) {
+        switch (name) {
+            case "phones":
+                phones = Integer.parseInt(value);
+                break;
+            case "devices":
+                devices = Integer.parseInt(value);
+                break;
+            case "warmup-reports":
+                warmupReports = Integer.parseInt(value);
+                break;
+            case "reports":
+                reports = Integer.parseInt(value);
+                break;
+            case "concurrency":
+                concurrency = Integer.parseInt(value);
+                break;
+            case "endpoint":
+                if (!"sync".equals(value) && !"async".equals(value)) {
+                    throw new IllegalArgumentException("Unknown endpoint: " + value);
+                }
+                endpoint = value;
+                break;
+            case "sign-reports":
+                signReports = Boolean.parseBoolean(value);
+                break;
+            case "fcm-latency-ms":
+                fcmLatencyMs = Long.parseLong(value);
+                break;
+            case "geocoding-latency-ms":
+                geocodingLatencyMs = Long.parseLong(value);
+                break;
+            case "seed":
+                seed = Long.parseLong(value);
+                break;
+            case "histogram-file":
+                histogramFile = value;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown load test option: " + name);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "phones=" + phones + ", devices=" + devices + ", warmupReports=" + warmupReports
+                + ", reports=" + reports + ", concurrency=" + concurrency + ", endpoint=" + endpoint + ", signReports=" + signReports + ", fcmLatencyMs=" + fcmLatencyMs
+                + ", geocodingLatencyMs=" + geocodingLatencyMs + ", seed=" + seed;
+    }
+}
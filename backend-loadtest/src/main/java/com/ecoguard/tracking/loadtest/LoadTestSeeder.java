@@ -0,0 +1,86 @@
+package com.ecoguard.tracking.loadtest;
+
+import com.ecoguard.tracking.entity.Device;
+import com.ecoguard.tracking.entity.TheftReport;
+import com.ecoguard.tracking.entity.User;
+import com.ecoguard.tracking.repository.DeviceRepository;
+import com.ecoguard.tracking.repository.TheftReportRepository;
+import com.ecoguard.tracking.repository.UserRepository;
+import org.springframework.context.ApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Creates the stolen devices the load test reports on, each with an owner and an active
+ * theft report, so that every generated report goes through the full ingest path.
+ */
+class LoadTestSeeder {
+
+    private static final int DEVICES_PER_USER = 2;
+
+    private final UserRepository userRepository;
+    private final DeviceRepository deviceRepository;
+    private final TheftReportRepository theftReportRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    LoadTestSeeder(ApplicationContext context) {
+        this.userRepository = context.getBean(UserRepository.class);
+        this.deviceRepository = context.getBean(DeviceRepository.class);
+        this.theftReportRepository = context.getBean(TheftReportRepository.class);
+        this.transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    void seed(ReportGenerator generator) {
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<User> users = new ArrayList<>();
+            List<Device> devices = new ArrayList<>();
+            List<TheftReport> theftReports = new ArrayList<>();
+
+            User owner = null;
+            for (int i = 0; i < generator.getDeviceCount(); i++) {
+                if (i % DEVICES_PER_USER == 0) {
+                    Set<String> fcmTokens = new HashSet<>();
+                    fcmTokens.add("loadtest-fcm-token-" + i);
+                    owner = User.builder()
+                            .email("loadtest-" + i + "@example.com")
+                            .password("{noop}loadtest")
+                            .name("Load Test " + i)
+                            .accountEnabled(true)
+                            .fcmTokens(fcmTokens)
+                            .build();
+                    users.add(owner);
+                }
+
+                Device device = Device.builder()
+                        .user(owner)
+                        .partitionUuid(generator.getPartitionUuid(i))
+                        .name("Appareil " + i)
+                        .model("Load Test")
+                        .status(Device.DeviceStatus.STOLEN)
+                        .registrationDate(now.minusMonths(1))
+                        .build();
+                devices.add(device);
+
+                theftReports.add(TheftReport.builder()
+                        .device(device)
+                        .reportedAt(now.minusDays(1))
+                        .theftDate(now.minusDays(1))
+                        .theftLatitude(generator.getLatitude(i))
+                        .theftLongitude(generator.getLongitude(i))
+                        .status(TheftReport.TheftReportStatus.ACTIVE)
+                        .build());
+            }
+
+            userRepository.saveAll(users);
+            deviceRepository.saveAll(devices);
+            theftReportRepository.saveAll(theftReports);
+        });
+    }
+}
@@ -0,0 +1,182 @@
+package com.ecoguard.tracking.loadtest;
+
+import com.ecoguard.tracking.dto.AnonymousReportDTO;
+import com.ecoguard.tracking.security.ReportSignaturePayload;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.security.spec.ECGenParameterSpec;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Generates anonymous reports from simulated phones about a fixed set of stolen devices.
+ * <p>
+ * Devices are spread over the Paris area and a fifth of them receive most of the reports, as
+ * devices kept in busy places are seen far more often. Each report is derived from its index
+ * and the seed only, so the same reports are produced whatever the concurrency. When signing is
+ * enabled each phone has its own ECDSA P-256 key; keys and signatures are random, which does not
+ * change the work done by the server.
+ */
+class ReportGenerator {
+
+    private static final double CENTER_LATITUDE = 48.8566;
+    private static final double CENTER_LONGITUDE = 2.3522;
+    private static final double AREA_RADIUS_DEGREES = 0.15; // ~15km
+    private static final double METERS_PER_DEGREE = 111_320;
+    private static final String[] NETWORK_TYPES = {"BLE", "BLE", "BLE", "WIFI", "CELLULAR"};
+
+    private final long seed;
+    private final String[] partitionUuids;
+    private final double[] deviceLatitudes;
+    private final double[] deviceLongitudes;
+    private final String[] reporterHashes;
+    private final String[] reporterPublicKeys;
+    private final PrivateKey[] reporterPrivateKeys;
+
+    ReportGenerator(LoadTestOptions options) {
+        this.seed = options.getSeed();
+        SplittableRandom random = new SplittableRandom(seed);
+
+        int devices = options.getDevices();
+        this.partitionUuids = new String[devices];
+        this.deviceLatitudes = new double[devices];
+        this.deviceLongitudes = new double[devices];
+        for (int i = 0; i < devices; i++) {
+            partitionUuids[i] = UUID.nameUUIDFromBytes(("loadtest-device-" + seed + "-" + i)
+                    .getBytes(StandardCharsets.UTF_8)).toString();
+            deviceLatitudes[i] = CENTER_LATITUDE + (random.nextDouble() * 2 - 1) * AREA_RADIUS_DEGREES;
+            deviceLongitudes[i] = CENTER_LONGITUDE + (random.nextDouble() * 2 - 1) * AREA_RADIUS_DEGREES;
+        }
+
+        this.reporterHashes = new String[options.getPhones()];
+        if (options.isSignReports()) {
+            this.reporterPublicKeys = new String[reporterHashes.length];
+            this.reporterPrivateKeys = new PrivateKey[reporterHashes.length];
+            KeyPairGenerator keyPairGenerator = ecKeyPairGenerator();
+            for (int i = 0; i < reporterHashes.length; i++) {
+                KeyPair keyPair = keyPairGenerator.generateKeyPair();
+                byte[] encodedPublicKey = keyPair.getPublic().getEncoded();
+                reporterHashes[i] = ReportSignaturePayload.reporterHash(encodedPublicKey);
+                reporterPublicKeys[i] = Base64.getEncoder().encodeToString(encodedPublicKey);
+                reporterPrivateKeys[i] = keyPair.getPrivate();
+            }
+        } else {
+            this.reporterPublicKeys = null;
+            this.reporterPrivateKeys = null;
+            for (int i = 0; i < reporterHashes.length; i++) {
+                reporterHashes[i] = sha256("loadtest-phone-" + seed + "-" + i);
+            }
+        }
+    }
+
+    int getDeviceCount() {
+        return partitionUuids.length;
+    }
+
+    String getPartitionUuid(int device) {
+        return partitionUuids[device];
+    }
+
+    double getLatitude(int device) {
+        return deviceLatitudes[device];
+    }
+
+    double getLongitude(int device) {
+        return deviceLongitudes[device];
+    }
+
+    AnonymousReportDTO generate(long index) {
+        SplittableRandom random = new SplittableRandom(seed * 31 + index);
+
+        // 80% of the reports go to 20% of the devices
+        int hotDevices = Math.max(1, partitionUuids.length / 5);
+        int device = random.nextDouble() < 0.8
+                ? random.nextInt(hotDevices)
+                : random.nextInt(partitionUuids.length);
+
+        // Log-normal accuracy with a median of 15m, as reported by phones outdoors and indoors
+        double accuracy = Math.min(200, Math.max(3, 15 * Math.exp(0.8 * gaussian(random))));
+
+        // The reported position is off by about the accuracy
+        double latitude = deviceLatitudes[device] + gaussian(random) * accuracy / METERS_PER_DEGREE;
+        double longitude = deviceLongitudes[device] + gaussian(random) * accuracy
+                / (METERS_PER_DEGREE * Math.cos(Math.toRadians(deviceLatitudes[device])));
+
+        // Weaker signals and worse fixes lower the confidence
+        int signalStrength = -40 - random.nextInt(60);
+        int confidence = (int) Math.round(100 + (signalStrength + 40) * 0.6 - accuracy / 4 + gaussian(random) * 8);
+        confidence = Math.min(100, Math.max(0, confidence));
+
+        // Phones report in batches, so observations reach the server after a short delay
+        long delaySeconds = (long) (-Math.log(1 - random.nextDouble()) * 10);
+
+        int phone = random.nextInt(reporterHashes.length);
+        AnonymousReportDTO report = AnonymousReportDTO.builder()
+                .devicePartitionUuid(partitionUuids[device])
+                .observationTime(LocalDateTime.now().minusSeconds(delaySeconds))
+                .latitude(latitude)
+                .longitude(longitude)
+                .accuracy(accuracy)
+                .confidence(confidence)
+                .reporterHash(reporterHashes[phone])
+                .signalStrength(signalStrength)
+                .batteryLevel(5 + random.nextInt(96))
+                .networkType(NETWORK_TYPES[random.nextInt(NETWORK_TYPES.length)])
+                .build();
+        if (reporterPrivateKeys != null) {
+            report.setReporterPublicKey(reporterPublicKeys[phone]);
+            report.setSignature(sign(reporterPrivateKeys[phone], ReportSignaturePayload.of(report)));
+        }
+        return report;
+    }
+
+    private static KeyPairGenerator ecKeyPairGenerator() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            return generator;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("ECDSA P-256 not available", e);
+        }
+    }
+
+    private static String sign(PrivateKey privateKey, byte[] payload) {
+        try {
+            Signature signature = Signature.getInstance("SHA256withECDSA");
+            signature.initSign(privateKey);
+            signature.update(payload);
+            return Base64.getEncoder().encodeToString(signature.sign());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not sign report", e);
+        }
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        // Box-Muller, SplittableRandom has no nextGaussian
+        double u = 1 - random.nextDouble();
+        double v = random.nextDouble();
+        return Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * v);
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder();
+            for (byte b : digest) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
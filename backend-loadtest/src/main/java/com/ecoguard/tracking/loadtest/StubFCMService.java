@@ -0,0 +1,61 @@
+package com.ecoguard.tracking.loadtest;
+
+import com.ecoguard.tracking.service.FCMService;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link FCMService} that sends nothing and only waits for the configured latency,
+ * so that the load test does not need Firebase.
+ */
+class StubFCMService extends FCMService {
+
+    private final long latencyMs;
+    private final AtomicLong calls = new AtomicLong();
+
+    StubFCMService(long latencyMs) {
+        // Every method is overridden, the outbound executor is never used
+        super(null);
+        this.latencyMs = latencyMs;
+    }
+
+    long getCalls() {
+        return calls.get();
+    }
+
+    void reset() {
+        calls.set(0);
+    }
+
+    @Override
+    public void sendMessage(String token, String title, String body, Map<String, String> data) {
+        simulateCall();
+    }
+
+    @Override
+    public void sendMulticastMessage(List<String> tokens, String title, String body, Map<String, String> data) {
+        simulateCall();
+    }
+
+    @Override
+    public void sendTopicMessage(String topic, String title, String body, Map<String, String> data) {
+        simulateCall();
+    }
+
+    @Override
+    public void subscribeToTopic(List<String> tokens, String topic) {
+        simulateCall();
+    }
+
+    @Override
+    public void unsubscribeFromTopic(List<String> tokens, String topic) {
+        simulateCall();
+    }
+
+    private void simulateCall() {
+        calls.incrementAndGet();
+        LoadTestConfiguration.sleep(latencyMs);
+    }
+}
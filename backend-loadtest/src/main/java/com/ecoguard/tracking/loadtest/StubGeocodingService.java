@@ -0,0 +1,36 @@
+package com.ecoguard.tracking.loadtest;
+
+import com.ecoguard.tracking.service.GeocodingService;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link GeocodingService} that returns a fixed address after the configured latency,
+ * so that the load test does not call Nominatim.
+ */
+class StubGeocodingService extends GeocodingService {
+
+    private final long latencyMs;
+    private final AtomicLong calls = new AtomicLong();
+
+    StubGeocodingService(long latencyMs) {
+        // Every method is overridden, the outbound executor is never used
+        super(null, null);
+        this.latencyMs = latencyMs;
+    }
+
+    long getCalls() {
+        return calls.get();
+    }
+
+    void reset() {
+        calls.set(0);
+    }
+
+    @Override
+    public String getAddress(double latitude, double longitude) {
+        calls.incrementAndGet();
+        LoadTestConfiguration.sleep(latencyMs);
+        return "Place de l'Hôtel de Ville, Paris";
+    }
+}
@@ -0,0 +1,303 @@
+package com.ecoguard.tracking.archive;
+
+import com.ecoguard.tracking.config.ArchiveProperties;
+import com.ecoguard.tracking.dto.ArchiveSegmentDTO;
+import com.ecoguard.tracking.dto.ArchivedObservationDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Segment files of the cold archive, one per device and month under
+ * {@code <directory>/<deviceId>/<yyyy-MM>.seg}, see {@link ObservationSegmentCodec}.
+ * <p>
+ * Appending writes the new rows to an immutable part next to the segment,
+ * {@code <yyyy-MM>.<n>.part} in the same format, so that each archiver batch costs only its own
+ * rows. {@link #compact(Long)} later merges the parts of a device into its segments (by id, so
+ * archiving the same rows twice is harmless), writing the merged segment to a temporary file and
+ * moving it over the old one before deleting the parts. Readers merge the parts not compacted yet.
+ */
+@Component
+@Slf4j
+public class ObservationArchive {
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String PART_SUFFIX = ".part";
+
+    private static final Comparator<ArchivedObservationDTO> ROW_ORDER = Comparator
+            .comparing(ArchivedObservationDTO::getObservationTime)
+            .thenComparing(ArchivedObservationDTO::getId);
+
+    private final Path directory;
+    private final Map<Path, Object> segmentLocks = new ConcurrentHashMap<>();
+
+    public ObservationArchive(ArchiveProperties properties) {
+        this.directory = Paths.get(properties.getDirectory());
+    }
+
+    /**
+     * Add observations of a device to its segments, grouped by month, as one new part per month.
+     * The parts are on disk when this returns.
+     */
+    public void append(Long deviceId, List<ArchivedObservationDTO> observations) {
+        Map<YearMonth, List<ArchivedObservationDTO>> byMonth = new TreeMap<>();
+        for (ArchivedObservationDTO observation : observations) {
+            byMonth.computeIfAbsent(YearMonth.from(observation.getObservationTime()), month -> new ArrayList<>())
+                    .add(observation);
+        }
+        for (Map.Entry<YearMonth, List<ArchivedObservationDTO>> entry : byMonth.entrySet()) {
+            appendPart(deviceId, entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Merge the parts of a device into its segments, rewriting each segment that has parts once.
+     */
+    public void compact(Long deviceId) {
+        for (Map.Entry<YearMonth, MonthFiles> month : files(deviceId).entrySet()) {
+            if (!month.getValue().parts.isEmpty()) {
+                compactMonth(deviceId, month.getKey());
+            }
+        }
+    }
+
+    /**
+     * Archived observations of a device with {@code from <= observationTime < to}, in time order.
+     *
+     * @param from lower bound, or {@code null} for none
+     * @param to   upper bound, or {@code null} for none
+     */
+    public List<ArchivedObservationDTO> find(Long deviceId, LocalDateTime from, LocalDateTime to) {
+        YearMonth firstMonth = from != null ? YearMonth.from(from) : null;
+        YearMonth lastMonth = to != null ? YearMonth.from(to) : null;
+        List<ArchivedObservationDTO> result = new ArrayList<>();
+        for (Map.Entry<YearMonth, MonthFiles> month : files(deviceId).entrySet()) {
+            if ((firstMonth != null && month.getKey().isBefore(firstMonth))
+                    || (lastMonth != null && month.getKey().isAfter(lastMonth))) {
+                continue;
+            }
+            MonthFiles files = month.getValue();
+            if (files.parts.isEmpty()) {
+                result.addAll(ObservationSegmentCodec.read(files.segment, deviceId, from, to));
+            } else {
+                result.addAll(readMerged(deviceId, month.getKey(), from, to));
+            }
+        }
+        return result;
+    }
+
+    public List<ArchiveSegmentDTO> listSegments(Long deviceId) {
+        List<ArchiveSegmentDTO> result = new ArrayList<>();
+        for (Map.Entry<YearMonth, MonthFiles> month : files(deviceId).entrySet()) {
+            MonthFiles files = month.getValue();
+            ArchiveSegmentDTO.ArchiveSegmentDTOBuilder segment = ArchiveSegmentDTO.builder()
+                    .deviceId(deviceId)
+                    .month(month.getKey())
+                    .sizeBytes(files.sizeBytes());
+            if (files.parts.isEmpty()) {
+                ObservationSegmentCodec.Summary summary = ObservationSegmentCodec.readSummary(files.segment);
+                segment.observationCount(summary.getCount())
+                        .firstObservation(summary.getFirst())
+                        .lastObservation(summary.getLast());
+            } else {
+                // Parts may repeat rows until compacted, count the merged rows
+                List<ArchivedObservationDTO> rows = readMerged(deviceId, month.getKey(), null, null);
+                segment.observationCount(rows.size());
+                if (!rows.isEmpty()) {
+                    segment.firstObservation(rows.get(0).getObservationTime())
+                            .lastObservation(rows.get(rows.size() - 1).getObservationTime());
+                }
+            }
+            result.add(segment.build());
+        }
+        return result;
+    }
+
+    private void appendPart(Long deviceId, YearMonth month, List<ArchivedObservationDTO> observations) {
+        synchronized (lock(deviceId, month)) {
+            MonthFiles files = files(deviceId).get(month);
+            int number = files != null ? files.lastPartNumber + 1 : 1;
+            Path part = deviceDirectory(deviceId).resolve(month + "." + number + PART_SUFFIX);
+            try {
+                write(part, ObservationSegmentCodec.encode(observations));
+                log.debug("Archived {} observations of device {} in part {}", observations.size(), deviceId, part);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write archive part " + part, e);
+            }
+        }
+    }
+
+    private void compactMonth(Long deviceId, YearMonth month) {
+        synchronized (lock(deviceId, month)) {
+            MonthFiles files = files(deviceId).get(month);
+            if (files == null || files.parts.isEmpty()) {
+                return;
+            }
+            Path segment = segmentPath(deviceId, month);
+            try {
+                write(segment, ObservationSegmentCodec.encode(merge(deviceId, files, null, null)));
+                // A crash before all parts are deleted only leaves rows that the next merge drops
+                for (Path part : files.parts) {
+                    Files.delete(part);
+                }
+                log.debug("Merged {} parts of device {} into segment {}", files.parts.size(), deviceId, segment);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not compact archive segment " + segment, e);
+            }
+        }
+    }
+
+    /**
+     * Rows of a month with parts, read under its lock so that a compaction cannot delete a part
+     * between listing and reading it.
+     */
+    private List<ArchivedObservationDTO> readMerged(Long deviceId, YearMonth month, LocalDateTime from,
+                                                    LocalDateTime to) {
+        synchronized (lock(deviceId, month)) {
+            MonthFiles files = files(deviceId).get(month);
+            return files != null ? merge(deviceId, files, from, to) : new ArrayList<>(0);
+        }
+    }
+
+    private static List<ArchivedObservationDTO> merge(Long deviceId, MonthFiles files, LocalDateTime from,
+                                                      LocalDateTime to) {
+        Map<Long, ArchivedObservationDTO> rows = new HashMap<>();
+        if (files.segment != null) {
+            for (ArchivedObservationDTO row : ObservationSegmentCodec.read(files.segment, deviceId, from, to)) {
+                rows.put(row.getId(), row);
+            }
+        }
+        for (Path part : files.parts) {
+            for (ArchivedObservationDTO row : ObservationSegmentCodec.read(part, deviceId, from, to)) {
+                rows.put(row.getId(), row);
+            }
+        }
+        List<ArchivedObservationDTO> merged = new ArrayList<>(rows.values());
+        merged.sort(ROW_ORDER);
+        return merged;
+    }
+
+    private Object lock(Long deviceId, YearMonth month) {
+        return segmentLocks.computeIfAbsent(segmentPath(deviceId, month), path -> new Object());
+    }
+
+    private static void write(Path segment, byte[] content) throws IOException {
+        Files.createDirectories(segment.getParent());
+        Path temporary = segment.resolveSibling(segment.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(content);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            // The rows are deleted from the database once this returns, they must be on disk
+            channel.force(true);
+        }
+        try {
+            Files.move(temporary, segment, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, segment, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Segment and parts of each month of a device, parts in the order they were written.
+     */
+    private Map<YearMonth, MonthFiles> files(Long deviceId) {
+        Map<YearMonth, MonthFiles> files = new TreeMap<>();
+        Path deviceDirectory = deviceDirectory(deviceId);
+        if (!Files.isDirectory(deviceDirectory)) {
+            return files;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(deviceDirectory,
+                "*{" + SEGMENT_SUFFIX + "," + PART_SUFFIX + "}")) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                try {
+                    if (name.endsWith(SEGMENT_SUFFIX)) {
+                        YearMonth month = YearMonth.parse(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+                        files.computeIfAbsent(month, m -> new MonthFiles()).segment = file;
+                    } else {
+                        String[] fields = name.substring(0, name.length() - PART_SUFFIX.length()).split("\\.");
+                        if (fields.length != 2) {
+                            log.warn("Ignoring unexpected file in archive: {}", file);
+                            continue;
+                        }
+                        YearMonth month = YearMonth.parse(fields[0]);
+                        files.computeIfAbsent(month, m -> new MonthFiles()).addPart(file, Integer.parseInt(fields[1]));
+                    }
+                } catch (DateTimeParseException | NumberFormatException e) {
+                    log.warn("Ignoring unexpected file in archive: {}", file);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list archive segments of device " + deviceId, e);
+        }
+        for (MonthFiles month : files.values()) {
+            month.parts.sort(Comparator.comparingInt(MonthFiles::partNumber));
+        }
+        return files;
+    }
+
+    private Path segmentPath(Long deviceId, YearMonth month) {
+        return deviceDirectory(deviceId).resolve(month + SEGMENT_SUFFIX);
+    }
+
+    private Path deviceDirectory(Long deviceId) {
+        return directory.resolve(String.valueOf(deviceId));
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read size of archive segment " + file, e);
+        }
+    }
+
+    private static final class MonthFiles {
+
+        private Path segment;
+        private final List<Path> parts = new ArrayList<>();
+        private int lastPartNumber;
+
+        void addPart(Path part, int number) {
+            parts.add(part);
+            lastPartNumber = Math.max(lastPartNumber, number);
+        }
+
+        static int partNumber(Path part) {
+            String name = part.getFileName().toString();
+            return Integer.parseInt(name.substring(name.indexOf('.') + 1, name.length() - PART_SUFFIX.length()));
+        }
+
+        long sizeBytes() {
+            long size = segment != null ? sizeOf(segment) : 0;
+            for (Path part : parts) {
+                size += sizeOf(part);
+            }
+            return size;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.ecoguard.tracking.archive;
+
+import com.ecoguard.tracking.config.ArchiveProperties;
+import com.ecoguard.tracking.dto.ArchiveRunDTO;
+import com.ecoguard.tracking.dto.ArchivedObservationDTO;
+import com.ecoguard.tracking.entity.Observation;
+import com.ecoguard.tracking.repository.ObservationRepository;
+import com.ecoguard.tracking.repository.TheftReportRepository;
+import com.ecoguard.tracking.service.RecentObservationStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves observations out of the database into the {@link ObservationArchive}, so that they
+ * remain available for legal holds: observations past retention, and all observations of a
+ * device once its theft report has been resolved for a while.
+ * <p>
+ * Rows are moved per device in batches, each in its own transaction: the batch is written to
+ * the archive before it is deleted, and a batch whose deletion fails is archived again on the
+ * next run without creating duplicates. Ghosts stored by older versions are deleted without
+ * being archived. Batches land in archive parts, merged into the segments of the device once
+ * all its batches are moved.
+ */
+@Component
+@Slf4j
+public class ObservationArchiver {
+
+    // Caches that may list or count archived observations
+    private static final String[] CACHES = {"observations", "observation-stats", "devices", "device"};
+
+    private final ObservationRepository observationRepository;
+    private final TheftReportRepository theftReportRepository;
+    private final ObservationArchive observationArchive;
+    private final RecentObservationStore recentObservationStore;
+    private final ArchiveProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final int maxAgeDays;
+
+    private final Counter expiredArchived;
+    private final Counter resolvedCaseArchived;
+
+    public ObservationArchiver(ObservationRepository observationRepository,
+                               TheftReportRepository theftReportRepository,
+                               ObservationArchive observationArchive,
+                               RecentObservationStore recentObservationStore,
+                               ArchiveProperties properties,
+                               PlatformTransactionManager transactionManager,
+                               CacheManager cacheManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${ecoguard.observation.max-age-days:30}") int maxAgeDays) {
+        this.observationRepository = observationRepository;
+        this.theftReportRepository = theftReportRepository;
+        this.observationArchive = observationArchive;
+        this.recentObservationStore = recentObservationStore;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cacheManager = cacheManager;
+        this.maxAgeDays = maxAgeDays;
+        this.expiredArchived = counter(meterRegistry, "expired");
+        this.resolvedCaseArchived = counter(meterRegistry, "resolved-case");
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("ecoguard.archive.observations")
+                .description("Observations moved to the cold archive")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs daily before the observation cleanup, which is skipped while archiving is enabled.
+     */
+    @Scheduled(cron = "${ecoguard.archive.cron:0 30 1 * * *}")
+    public void scheduledArchive() {
+        if (properties.isEnabled()) {
+            archive();
+        }
+    }
+
+    public ArchiveRunDTO archive() {
+        LocalDateTime now = LocalDateTime.now();
+
+        long resolvedCaseCount = 0;
+        LocalDateTime resolvedBefore = now.minus(properties.getResolvedCaseDelay());
+        for (Long deviceId : theftReportRepository.findDeviceIdsWithResolvedCaseBefore(resolvedBefore)) {
+            resolvedCaseCount += archiveDevice(deviceId, now);
+        }
+        resolvedCaseArchived.increment(resolvedCaseCount);
+
+        long expiredCount = 0;
+        LocalDateTime cutoffDate = now.minusDays(maxAgeDays);
+        for (Long deviceId : observationRepository.findDeviceIdsWithObservationsOlderThan(cutoffDate)) {
+            expiredCount += archiveDevice(deviceId, cutoffDate);
+        }
+        expiredArchived.increment(expiredCount);
+
+        if (expiredCount + resolvedCaseCount > 0) {
+            recentObservationStore.reloadOnCommit();
+            // Cleared here rather than with @CacheEvict, which the scheduled self-call would bypass
+            evictCaches();
+        }
+
+        log.info("Archived {} expired observations and {} observations of resolved cases",
+                expiredCount, resolvedCaseCount);
+        return ArchiveRunDTO.builder()
+                .expiredObservations(expiredCount)
+                .resolvedCaseObservations(resolvedCaseCount)
+                .build();
+    }
+
+    private void evictCaches() {
+        for (String name : CACHES) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+
+    private long archiveDevice(Long deviceId, LocalDateTime cutoffDate) {
+        long archived = 0;
+        while (true) {
+            Integer batch = transactionTemplate.execute(status -> archiveBatch(deviceId, cutoffDate));
+            if (batch == null || batch < 0) {
+                break;
+            }
+            archived += batch;
+        }
+        try {
+            observationArchive.compact(deviceId);
+        } catch (UncheckedIOException e) {
+            // The parts stay readable and are merged the next time the device is archived
+            log.warn("Could not compact archive of device {}: {}", deviceId, e.getMessage());
+        }
+        return archived;
+    }
+
+    /**
+     * @return the number of observations archived, or -1 when nothing was left to move
+     */
+    private int archiveBatch(Long deviceId, LocalDateTime cutoffDate) {
+        List<Observation> rows = observationRepository.findByDeviceIdOlderThan(
+                deviceId, cutoffDate, PageRequest.of(0, properties.getBatchSize()));
+        if (rows.isEmpty()) {
+            return -1;
+        }
+
+        List<ArchivedObservationDTO> archived = new ArrayList<>(rows.size());
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (Observation row : rows) {
+            ids.add(row.getId());
+            if (!row.isGhost()) {
+                archived.add(toArchived(deviceId, row));
+            }
+        }
+        if (!archived.isEmpty()) {
+            observationArchive.append(deviceId, archived);
+        }
+        observationRepository.deleteAllByIdInBatch(ids);
+        return archived.size();
+    }
+
+    private static ArchivedObservationDTO toArchived(Long deviceId, Observation observation) {
+        return ArchivedObservationDTO.builder()
+                .id(observation.getId())
+                .deviceId(deviceId)
+                .observationTime(observation.getObservationTime())
+                .latitude(observation.getLatitude())
+                .longitude(observation.getLongitude())
+                .accuracy(observation.getAccuracy())
+                .confidence(observation.getConfidence())
+                .reporterHash(observation.getReporterHash())
+                .signalStrength(observation.getSignalStrength())
+                .batteryLevel(observation.getBatteryLevel())
+                .networkType(observation.getNetworkType())
+                .additionalData(observation.getAdditionalData())
+                .build();
+    }
+}
@@ -0,0 +1,411 @@
+package com.ecoguard.tracking.archive;
+
+import com.ecoguard.tracking.dto.ArchivedObservationDTO;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Columnar file format of an archive segment, the observations of one device for one month.
+ * <p>
+ * Layout: a fixed header (magic, version, row count, first and last time in microseconds)
+ * followed by one deflated block per column, each prefixed with its raw and deflated sizes.
+ * Rows are sorted by time then id. Times and fixed-point coordinates (1e-7 degrees) are stored
+ * as zigzag varint deltas from the previous row, which are small for a device moving along a
+ * track and compress well. Nullable integers are stored as {@code zigzag + 1} with 0 meaning
+ * null, strings as their UTF-8 length + 1 (0 meaning null) followed by the bytes.
+ * <p>
+ * Readers map the file read-only and inflate straight from the mapping. The time column is
+ * decoded first and the other columns only when some rows fall in the requested range.
+ */
+public final class ObservationSegmentCodec {
+
+    private static final int MAGIC = 0x45474131; // "EGA1"
+    private static final byte VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 1 + 4 + 8 + 8;
+    private static final int COLUMN_COUNT = 11;
+
+    private static final double COORDINATE_SCALE = 1e7;
+    private static final double ACCURACY_SCALE = 100;
+
+    private static final Comparator<ArchivedObservationDTO> ROW_ORDER = Comparator
+            .comparing(ArchivedObservationDTO::getObservationTime)
+            .thenComparing(ArchivedObservationDTO::getId);
+
+    private ObservationSegmentCodec() {
+    }
+
+    /**
+     * Row count and time bounds of a segment, read from its header only.
+     */
+    public static final class Summary {
+
+        private final int count;
+        private final LocalDateTime first;
+        private final LocalDateTime last;
+
+        Summary(int count, LocalDateTime first, LocalDateTime last) {
+            this.count = count;
+            this.first = first;
+            this.last = last;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public LocalDateTime getFirst() {
+            return first;
+        }
+
+        public LocalDateTime getLast() {
+            return last;
+        }
+    }
+
+    public static byte[] encode(List<ArchivedObservationDTO> observations) {
+        List<ArchivedObservationDTO> rows = new ArrayList<>(observations);
+        rows.sort(ROW_ORDER);
+
+        ColumnWriter ids = new ColumnWriter();
+        ColumnWriter times = new ColumnWriter();
+        ColumnWriter latitudes = new ColumnWriter();
+        ColumnWriter longitudes = new ColumnWriter();
+        ColumnWriter accuracies = new ColumnWriter();
+        ColumnWriter confidences = new ColumnWriter();
+        ColumnWriter reporters = new ColumnWriter();
+        ColumnWriter signals = new ColumnWriter();
+        ColumnWriter batteries = new ColumnWriter();
+        ColumnWriter networks = new ColumnWriter();
+        ColumnWriter additionalData = new ColumnWriter();
+
+        long previousId = 0;
+        long previousTime = 0;
+        long previousLatitude = 0;
+        long previousLongitude = 0;
+        for (ArchivedObservationDTO row : rows) {
+            long time = toMicros(row.getObservationTime());
+            long latitude = Math.round(row.getLatitude() * COORDINATE_SCALE);
+            long longitude = Math.round(row.getLongitude() * COORDINATE_SCALE);
+
+            ids.writeSigned(row.getId() - previousId);
+            times.writeSigned(time - previousTime);
+            latitudes.writeSigned(latitude - previousLatitude);
+            longitudes.writeSigned(longitude - previousLongitude);
+            accuracies.writeUnsigned(Math.round(row.getAccuracy() * ACCURACY_SCALE));
+            confidences.writeUnsigned(row.getConfidence());
+            reporters.writeString(row.getReporterHash());
+            signals.writeNullable(row.getSignalStrength());
+            batteries.writeNullable(row.getBatteryLevel());
+            networks.writeString(row.getNetworkType());
+            additionalData.writeString(row.getAdditionalData());
+
+            previousId = row.getId();
+            previousTime = time;
+            previousLatitude = latitude;
+            previousLongitude = longitude;
+        }
+
+        ColumnWriter[] columns = {ids, times, latitudes, longitudes, accuracies, confidences,
+                reporters, signals, batteries, networks, additionalData};
+        byte[][] deflated = new byte[COLUMN_COUNT][];
+        int size = HEADER_SIZE;
+        for (int i = 0; i < COLUMN_COUNT; i++) {
+            deflated[i] = deflate(columns[i].buffer, columns[i].size);
+            size += 8 + deflated[i].length;
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(size);
+        out.putInt(MAGIC);
+        out.put(VERSION);
+        out.putInt(rows.size());
+        out.putLong(rows.isEmpty() ? 0 : toMicros(rows.get(0).getObservationTime()));
+        out.putLong(rows.isEmpty() ? 0 : toMicros(rows.get(rows.size() - 1).getObservationTime()));
+        for (int i = 0; i < COLUMN_COUNT; i++) {
+            out.putInt(columns[i].size);
+            out.putInt(deflated[i].length);
+            out.put(deflated[i]);
+        }
+        return out.array();
+    }
+
+    public static Summary readSummary(Path file) {
+        ByteBuffer buffer = map(file);
+        int count = readHeader(buffer, file);
+        return new Summary(count, fromMicros(buffer.getLong()), fromMicros(buffer.getLong()));
+    }
+
+    /**
+     * Rows of the segment with {@code from <= observationTime < to}, in time order.
+     *
+     * @param from lower bound, or {@code null} for none
+     * @param to   upper bound, or {@code null} for none
+     */
+    public static List<ArchivedObservationDTO> read(Path file, Long deviceId, LocalDateTime from, LocalDateTime to) {
+        ByteBuffer buffer = map(file);
+        int count = readHeader(buffer, file);
+        long first = buffer.getLong();
+        long last = buffer.getLong();
+        long fromMicros = from != null ? toMicros(from) : Long.MIN_VALUE;
+        long toMicros = to != null ? toMicros(to) : Long.MAX_VALUE;
+        if (count == 0 || last < fromMicros || first >= toMicros) {
+            return new ArrayList<>(0);
+        }
+
+        ByteBuffer[] blocks = new ByteBuffer[COLUMN_COUNT];
+        int[] rawSizes = new int[COLUMN_COUNT];
+        for (int i = 0; i < COLUMN_COUNT; i++) {
+            rawSizes[i] = buffer.getInt();
+            int deflatedSize = buffer.getInt();
+            ByteBuffer block = buffer.slice();
+            block.limit(deflatedSize);
+            blocks[i] = block;
+            buffer.position(buffer.position() + deflatedSize);
+        }
+
+        long[] times = new long[count];
+        ColumnReader timeColumn = new ColumnReader(inflate(blocks[1], rawSizes[1], file));
+        long time = 0;
+        for (int row = 0; row < count; row++) {
+            time += timeColumn.readSigned();
+            times[row] = time;
+        }
+        int start = lowerBound(times, fromMicros);
+        int end = lowerBound(times, toMicros);
+        if (start >= end) {
+            return new ArrayList<>(0);
+        }
+
+        // Deltas make every column depend on the rows before, so decode up to the range end
+        ColumnReader ids = new ColumnReader(inflate(blocks[0], rawSizes[0], file));
+        ColumnReader latitudes = new ColumnReader(inflate(blocks[2], rawSizes[2], file));
+        ColumnReader longitudes = new ColumnReader(inflate(blocks[3], rawSizes[3], file));
+        ColumnReader accuracies = new ColumnReader(inflate(blocks[4], rawSizes[4], file));
+        ColumnReader confidences = new ColumnReader(inflate(blocks[5], rawSizes[5], file));
+        ColumnReader reporters = new ColumnReader(inflate(blocks[6], rawSizes[6], file));
+        ColumnReader signals = new ColumnReader(inflate(blocks[7], rawSizes[7], file));
+        ColumnReader batteries = new ColumnReader(inflate(blocks[8], rawSizes[8], file));
+        ColumnReader networks = new ColumnReader(inflate(blocks[9], rawSizes[9], file));
+        ColumnReader additionalData = new ColumnReader(inflate(blocks[10], rawSizes[10], file));
+
+        List<ArchivedObservationDTO> result = new ArrayList<>(end - start);
+        long id = 0;
+        long latitude = 0;
+        long longitude = 0;
+        for (int row = 0; row < end; row++) {
+            id += ids.readSigned();
+            latitude += latitudes.readSigned();
+            longitude += longitudes.readSigned();
+            long accuracy = accuracies.readUnsigned();
+            long confidence = confidences.readUnsigned();
+            String reporterHash = reporters.readString();
+            Integer signalStrength = signals.readNullable();
+            Integer batteryLevel = batteries.readNullable();
+            String networkType = networks.readString();
+            String additional = additionalData.readString();
+            if (row < start) {
+                continue;
+            }
+            result.add(ArchivedObservationDTO.builder()
+                    .id(id)
+                    .deviceId(deviceId)
+                    .observationTime(fromMicros(times[row]))
+                    .latitude(latitude / COORDINATE_SCALE)
+                    .longitude(longitude / COORDINATE_SCALE)
+                    .accuracy(accuracy / ACCURACY_SCALE)
+                    .confidence((int) confidence)
+                    .reporterHash(reporterHash)
+                    .signalStrength(signalStrength)
+                    .batteryLevel(batteryLevel)
+                    .networkType(networkType)
+                    .additionalData(additional)
+                    .build());
+        }
+        return result;
+    }
+
+    private static MappedByteBuffer map(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not map archive segment " + file, e);
+        }
+    }
+
+    private static int readHeader(ByteBuffer buffer, Path file) {
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            throw new IllegalStateException("Not an archive segment: " + file);
+        }
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalStateException("Unsupported archive segment version " + version + ": " + file);
+        }
+        return buffer.getInt();
+    }
+
+    private static int lowerBound(long[] sorted, long value) {
+        int index = Arrays.binarySearch(sorted, value);
+        if (index < 0) {
+            return -index - 1;
+        }
+        // Several rows may share a time, step back to the first one
+        while (index > 0 && sorted[index - 1] == value) {
+            index--;
+        }
+        return index;
+    }
+
+    private static byte[] deflate(byte[] raw, int length) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(raw, 0, length);
+            deflater.finish();
+            byte[] out = new byte[Math.max(64, length / 2)];
+            int size = 0;
+            while (!deflater.finished()) {
+                if (size == out.length) {
+                    out = Arrays.copyOf(out, out.length * 2);
+                }
+                size += deflater.deflate(out, size, out.length - size);
+            }
+            return Arrays.copyOf(out, size);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(ByteBuffer block, int rawSize, Path file) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(block.duplicate());
+            byte[] raw = new byte[rawSize];
+            int size = 0;
+            while (size < rawSize && !inflater.finished()) {
+                int read = inflater.inflate(raw, size, rawSize - size);
+                if (read == 0 && inflater.needsInput()) {
+                    break;
+                }
+                size += read;
+            }
+            if (size != rawSize) {
+                throw new IllegalStateException("Truncated column in archive segment " + file);
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupted column in archive segment " + file, e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    private static final class ColumnWriter {
+
+        private byte[] buffer = new byte[256];
+        private int size;
+
+        void writeUnsigned(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        void writeSigned(long value) {
+            writeUnsigned((value << 1) ^ (value >> 63));
+        }
+
+        void writeNullable(Integer value) {
+            writeUnsigned(value == null ? 0 : ((((long) value) << 1) ^ (((long) value) >> 63)) + 1);
+        }
+
+        void writeString(String value) {
+            if (value == null) {
+                writeUnsigned(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeUnsigned(bytes.length + 1L);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, size, bytes.length);
+            size += bytes.length;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (size + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+            }
+        }
+    }
+
+    private static final class ColumnReader {
+
+        private final byte[] buffer;
+        private int position;
+
+        ColumnReader(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        long readUnsigned() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        long readSigned() {
+            long value = readUnsigned();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        Integer readNullable() {
+            long value = readUnsigned();
+            if (value == 0) {
+                return null;
+            }
+            value--;
+            return (int) ((value >>> 1) ^ -(value & 1));
+        }
+
+        String readString() {
+            long length = readUnsigned();
+            if (length == 0) {
+                return null;
+            }
+            String value = new String(buffer, position, (int) length - 1, StandardCharsets.UTF_8);
+            position += (int) length - 1;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.ecoguard.tracking.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.Collections;
+
+/**
+ * Short-lived Redis lease that lets a single node load a missing cache entry while the
+ * other nodes wait for the result to appear in Redis.
+ * <p>
+ * The lease expires on its own, so a node that dies while loading only delays the others
+ * by the lease duration. Redis errors are treated as an acquired lease: losing stampede
+ * protection is preferable to failing the read.
+ */
+@Slf4j
+public class CacheLoadLease {
+
+    private static final String KEY_PREFIX = "ecoguard:cache:lease:";
+
+    // Only the owner may release the lease, otherwise a slow loader could delete a newer lease
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final String nodeId;
+    private final Duration duration;
+
+    public CacheLoadLease(StringRedisTemplate redisTemplate, String nodeId, Duration duration) {
+        this.redisTemplate = redisTemplate;
+        this.nodeId = nodeId;
+        this.duration = duration;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public boolean tryAcquire(String cacheName, String key) {
+        try {
+            Boolean acquired = redisTemplate.opsForValue().setIfAbsent(leaseKey(cacheName, key), nodeId, duration);
+            return !Boolean.FALSE.equals(acquired);
+        } catch (RuntimeException e) {
+            log.warn("Could not acquire cache load lease for {}::{}: {}", cacheName, key, e.getMessage());
+            return true;
+        }
+    }
+
+    public void release(String cacheName, String key) {
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, Collections.singletonList(leaseKey(cacheName, key)), nodeId);
+        } catch (RuntimeException e) {
+            log.warn("Could not release cache load lease for {}::{}: {}", cacheName, key, e.getMessage());
+        }
+    }
+
+    private static String leaseKey(String cacheName, String key) {
+        return KEY_PREFIX + cacheName + ":" + key;
+    }
+}
@@ -0,0 +1,19 @@
+package com.ecoguard.tracking.cache;
+
+import java.io.IOException;
+
+/**
+ * Encodes cache values to bytes and back.
+ * Each codec has a stable one-byte id that is written in front of every stored value,
+ * so a cache can switch codecs without flushing entries written with the previous one.
+ */
+public interface CacheValueCodec {
+
+    byte getId();
+
+    String getName();
+
+    byte[] encode(Object value) throws IOException;
+
+    Object decode(byte[] bytes) throws IOException;
+}
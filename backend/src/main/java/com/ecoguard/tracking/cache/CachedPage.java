@@ -0,0 +1,30 @@
+package com.ecoguard.tracking.cache;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+/**
+ * {@link Page} implementation that can be read back from the cache.
+ * {@link PageImpl} has no creator Jackson can use, so cached paged results are wrapped in this class.
+ */
+public class CachedPage<T> extends PageImpl<T> {
+
+    private static final long serialVersionUID = 1L;
+
+    public CachedPage(Page<T> page) {
+        super(page.getContent(), page.getPageable(), page.getTotalElements());
+    }
+
+    @JsonCreator
+    public CachedPage(@JsonProperty("content") List<T> content,
+                      @JsonProperty("number") int number,
+                      @JsonProperty("size") int size,
+                      @JsonProperty("totalElements") long totalElements) {
+        super(content, PageRequest.of(number, Math.max(size, 1)), totalElements);
+    }
+}
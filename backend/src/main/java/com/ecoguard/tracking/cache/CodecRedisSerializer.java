@@ -0,0 +1,108 @@
+package com.ecoguard.tracking.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * Redis value serializer that delegates to a {@link CacheValueCodec} and optionally compresses
+ * large values with LZ4.
+ * <p>
+ * Stored layout: {@code [codec id][flags][payload]}, where a set {@link #FLAG_LZ4} flag means the
+ * payload is the uncompressed length as an int followed by the LZ4 block. Values are always read
+ * with the codec named in their header. Entries that cannot be read (unknown codec, legacy format,
+ * incompatible class change) are treated as cache misses rather than errors.
+ */
+@Slf4j
+public class CodecRedisSerializer implements RedisSerializer<Object> {
+
+    static final byte FLAG_LZ4 = 1;
+
+    private static final int HEADER_LENGTH = 2;
+
+    private static final LZ4Factory LZ4 = LZ4Factory.fastestInstance();
+
+    private final CacheValueCodec writeCodec;
+    private final Map<Byte, CacheValueCodec> readCodecs;
+    private final int compressionThreshold;
+
+    /**
+     * @param writeCodec           codec used for new values
+     * @param readCodecs           all codecs that may have written existing values, by id
+     * @param compressionThreshold encoded size in bytes from which values are LZ4 compressed, or a negative value to disable
+     */
+    public CodecRedisSerializer(CacheValueCodec writeCodec, Map<Byte, CacheValueCodec> readCodecs,
+                                int compressionThreshold) {
+        this.writeCodec = writeCodec;
+        this.readCodecs = readCodecs;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        
+        byte[] encoded;
+        try {
+            encoded = writeCodec.encode(value);
+        } catch (IOException e) {
+            throw new SerializationException("Could not encode cache value with codec " + writeCodec.getName(), e);
+        }
+        
+        if (compressionThreshold < 0 || encoded.length < compressionThreshold) {
+            return ByteBuffer.allocate(HEADER_LENGTH + encoded.length)
+                    .put(writeCodec.getId())
+                    .put((byte) 0)
+                    .put(encoded)
+                    .array();
+        }
+        
+        LZ4Compressor compressor = LZ4.fastCompressor();
+        byte[] compressed = new byte[compressor.maxCompressedLength(encoded.length)];
+        int compressedLength = compressor.compress(encoded, 0, encoded.length, compressed, 0, compressed.length);
+        return ByteBuffer.allocate(HEADER_LENGTH + Integer.BYTES + compressedLength)
+                .put(writeCodec.getId())
+                .put(FLAG_LZ4)
+                .putInt(encoded.length)
+                .put(compressed, 0, compressedLength)
+                .array();
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length < HEADER_LENGTH) {
+            return null;
+        }
+        
+        CacheValueCodec codec = readCodecs.get(bytes[0]);
+        if (codec == null) {
+            log.debug("Ignoring cache value written with unknown codec id {}", bytes[0]);
+            return null;
+        }
+        
+        try {
+            byte[] encoded;
+            if ((bytes[1] & FLAG_LZ4) != 0) {
+                int length = ByteBuffer.wrap(bytes, HEADER_LENGTH, Integer.BYTES).getInt();
+                LZ4FastDecompressor decompressor = LZ4.fastDecompressor();
+                encoded = decompressor.decompress(bytes, HEADER_LENGTH + Integer.BYTES, length);
+            } else {
+                encoded = new byte[bytes.length - HEADER_LENGTH];
+                System.arraycopy(bytes, HEADER_LENGTH, encoded, 0, encoded.length);
+            }
+            return codec.decode(encoded);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable cache value written with codec {}: {}", codec.getName(), e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.ecoguard.tracking.cache;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+
+/**
+ * Jackson based codec, either as JSON or as Smile (binary JSON).
+ * Smile is the default for caches: field names and repeated short strings such as type ids
+ * are written once and back-referenced, and numbers and timestamps are stored in binary.
+ */
+public class JacksonCacheValueCodec implements CacheValueCodec {
+
+    public static final byte JSON_ID = 1;
+    public static final byte SMILE_ID = 2;
+
+    private final byte id;
+    private final String name;
+    private final ObjectMapper objectMapper;
+
+    private JacksonCacheValueCodec(byte id, String name, JsonFactory jsonFactory) {
+        this.id = id;
+        this.name = name;
+        this.objectMapper = createObjectMapper(jsonFactory);
+    }
+
+    public static JacksonCacheValueCodec json() {
+        return new JacksonCacheValueCodec(JSON_ID, "json", new JsonFactory());
+    }
+
+    public static JacksonCacheValueCodec smile() {
+        SmileFactory smileFactory = SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+        return new JacksonCacheValueCodec(SMILE_ID, "smile", smileFactory);
+    }
+
+    private static ObjectMapper createObjectMapper(JsonFactory jsonFactory) {
+        ObjectMapper objectMapper = new ObjectMapper(jsonFactory);
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        objectMapper.addMixIn(CachedPage.class, CachedPageMixIn.class);
+        objectMapper.activateDefaultTyping(
+                BasicPolymorphicTypeValidator.builder()
+                        .allowIfSubType("com.ecoguard.tracking.")
+                        .allowIfSubType("java.util.")
+                        .allowIfSubType("java.time.")
+                        .build(),
+                ObjectMapper.DefaultTyping.NON_FINAL,
+                JsonTypeInfo.As.PROPERTY);
+        return objectMapper;
+    }
+
+    @Override
+    public byte getId() {
+        return id;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public byte[] encode(Object value) throws IOException {
+        return objectMapper.writeValueAsBytes(value);
+    }
+
+    @Override
+    public Object decode(byte[] bytes) throws IOException {
+        return objectMapper.readValue(bytes, Object.class);
+    }
+
+    /**
+     * Only the content and paging numbers are stored; everything else on a page is derived.
+     */
+    @JsonIgnoreProperties(value = {"pageable", "sort", "first", "last", "empty", "numberOfElements", "totalPages"},
+            ignoreUnknown = true)
+    private abstract static class CachedPageMixIn {
+    }
+}
@@ -0,0 +1,312 @@
+package com.ecoguard.tracking.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import com.ecoguard.tracking.datasource.ReadYourWritesContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Cache with a size-bounded in-process L1 in front of a shared L2 (Redis).
+ * Reads are served from L1 when possible and fill it from L2 on a miss. Writes and evictions
+ * go to both tiers and are broadcast through {@link CacheInvalidationPublisher}, so other nodes
+ * drop their now stale L1 copies.
+ * <p>
+ * L1 keys are the string form of the cache key, which is also how Redis keys are built, so
+ * an invalidation message received from another node identifies the same entry.
+ * <p>
+ * Loads through {@link #get(Object, Callable)} (used by {@code @Cacheable(sync = true)}) are
+ * protected against stampedes:
+ * <ul>
+ *     <li>concurrent misses for the same key on one node share a single load;</li>
+ *     <li>across nodes, a short {@link CacheLoadLease} in Redis elects one loader while the
+ *     others wait for its result to appear in L2;</li>
+ *     <li>when a stale tier is configured, evicted L1 values are kept for a while and served
+ *     immediately on the next miss while one background load refreshes the entry.</li>
+ * </ul>
+ * A background load runs the cached method on another thread: in a read-only transaction on
+ * the primary, since the entry was most likely evicted by a write that replicas may not have
+ * yet, and with the security context of the request that found the stale value. Any other
+ * per-request state is missing there, so a stale tier is only for caches whose value depends
+ * on the method arguments alone.
+ */
+@Slf4j
+public class TwoTierCache implements Cache {
+
+    private static final long LEASE_POLL_INTERVAL_MS = 50;
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> stale;
+    private final Cache remote;
+    private final CacheInvalidationPublisher publisher;
+    private final CacheLoadLease lease;
+    private final Executor refreshExecutor;
+    private final TransactionTemplate refreshTransaction;
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter localHits;
+    private final Counter localMisses;
+    private final Counter remoteHits;
+    private final Counter remoteMisses;
+    private final Counter staleHits;
+
+    /**
+     * @param stale           holds values evicted from {@code local} for stale-while-revalidate, or {@code null} to disable it
+     * @param lease           cross-node load lease, or {@code null} to only deduplicate loads on this node
+     * @param refreshExecutor    runs background refreshes of stale entries
+     * @param refreshTransaction read-only transaction of background refreshes, or {@code null} to run them without one
+     */
+    public TwoTierCache(String name, com.github.benmanes.caffeine.cache.Cache<String, Object> local,
+                        com.github.benmanes.caffeine.cache.Cache<String, Object> stale, Cache remote,
+                        CacheInvalidationPublisher publisher, CacheLoadLease lease, Executor refreshExecutor,
+                        TransactionTemplate refreshTransaction, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.local = local;
+        this.stale = stale;
+        this.remote = remote;
+        this.publisher = publisher;
+        this.lease = lease;
+        this.refreshExecutor = refreshExecutor;
+        this.refreshTransaction = refreshTransaction;
+        this.localHits = counter(meterRegistry, "l1", "hit");
+        this.localMisses = counter(meterRegistry, "l1", "miss");
+        this.remoteHits = counter(meterRegistry, "l2", "hit");
+        this.remoteMisses = counter(meterRegistry, "l2", "miss");
+        this.staleHits = counter(meterRegistry, "stale", "hit");
+    }
+
+    private Counter counter(MeterRegistry meterRegistry, String tier, String result) {
+        return Counter.builder("ecoguard.cache.gets")
+                .description("Cache lookups per tier")
+                .tag("cache", name)
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = toLocalKey(key);
+        Object value = local.getIfPresent(localKey);
+        if (value != null) {
+            localHits.increment();
+            return new SimpleValueWrapper(value);
+        }
+        localMisses.increment();
+
+        ValueWrapper wrapper = remote.get(key);
+        if (wrapper != null && wrapper.get() != null) {
+            remoteHits.increment();
+            local.put(localKey, wrapper.get());
+        } else {
+            remoteMisses.increment();
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null && wrapper.get() != null) {
+            return (T) wrapper.get();
+        }
+
+        String localKey = toLocalKey(key);
+        Object staleValue = stale != null ? stale.getIfPresent(localKey) : null;
+        if (staleValue != null) {
+            staleHits.increment();
+            refreshInBackground(key, localKey, valueLoader);
+            return (T) staleValue;
+        }
+
+        try {
+            return (T) loadOnce(key, localKey, valueLoader).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ValueRetrievalException) {
+                throw (ValueRetrievalException) cause;
+            }
+            throw new ValueRetrievalException(key, valueLoader, cause);
+        }
+    }
+
+    private void refreshInBackground(Object key, String localKey, Callable<?> valueLoader) {
+        if (inFlight.containsKey(localKey)) {
+            return;
+        }
+        Callable<Object> refreshLoader = () -> refresh(key, valueLoader);
+        try {
+            refreshExecutor.execute(new DelegatingSecurityContextRunnable(
+                    () -> loadOnce(key, localKey, refreshLoader), SecurityContextHolder.getContext()));
+        } catch (RejectedExecutionException e) {
+            log.debug("Skipping background refresh of {}::{}, refresh queue is full", name, localKey);
+        }
+    }
+
+    private Object refresh(Object key, Callable<?> valueLoader) throws Exception {
+        if (refreshTransaction == null) {
+            return valueLoader.call();
+        }
+        return ReadYourWritesContext.callOnPrimary(() -> refreshTransaction.execute(status -> {
+            try {
+                return valueLoader.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+        }));
+    }
+
+    /**
+     * Load the entry, or join the load already running for this key on this node.
+     */
+    private CompletableFuture<Object> loadOnce(Object key, String localKey, Callable<?> valueLoader) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(localKey, future);
+        if (existing != null) {
+            return existing;
+        }
+
+        try {
+            Object value = loadWithLease(key, localKey, valueLoader);
+            if (value != null) {
+                local.put(localKey, value);
+            }
+            if (stale != null) {
+                stale.invalidate(localKey);
+            }
+            future.complete(value);
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        } finally {
+            inFlight.remove(localKey, future);
+        }
+        return future;
+    }
+
+    private Object loadWithLease(Object key, String localKey, Callable<?> valueLoader) throws Exception {
+        if (lease == null || lease.tryAcquire(name, localKey)) {
+            try {
+                return loadAndStore(key, valueLoader);
+            } finally {
+                if (lease != null) {
+                    lease.release(name, localKey);
+                }
+            }
+        }
+
+        // Another node holds the lease: wait for its result to appear in Redis
+        long deadline = System.currentTimeMillis() + lease.getDuration().toMillis();
+        while (System.currentTimeMillis() < deadline) {
+            Thread.sleep(LEASE_POLL_INTERVAL_MS);
+            ValueWrapper wrapper = remote.get(key);
+            if (wrapper != null && wrapper.get() != null) {
+                remoteHits.increment();
+                return wrapper.get();
+            }
+        }
+        log.debug("Cache load lease for {}::{} expired without a value, loading locally", name, localKey);
+        return loadAndStore(key, valueLoader);
+    }
+
+    private Object loadAndStore(Object key, Callable<?> valueLoader) throws Exception {
+        Object value = valueLoader.call();
+        if (value != null) {
+            remote.put(key, value);
+        }
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        String localKey = toLocalKey(key);
+        if (value != null) {
+            local.put(localKey, value);
+        } else {
+            local.invalidate(localKey);
+        }
+        publisher.publishEvict(name, localKey);
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        String localKey = toLocalKey(key);
+        evictLocal(localKey);
+        publisher.publishEvict(name, localKey);
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        clearLocal();
+        publisher.publishClear(name);
+    }
+
+    /**
+     * Drop an entry from L1 only, keeping it as stale when enabled.
+     * Also used in response to an invalidation from another node.
+     */
+    void evictLocal(String localKey) {
+        Object value = local.asMap().remove(localKey);
+        if (stale != null && value != null) {
+            stale.put(localKey, value);
+        }
+    }
+
+    /**
+     * Drop all L1 entries only, keeping them as stale when enabled.
+     * Also used in response to an invalidation from another node.
+     */
+    void clearLocal() {
+        if (stale != null) {
+            stale.putAll(local.asMap());
+        }
+        local.invalidateAll();
+    }
+
+    private static String toLocalKey(Object key) {
+        return String.valueOf(key);
+    }
+}
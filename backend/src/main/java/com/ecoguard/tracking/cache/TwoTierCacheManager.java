@@ -0,0 +1,135 @@
+package com.ecoguard.tracking.cache;
+
+import com.ecoguard.tracking.config.NearCacheProperties;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link CacheManager} that puts a Caffeine L1 (W-TinyLFU eviction) in front of every cache
+ * of the remote manager. It also listens on the invalidation channel and applies
+ * evictions published by other nodes to its local tier.
+ */
+@Slf4j
+public class TwoTierCacheManager implements CacheManager, MessageListener, DisposableBean {
+
+    private static final int REFRESH_THREADS = 2;
+    private static final int REFRESH_QUEUE_CAPACITY = 256;
+
+    private final CacheManager remoteCacheManager;
+    private final NearCacheProperties properties;
+    private final CacheInvalidationPublisher publisher;
+    private final CacheLoadLease lease;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor refreshExecutor;
+    private final TransactionTemplate refreshTransaction;
+
+    private final Map<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+    /**
+     * @param lease              cross-node load lease, or {@code null} to only deduplicate loads within this node
+     * @param refreshTransaction read-only transaction of background refreshes, or {@code null} to run them without one
+     */
+    public TwoTierCacheManager(CacheManager remoteCacheManager, NearCacheProperties properties,
+                               CacheInvalidationPublisher publisher, CacheLoadLease lease,
+                               TransactionTemplate refreshTransaction, MeterRegistry meterRegistry) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.properties = properties;
+        this.publisher = publisher;
+        this.lease = lease;
+        this.refreshTransaction = refreshTransaction;
+        this.meterRegistry = meterRegistry;
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.refreshExecutor = new ThreadPoolExecutor(REFRESH_THREADS, REFRESH_THREADS, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(REFRESH_QUEUE_CAPACITY), runnable -> {
+                    Thread thread = new Thread(runnable, "cache-refresh-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @Override
+    public void destroy() {
+        refreshExecutor.shutdown();
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        TwoTierCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache remote = remoteCacheManager.getCache(name);
+        if (remote == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, cacheName -> createCache(cacheName, remote));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remoteCacheManager.getCacheNames();
+    }
+
+    private TwoTierCache createCache(String name, Cache remote) {
+        NearCacheProperties.Spec spec = properties.specFor(name);
+        com.github.benmanes.caffeine.cache.Cache<String, Object> local = Caffeine.newBuilder()
+                .maximumSize(spec.getMaximumSize())
+                .expireAfterWrite(spec.getTimeToLive())
+                .build();
+        com.github.benmanes.caffeine.cache.Cache<String, Object> stale = null;
+        if (spec.getStaleTimeToLive() != null && !spec.getStaleTimeToLive().isZero()) {
+            stale = Caffeine.newBuilder()
+                    .maximumSize(spec.getMaximumSize())
+                    .expireAfterWrite(spec.getStaleTimeToLive())
+                    .build();
+        }
+        log.info("Near cache created for {} with maximum size {}, time-to-live {} and stale time-to-live {}",
+                name, spec.getMaximumSize(), spec.getTimeToLive(), spec.getStaleTimeToLive());
+        return new TwoTierCache(name, local, stale, remote, publisher, lease, refreshExecutor, refreshTransaction, meterRegistry);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int first = body.indexOf(CacheInvalidationPublisher.SEPARATOR);
+        int second = first < 0 ? -1 : body.indexOf(CacheInvalidationPublisher.SEPARATOR, first + 1);
+        if (second < 0) {
+            log.warn("Ignoring malformed cache invalidation message: {}", body);
+            return;
+        }
+
+        String nodeId = body.substring(0, first);
+        if (publisher.getNodeId().equals(nodeId)) {
+            return;
+        }
+
+        TwoTierCache cache = caches.get(body.substring(first + 1, second));
+        if (cache == null) {
+            return;
+        }
+
+        String key = body.substring(second + 1);
+        if (key.isEmpty()) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(key);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.ecoguard.tracking.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Settings of the cold archive of observations, see
+ * {@link com.ecoguard.tracking.archive.ObservationArchiver}.
+ */
+@Component
+@ConfigurationProperties(prefix = "ecoguard.archive")
+@Data
+public class ArchiveProperties {
+
+    /**
+     * When enabled, observations past retention are archived before being deleted, instead of
+     * only being deleted.
+     */
+    private boolean enabled = false;
+
+    private String directory = "data/archive";
+
+    /**
+     * How long the observations of a device stay in the database after its theft report is
+     * resolved.
+     */
+    private Duration resolvedCaseDelay = Duration.ofDays(7);
+
+    /**
+     * Observations moved per transaction.
+     */
+    private int batchSize = 5000;
+}
@@ -0,0 +1,30 @@
+package com.ecoguard.tracking.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Value codec settings for the Redis caches.
+ * The codec can be chosen per cache, e.g. {@code ecoguard.cache.codec.caches.devices=json}.
+ */
+@Component
+@ConfigurationProperties(prefix = "ecoguard.cache.codec")
+@Data
+public class CacheCodecProperties {
+
+    private String defaultCodec = "smile";
+
+    private Map<String, String> caches = new HashMap<>();
+
+    private boolean compressionEnabled = true;
+
+    private int compressionThreshold = 1024;
+
+    public String codecFor(String cacheName) {
+        return caches.getOrDefault(cacheName, defaultCodec);
+    }
+}
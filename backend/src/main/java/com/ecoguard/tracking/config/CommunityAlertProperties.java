@@ -0,0 +1,45 @@
+package com.ecoguard.tracking.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Settings of the community alerts sent when a device is stolen, see
+ * {@link com.ecoguard.tracking.service.CommunityAlertService}.
+ */
+@Component
+@ConfigurationProperties(prefix = "ecoguard.community-alert")
+@Data
+public class CommunityAlertProperties {
+
+    /**
+     * Geohash length of the alert cells, from 1 to 6. At 4, a cell is about 39 × 20 km and an
+     * alert covers its cell and the 8 around it.
+     */
+    private int precision = 4;
+
+    /**
+     * Topic of a cell: this prefix followed by the geohash of the cell.
+     */
+    private String topicPrefix = "stolen_devices_";
+
+    /**
+     * Topic of every phone, used only when neither the theft location nor the last position of
+     * the device is known.
+     */
+    private String globalTopic = "stolen_devices";
+
+    /**
+     * Alert the cells around a stolen device again when it is observed outside the cells
+     * already alerted.
+     */
+    private boolean realertOnMove = true;
+
+    /**
+     * Phones that have not sent their cell for this long are unsubscribed.
+     */
+    private Duration subscriptionTtl = Duration.ofDays(30);
+}
@@ -0,0 +1,116 @@
+package com.ecoguard.tracking.config;
+
+import com.ecoguard.tracking.datasource.ReadReplica;
+import com.ecoguard.tracking.datasource.ReadYourWritesFilter;
+import com.ecoguard.tracking.datasource.ReplicaLagMonitor;
+import com.ecoguard.tracking.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data source routing read-only transactions to read replicas, enabled with
+ * {@code ecoguard.datasource.read-replicas.enabled=true}. Without it Spring Boot's single
+ * pool on {@code spring.datasource.*} is used.
+ */
+@Configuration
+@Slf4j
+@ConditionalOnProperty(name = "ecoguard.datasource.read-replicas.enabled", havingValue = "true")
+public class DataSourceConfig {
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties dataSourceProperties,
+                                                             ReadReplicaProperties readReplicaProperties,
+                                                             Environment environment, MeterRegistry meterRegistry) {
+        // Same pool settings as Spring Boot's own data source
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+        primary.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+
+        if (readReplicaProperties.getReplicas().isEmpty()) {
+            log.warn("Read replicas are enabled but none is configured, every read goes to the primary");
+        }
+        List<ReadReplica> replicas = new ArrayList<>();
+        for (ReadReplicaProperties.Replica spec : readReplicaProperties.getReplicas()) {
+            String name = "replica-" + replicas.size();
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName(name);
+            pool.setJdbcUrl(spec.getUrl());
+            pool.setUsername(spec.getUsername() != null ? spec.getUsername() : dataSourceProperties.determineUsername());
+            pool.setPassword(spec.getPassword() != null ? spec.getPassword() : dataSourceProperties.determinePassword());
+            pool.setMaximumPoolSize(spec.getMaximumPoolSize());
+            pool.setConnectionTimeout(spec.getConnectionTimeout().toMillis());
+            pool.setReadOnly(true);
+            // Let the application start while a replica is down, the lag monitor will pick it up later
+            pool.setInitializationFailTimeout(-1);
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+
+            ReadReplica replica = new ReadReplica(name, pool);
+            Gauge.builder("ecoguard.datasource.replica.lag", replica, ReadReplica::getLagSeconds)
+                    .description("Replication lag of the read replica")
+                    .baseUnit("seconds")
+                    .tag("replica", name)
+                    .register(meterRegistry);
+            Gauge.builder("ecoguard.datasource.replica.available", replica, r -> r.isAvailable() ? 1 : 0)
+                    .description("Whether the read replica is in the read rotation")
+                    .tag("replica", name)
+                    .register(meterRegistry);
+            replicas.add(replica);
+        }
+
+        return new ReplicaRoutingDataSource(primary, replicas, meterRegistry);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ReplicaRoutingDataSource replicaRoutingDataSource,
+                                               ReadReplicaProperties readReplicaProperties) {
+        return new ReplicaLagMonitor(replicaRoutingDataSource.getReplicas(), readReplicaProperties.getMaxLag());
+    }
+
+    /**
+     * Registered ahead of the security filters, so authentication reads follow the same rules.
+     */
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter() {
+        FilterRegistrationBean<ReadYourWritesFilter> registration = new FilterRegistrationBean<>(new ReadYourWritesFilter());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    /**
+     * Hibernate holds the connection of the first transaction for the whole request with open-in-view.
+     * Releasing it after each transaction lets every transaction be routed on its own.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
@@ -5,6 +5,7 @@ import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.Resource;
@@ -12,7 +13,13 @@ import org.springframework.core.io.Resource;
 import javax.annotation.PostConstruct;
 import java.io.IOException;
 
+/**
+ * Initializes the Firebase application. Can be disabled with {@code firebase.enabled=false}
+ * for environments without Firebase credentials, in which case {@link com.ecoguard.tracking.service.FCMService}
+ * must be replaced.
+ */
 @Configuration
+@ConditionalOnProperty(name = "firebase.enabled", matchIfMissing = true)
 @Slf4j
 public class FirebaseConfig {
 
@@ -0,0 +1,37 @@
+package com.ecoguard.tracking.config;
+
+import com.ecoguard.tracking.geocoding.NominatimReverseGeocoder;
+import com.ecoguard.tracking.geocoding.OfflineReverseGeocoder;
+import com.ecoguard.tracking.geocoding.ReverseGeocoder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Reverse geocoding provider: the public Nominatim service by default, or with
+ * {@code ecoguard.geocoding.provider=offline} a local gazetteer, which has no rate limit.
+ */
+@Configuration
+public class GeocodingConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "ecoguard.geocoding.provider", havingValue = "nominatim", matchIfMissing = true)
+    public ReverseGeocoder nominatimReverseGeocoder() {
+        return new NominatimReverseGeocoder();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "ecoguard.geocoding.provider", havingValue = "offline")
+    public ReverseGeocoder offlineReverseGeocoder(GeocodingProperties properties) {
+        GeocodingProperties.Offline offline = properties.getOffline();
+        Path gazetteer = Paths.get(offline.getGazetteer());
+        Path adminCodes = offline.getAdminCodes() != null ? Paths.get(offline.getAdminCodes()) : null;
+        Path index = offline.getIndex() != null ? Paths.get(offline.getIndex())
+                : gazetteer.resolveSibling(gazetteer.getFileName() + ".kdt");
+        return OfflineReverseGeocoder.load(gazetteer, adminCodes, index, offline.getMinPopulation(),
+                offline.getMaxDistanceKm());
+    }
+}
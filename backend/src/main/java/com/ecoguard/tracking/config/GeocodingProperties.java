@@ -0,0 +1,52 @@
+package com.ecoguard.tracking.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings of reverse geocoding, see {@link GeocodingConfig}.
+ */
+@Component
+@ConfigurationProperties(prefix = "ecoguard.geocoding")
+@Data
+public class GeocodingProperties {
+
+    private Provider provider = Provider.NOMINATIM;
+
+    private Offline offline = new Offline();
+
+    public enum Provider {
+        NOMINATIM,
+        OFFLINE
+    }
+
+    @Data
+    public static class Offline {
+
+        /**
+         * GeoNames dump of the places to index, e.g. {@code cities500.txt}.
+         */
+        private String gazetteer = "data/geonames/cities500.txt";
+
+        /**
+         * GeoNames region names ({@code admin1CodesASCII.txt}), optional.
+         */
+        private String adminCodes;
+
+        /**
+         * Index file built from the gazetteer, by default next to it with a {@code .kdt} suffix.
+         */
+        private String index;
+
+        /**
+         * Places with fewer inhabitants are left out of the index.
+         */
+        private long minPopulation = 0;
+
+        /**
+         * Beyond this distance from the nearest place, the location is reported as unknown.
+         */
+        private double maxDistanceKm = 50;
+    }
+}
@@ -0,0 +1,66 @@
+package com.ecoguard.tracking.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings for the in-process (L1) cache placed in front of Redis.
+ * Each cache can override the default size and time-to-live, e.g.
+ * {@code ecoguard.cache.near.caches.observation-stats.maximum-size=5000}.
+ */
+@Component
+@ConfigurationProperties(prefix = "ecoguard.cache.near")
+@Data
+public class NearCacheProperties {
+
+    private boolean enabled = true;
+
+    private String invalidationChannel = "ecoguard:cache:invalidation";
+
+    /**
+     * How long one node may hold the Redis lease for loading a missing entry; zero disables the lease.
+     */
+    private Duration loadLeaseDuration = Duration.ofSeconds(5);
+
+    // Kept short: pub/sub invalidation is best effort, the TTL bounds staleness if a message is lost.
+    // Stale-while-revalidate is off unless a stale time-to-live is set.
+    private Spec defaults = new Spec(10000L, Duration.ofSeconds(60), Duration.ZERO);
+
+    private Map<String, Spec> caches = new HashMap<>();
+
+    public Spec specFor(String cacheName) {
+        Spec spec = caches.get(cacheName);
+        if (spec == null) {
+            return defaults;
+        }
+        Spec merged = new Spec();
+        merged.setMaximumSize(spec.getMaximumSize() != null ? spec.getMaximumSize() : defaults.getMaximumSize());
+        merged.setTimeToLive(spec.getTimeToLive() != null ? spec.getTimeToLive() : defaults.getTimeToLive());
+        merged.setStaleTimeToLive(spec.getStaleTimeToLive() != null ? spec.getStaleTimeToLive() : defaults.getStaleTimeToLive());
+        return merged;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Spec {
+
+        private Long maximumSize;
+
+        private Duration timeToLive;
+
+        /**
+         * How long an evicted value may still be served while it is reloaded in the background.
+         * Only for caches whose value depends on the method arguments alone, see
+         * {@link com.ecoguard.tracking.cache.TwoTierCache}.
+         */
+        private Duration staleTimeToLive;
+    }
+}
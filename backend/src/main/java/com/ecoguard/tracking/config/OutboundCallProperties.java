@@ -0,0 +1,71 @@
+package com.ecoguard.tracking.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings for blocking calls to external services (Firebase, geocoding).
+ * Each dependency can override the default limits, e.g.
+ * {@code ecoguard.outbound.dependencies.geocoding.max-concurrent=4}.
+ */
+@Component
+@ConfigurationProperties(prefix = "ecoguard.outbound")
+@Data
+public class OutboundCallProperties {
+
+    /**
+     * Threads running the calls: {@code virtual} threads, a bounded {@code platform} pool per
+     * dependency, or {@code auto} to use virtual threads when the JDK supports them.
+     */
+    private Mode mode = Mode.AUTO;
+
+    private Spec defaults = new Spec(16, 256, Duration.ofSeconds(5));
+
+    private Map<String, Spec> dependencies = new HashMap<>();
+
+    public Spec specFor(String dependency) {
+        Spec spec = dependencies.get(dependency);
+        if (spec == null) {
+            return defaults;
+        }
+        Spec merged = new Spec();
+        merged.setMaxConcurrent(spec.getMaxConcurrent() != null ? spec.getMaxConcurrent() : defaults.getMaxConcurrent());
+        merged.setQueueCapacity(spec.getQueueCapacity() != null ? spec.getQueueCapacity() : defaults.getQueueCapacity());
+        merged.setTimeout(spec.getTimeout() != null ? spec.getTimeout() : defaults.getTimeout());
+        return merged;
+    }
+
+    public enum Mode {
+        AUTO,
+        VIRTUAL,
+        PLATFORM
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Spec {
+
+        /**
+         * Calls to the dependency running at the same time.
+         */
+        private Integer maxConcurrent;
+
+        /**
+         * Calls waiting for a free slot; further calls are rejected.
+         */
+        private Integer queueCapacity;
+
+        /**
+         * Time from submission after which a call is abandoned and its thread interrupted; zero disables it.
+         */
+        private Duration timeout;
+    }
+}
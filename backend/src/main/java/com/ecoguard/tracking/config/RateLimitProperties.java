@@ -0,0 +1,66 @@
+package com.ecoguard.tracking.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Limits applied to the unauthenticated {@code /anonymous-reports/**} endpoints, e.g.
+ * {@code ecoguard.rate-limit.per-client.refill-per-second=10}.
+ */
+@Component
+@ConfigurationProperties(prefix = "ecoguard.rate-limit")
+@Data
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Requests per client IP address.
+     */
+    private Limit perClient = new Limit(20, 5);
+
+    /**
+     * Reports per client IP address sent through {@code /anonymous-reports/batch}, one token per
+     * report. The capacity must hold a full batch.
+     */
+    private Limit perClientBatch = new Limit(200, 5);
+
+    /**
+     * Reports per reporter hash, whatever the address they come from.
+     */
+    private Limit perReporter = new Limit(10, 1);
+
+    /**
+     * Upper bound on the number of buckets kept per limit; idle buckets are dropped first.
+     */
+    private long maxTrackedKeys = 100000;
+
+    private Global global = new Global();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+
+        /**
+         * Largest burst accepted from a key that was idle.
+         */
+        private int capacity;
+
+        private double refillPerSecond;
+    }
+
+    /**
+     * Budget shared by all nodes through Redis, on top of the per-key limits.
+     */
+    @Data
+    public static class Global {
+
+        private boolean enabled = false;
+
+        private long requestsPerSecond = 2000;
+    }
+}
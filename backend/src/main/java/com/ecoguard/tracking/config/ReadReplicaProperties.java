@@ -0,0 +1,44 @@
+package com.ecoguard.tracking.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings for routing read-only transactions to PostgreSQL read replicas, e.g.
+ * {@code ecoguard.datasource.read-replicas.replicas[0].url=jdbc:postgresql://replica:5432/ecoguard}.
+ * Username and password default to those of the primary.
+ */
+@Component
+@ConfigurationProperties(prefix = "ecoguard.datasource.read-replicas")
+@Data
+public class ReadReplicaProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Replicas lagging further behind the primary are skipped until they catch up.
+     */
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    @Data
+    public static class Replica {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        private int maximumPoolSize = 10;
+
+        // Kept short so that reads fall back to the primary quickly when a replica is down
+        private Duration connectionTimeout = Duration.ofSeconds(1);
+    }
+}
@@ -1,6 +1,14 @@
 package com.ecoguard.tracking.config;
 
+import com.ecoguard.tracking.cache.CacheInvalidationPublisher;
+import com.ecoguard.tracking.cache.CacheLoadLease;
+import com.ecoguard.tracking.cache.CacheValueCodec;
+import com.ecoguard.tracking.cache.CodecRedisSerializer;
+import com.ecoguard.tracking.cache.JacksonCacheValueCodec;
+import com.ecoguard.tracking.cache.TwoTierCacheManager;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -10,11 +18,19 @@ import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
 
 @Configuration
 @EnableCaching
@@ -46,16 +62,82 @@ public class RedisConfig {
         return template;
     }
 
+    /**
+     * Cache manager used by {@code @Cacheable}: Redis, optionally fronted by an in-process near cache.
+     */
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
-        RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory, NearCacheProperties nearCacheProperties,
+                                     CacheCodecProperties cacheCodecProperties, PlatformTransactionManager transactionManager,
+                                     MeterRegistry meterRegistry) {
+        RedisCacheManager redisCacheManager = redisCacheManager(connectionFactory, cacheCodecProperties);
+        if (!nearCacheProperties.isEnabled()) {
+            return redisCacheManager;
+        }
+        
+        String nodeId = UUID.randomUUID().toString();
+        StringRedisTemplate stringRedisTemplate = new StringRedisTemplate(connectionFactory);
+        CacheInvalidationPublisher publisher = new CacheInvalidationPublisher(
+                stringRedisTemplate, nearCacheProperties.getInvalidationChannel(), nodeId);
+        CacheLoadLease lease = nearCacheProperties.getLoadLeaseDuration().isZero()
+                ? null
+                : new CacheLoadLease(stringRedisTemplate, nodeId, nearCacheProperties.getLoadLeaseDuration());
+        TransactionTemplate refreshTransaction = new TransactionTemplate(transactionManager);
+        refreshTransaction.setReadOnly(true);
+        return new TwoTierCacheManager(redisCacheManager, nearCacheProperties, publisher, lease, refreshTransaction,
+                meterRegistry);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                           CacheManager cacheManager,
+                                                                           NearCacheProperties nearCacheProperties) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        if (cacheManager instanceof TwoTierCacheManager) {
+            container.addMessageListener((TwoTierCacheManager) cacheManager,
+                    new ChannelTopic(nearCacheProperties.getInvalidationChannel()));
+        }
+        return container;
+    }
+
+    private RedisCacheManager redisCacheManager(RedisConnectionFactory connectionFactory,
+                                                CacheCodecProperties cacheCodecProperties) {
+        Map<Byte, CacheValueCodec> codecsById = new HashMap<>();
+        Map<String, CacheValueCodec> codecsByName = new HashMap<>();
+        for (CacheValueCodec codec : new CacheValueCodec[]{JacksonCacheValueCodec.json(), JacksonCacheValueCodec.smile()}) {
+            codecsById.put(codec.getId(), codec);
+            codecsByName.put(codec.getName(), codec);
+        }
+        
+        Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
+        cacheCodecProperties.getCaches().keySet().forEach(cacheName -> cacheConfigurations.put(cacheName,
+                cacheConfiguration(cacheCodecProperties, codecsByName, codecsById, cacheCodecProperties.codecFor(cacheName))));
+        
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(cacheConfiguration(cacheCodecProperties, codecsByName, codecsById,
+                        cacheCodecProperties.getDefaultCodec()))
+                .withInitialCacheConfigurations(cacheConfigurations)
+                .build();
+        redisCacheManager.afterPropertiesSet();
+        return redisCacheManager;
+    }
+
+    private RedisCacheConfiguration cacheConfiguration(CacheCodecProperties cacheCodecProperties,
+                                                       Map<String, CacheValueCodec> codecsByName,
+                                                       Map<Byte, CacheValueCodec> codecsById,
+                                                       String codecName) {
+        CacheValueCodec codec = codecsByName.get(codecName);
+        if (codec == null) {
+            throw new IllegalArgumentException("Unknown cache codec: " + codecName);
+        }
+        
+        CodecRedisSerializer valueSerializer = new CodecRedisSerializer(codec, codecsById,
+                cacheCodecProperties.isCompressionEnabled() ? cacheCodecProperties.getCompressionThreshold() : -1);
+        
+        return RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofMillis(timeToLive))
                 .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
-                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(new GenericJackson2JsonRedisSerializer()))
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(valueSerializer))
                 .disableCachingNullValues();
-
-        return RedisCacheManager.builder(connectionFactory)
-                .cacheDefaults(config)
-                .build();
     }
 }
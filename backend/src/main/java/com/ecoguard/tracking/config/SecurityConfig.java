@@ -1,5 +1,6 @@
 package com.ecoguard.tracking.config;
 
+import com.ecoguard.tracking.security.BoundedPasswordEncoder;
 import com.ecoguard.tracking.security.JwtAuthenticationFilter;
 import com.ecoguard.tracking.security.JwtAuthorizationFilter;
 import com.ecoguard.tracking.security.JwtTokenProvider;
@@ -15,8 +16,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
@@ -33,6 +32,7 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
 
     private final UserDetailsServiceImpl userDetailsService;
     private final JwtTokenProvider jwtTokenProvider;
+    private final BoundedPasswordEncoder passwordEncoder;
 
     @Override
     protected void configure(HttpSecurity http) throws Exception {
@@ -55,6 +55,7 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
                 .antMatchers("/theft-reports/**").authenticated()
                 .antMatchers("/observations/**").authenticated()
                 .antMatchers("/notifications/**").authenticated()
+                .antMatchers("/geofences/**").authenticated()
                 .antMatchers("/users/**").authenticated()
                 // Admin endpoints
                 .antMatchers("/admin/**").hasRole("ADMIN")
@@ -67,7 +68,9 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
 
     @Override
     protected void configure(AuthenticationManagerBuilder auth) throws Exception {
-        auth.userDetailsService(userDetailsService).passwordEncoder(passwordEncoder());
+        // UserDetailsServiceImpl also implements UserDetailsPasswordService, so hashes below the
+        // configured BCrypt strength are re-encoded after a successful login
+        auth.userDetailsService(userDetailsService).passwordEncoder(passwordEncoder);
     }
 
     @Bean
@@ -76,11 +79,6 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
         return super.authenticationManagerBean();
     }
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
-
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
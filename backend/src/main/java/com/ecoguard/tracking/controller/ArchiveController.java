@@ -0,0 +1,48 @@
+package com.ecoguard.tracking.controller;
+
+import com.ecoguard.tracking.archive.ObservationArchive;
+import com.ecoguard.tracking.archive.ObservationArchiver;
+import com.ecoguard.tracking.dto.ArchiveRunDTO;
+import com.ecoguard.tracking.dto.ArchiveSegmentDTO;
+import com.ecoguard.tracking.dto.ArchivedObservationDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/admin/archive")
+@PreAuthorize("hasRole('ADMIN')")
+@RequiredArgsConstructor
+@Slf4j
+public class ArchiveController {
+
+    private final ObservationArchive observationArchive;
+    private final ObservationArchiver observationArchiver;
+
+    @GetMapping("/devices/{deviceId}/segments")
+    public ResponseEntity<List<ArchiveSegmentDTO>> getDeviceSegments(@PathVariable Long deviceId) {
+        log.debug("Getting archive segments for device ID: {}", deviceId);
+        return ResponseEntity.ok(observationArchive.listSegments(deviceId));
+    }
+
+    @GetMapping("/devices/{deviceId}/observations")
+    public ResponseEntity<List<ArchivedObservationDTO>> getArchivedObservations(
+            @PathVariable Long deviceId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime) {
+        log.debug("Getting archived observations for device ID: {} between {} and {}", deviceId, startTime, endTime);
+        return ResponseEntity.ok(observationArchive.find(deviceId, startTime, endTime));
+    }
+
+    @PostMapping("/run")
+    public ResponseEntity<ArchiveRunDTO> runArchive() {
+        log.info("Running observation archive on demand");
+        return ResponseEntity.ok(observationArchiver.archive());
+    }
+}
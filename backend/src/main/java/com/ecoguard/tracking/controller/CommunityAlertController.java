@@ -0,0 +1,42 @@
+package com.ecoguard.tracking.controller;
+
+import com.ecoguard.tracking.dto.AlertSubscriptionDTO;
+import com.ecoguard.tracking.service.CommunityAlertService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+
+/**
+ * Community alert subscriptions of the phones, public like the anonymous reports they lead to.
+ */
+@RestController
+@RequestMapping("/anonymous-reports/alert-subscription")
+@RequiredArgsConstructor
+@Slf4j
+public class CommunityAlertController {
+
+    private final CommunityAlertService communityAlertService;
+
+    /**
+     * Sent by phones on startup, when their FCM token changes and when they enter another cell.
+     */
+    @PutMapping
+    public ResponseEntity<Void> updateSubscription(@Valid @RequestBody AlertSubscriptionDTO subscriptionDTO) {
+        log.debug("Updating community alert subscription");
+        communityAlertService.updateSubscription(subscriptionDTO.getToken(), subscriptionDTO.getGeohash());
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Void> removeSubscription(@RequestBody AlertSubscriptionDTO subscriptionDTO) {
+        if (subscriptionDTO.getToken() == null || subscriptionDTO.getToken().isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        log.debug("Removing community alert subscription");
+        communityAlertService.removeSubscription(subscriptionDTO.getToken());
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -2,6 +2,7 @@ package com.ecoguard.tracking.controller;
 
 import com.ecoguard.tracking.dto.DeviceDTO;
 import com.ecoguard.tracking.entity.Device;
+import com.ecoguard.tracking.security.UserPrincipal;
 import com.ecoguard.tracking.service.DeviceService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -9,7 +10,6 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
@@ -24,10 +24,8 @@ public class DeviceController {
     private final DeviceService deviceService;
 
     @GetMapping
-    public ResponseEntity<List<DeviceDTO>> getUserDevices(@AuthenticationPrincipal UserDetails userDetails) {
-        // In a real application, you would get the user ID from the authenticated user
-        // For this prototype, we'll use a hardcoded user ID
-        Long userId = 1L; // This would be retrieved from the authenticated user
+    public ResponseEntity<List<DeviceDTO>> getUserDevices(@AuthenticationPrincipal UserPrincipal principal) {
+        Long userId = principal.getId();
         
         log.debug("Getting devices for user ID: {}", userId);
         List<DeviceDTO> devices = deviceService.getUserDevices(userId);
@@ -36,7 +34,7 @@ public class DeviceController {
 
     @GetMapping("/{id}")
     public ResponseEntity<DeviceDTO> getDeviceById(@PathVariable Long id, 
-                                                 @AuthenticationPrincipal UserDetails userDetails) {
+                                                 @AuthenticationPrincipal UserPrincipal principal) {
         log.debug("Getting device with ID: {}", id);
         DeviceDTO device = deviceService.getDeviceById(id);
         return ResponseEntity.ok(device);
@@ -44,7 +42,7 @@ public class DeviceController {
 
     @GetMapping("/partition/{partitionUuid}")
     public ResponseEntity<DeviceDTO> getDeviceByPartitionUuid(@PathVariable String partitionUuid,
-                                                            @AuthenticationPrincipal UserDetails userDetails) {
+                                                            @AuthenticationPrincipal UserPrincipal principal) {
         log.debug("Getting device with partition UUID: {}", partitionUuid);
         DeviceDTO device = deviceService.getDeviceByPartitionUuid(partitionUuid);
         return ResponseEntity.ok(device);
@@ -52,9 +50,8 @@ public class DeviceController {
 
     @PostMapping
     public ResponseEntity<DeviceDTO> registerDevice(@Valid @RequestBody DeviceDTO deviceDTO,
-                                                  @AuthenticationPrincipal UserDetails userDetails) {
-        // In a real application, you would get the user ID from the authenticated user
-        Long userId = 1L; // This would be retrieved from the authenticated user
+                                                  @AuthenticationPrincipal UserPrincipal principal) {
+        Long userId = principal.getId();
         
         log.debug("Registering new device for user ID: {}", userId);
         DeviceDTO registeredDevice = deviceService.registerDevice(userId, deviceDTO);
@@ -64,7 +61,7 @@ public class DeviceController {
     @PutMapping("/{id}")
     public ResponseEntity<DeviceDTO> updateDevice(@PathVariable Long id, 
                                                 @Valid @RequestBody DeviceDTO deviceDTO,
-                                                @AuthenticationPrincipal UserDetails userDetails) {
+                                                @AuthenticationPrincipal UserPrincipal principal) {
         log.debug("Updating device with ID: {}", id);
         DeviceDTO updatedDevice = deviceService.updateDevice(id, deviceDTO);
         return ResponseEntity.ok(updatedDevice);
@@ -73,7 +70,7 @@ public class DeviceController {
     @PutMapping("/{id}/status")
     public ResponseEntity<DeviceDTO> updateDeviceStatus(@PathVariable Long id, 
                                                       @RequestParam Device.DeviceStatus status,
-                                                      @AuthenticationPrincipal UserDetails userDetails) {
+                                                      @AuthenticationPrincipal UserPrincipal principal) {
         log.debug("Updating status of device with ID: {} to {}", id, status);
         DeviceDTO updatedDevice = deviceService.updateDeviceStatus(id, status);
         return ResponseEntity.ok(updatedDevice);
@@ -81,7 +78,7 @@ public class DeviceController {
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteDevice(@PathVariable Long id,
-                                           @AuthenticationPrincipal UserDetails userDetails) {
+                                           @AuthenticationPrincipal UserPrincipal principal) {
         log.debug("Deleting device with ID: {}", id);
         deviceService.deleteDevice(id);
         return ResponseEntity.noContent().build();
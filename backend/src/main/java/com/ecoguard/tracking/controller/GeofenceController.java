@@ -0,0 +1,73 @@
+package com.ecoguard.tracking.controller;
+
+import com.ecoguard.tracking.dto.GeofenceDTO;
+import com.ecoguard.tracking.security.UserPrincipal;
+import com.ecoguard.tracking.service.GeofenceService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+import java.util.List;
+
+@RestController
+@RequestMapping("/geofences")
+@RequiredArgsConstructor
+@Slf4j
+public class GeofenceController {
+
+    private final GeofenceService geofenceService;
+
+    @GetMapping
+    public ResponseEntity<List<GeofenceDTO>> getUserGeofences(@AuthenticationPrincipal UserPrincipal principal) {
+        Long userId = principal.getId();
+
+        log.debug("Getting geofences for user ID: {}", userId);
+        List<GeofenceDTO> geofences = geofenceService.getUserGeofences(userId);
+        return ResponseEntity.ok(geofences);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<GeofenceDTO> getGeofenceById(@PathVariable Long id,
+                                                       @AuthenticationPrincipal UserPrincipal principal) {
+        Long userId = principal.getId();
+
+        log.debug("Getting geofence with ID: {} for user ID: {}", id, userId);
+        GeofenceDTO geofence = geofenceService.getGeofenceById(id, userId);
+        return ResponseEntity.ok(geofence);
+    }
+
+    @PostMapping
+    public ResponseEntity<GeofenceDTO> createGeofence(@Valid @RequestBody GeofenceDTO geofenceDTO,
+                                                      @AuthenticationPrincipal UserPrincipal principal) {
+        Long userId = principal.getId();
+
+        log.debug("Creating geofence for user ID: {}", userId);
+        GeofenceDTO createdGeofence = geofenceService.createGeofence(geofenceDTO, userId);
+        return ResponseEntity.status(HttpStatus.CREATED).body(createdGeofence);
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<GeofenceDTO> updateGeofence(@PathVariable Long id,
+                                                      @Valid @RequestBody GeofenceDTO geofenceDTO,
+                                                      @AuthenticationPrincipal UserPrincipal principal) {
+        Long userId = principal.getId();
+
+        log.debug("Updating geofence with ID: {} by user ID: {}", id, userId);
+        GeofenceDTO updatedGeofence = geofenceService.updateGeofence(id, geofenceDTO, userId);
+        return ResponseEntity.ok(updatedGeofence);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteGeofence(@PathVariable Long id,
+                                               @AuthenticationPrincipal UserPrincipal principal) {
+        Long userId = principal.getId();
+
+        log.debug("Deleting geofence with ID: {} by user ID: {}", id, userId);
+        geofenceService.deleteGeofence(id, userId);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,6 +1,7 @@
 package com.ecoguard.tracking.controller;
 
 import com.ecoguard.tracking.dto.NotificationDTO;
+import com.ecoguard.tracking.security.UserPrincipal;
 import com.ecoguard.tracking.service.NotificationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -8,7 +9,6 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -23,10 +23,9 @@ public class NotificationController {
     public ResponseEntity<Page<NotificationDTO>> getUserNotifications(
             @RequestParam(defaultValue = "false") boolean unreadOnly,
             Pageable pageable,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @AuthenticationPrincipal UserPrincipal principal) {
         
-        // In a real application, you would get the user ID from the authenticated user
-        Long userId = 1L; // This would be retrieved from the authenticated user
+        Long userId = principal.getId();
         
         log.debug("Getting notifications for user ID: {}, unreadOnly: {}", userId, unreadOnly);
         Page<NotificationDTO> notifications = notificationService.getUserNotifications(userId, unreadOnly, pageable);
@@ -36,10 +35,9 @@ public class NotificationController {
     @GetMapping("/{id}")
     public ResponseEntity<NotificationDTO> getNotificationById(
             @PathVariable Long id,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @AuthenticationPrincipal UserPrincipal principal) {
         
-        // In a real application, you would get the user ID from the authenticated user
-        Long userId = 1L; // This would be retrieved from the authenticated user
+        Long userId = principal.getId();
         
         log.debug("Getting notification with ID: {} for user ID: {}", id, userId);
         NotificationDTO notification = notificationService.getNotificationById(id, userId);
@@ -47,9 +45,8 @@ public class NotificationController {
     }
 
     @GetMapping("/count/unread")
-    public ResponseEntity<Integer> getUnreadNotificationCount(@AuthenticationPrincipal UserDetails userDetails) {
-        // In a real application, you would get the user ID from the authenticated user
-        Long userId = 1L; // This would be retrieved from the authenticated user
+    public ResponseEntity<Integer> getUnreadNotificationCount(@AuthenticationPrincipal UserPrincipal principal) {
+        Long userId = principal.getId();
         
         log.debug("Getting unread notification count for user ID: {}", userId);
         int count = notificationService.getUnreadNotificationCount(userId);
@@ -59,10 +56,9 @@ public class NotificationController {
     @PutMapping("/{id}/read")
     public ResponseEntity<NotificationDTO> markNotificationAsRead(
             @PathVariable Long id,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @AuthenticationPrincipal UserPrincipal principal) {
         
-        // In a real application, you would get the user ID from the authenticated user
-        Long userId = 1L; // This would be retrieved from the authenticated user
+        Long userId = principal.getId();
         
         log.debug("Marking notification with ID: {} as read for user ID: {}", id, userId);
         NotificationDTO notification = notificationService.markNotificationAsRead(id, userId);
@@ -70,9 +66,8 @@ public class NotificationController {
     }
 
     @PutMapping("/read/all")
-    public ResponseEntity<Void> markAllNotificationsAsRead(@AuthenticationPrincipal UserDetails userDetails) {
-        // In a real application, you would get the user ID from the authenticated user
-        Long userId = 1L; // This would be retrieved from the authenticated user
+    public ResponseEntity<Void> markAllNotificationsAsRead(@AuthenticationPrincipal UserPrincipal principal) {
+        Long userId = principal.getId();
         
         log.debug("Marking all notifications as read for user ID: {}", userId);
         notificationService.markAllNotificationsAsRead(userId);
@@ -82,10 +77,9 @@ public class NotificationController {
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteNotification(
             @PathVariable Long id,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @AuthenticationPrincipal UserPrincipal principal) {
         
-        // In a real application, you would get the user ID from the authenticated user
-        Long userId = 1L; // This would be retrieved from the authenticated user
+        Long userId = principal.getId();
         
         log.debug("Deleting notification with ID: {} for user ID: {}", id, userId);
         notificationService.deleteNotification(id, userId);
@@ -1,21 +1,29 @@
 package com.ecoguard.tracking.controller;
 
+import com.ecoguard.tracking.dto.AnonymousReportBatchDTO;
+import com.ecoguard.tracking.dto.AnonymousReportBatchResultDTO;
 import com.ecoguard.tracking.dto.AnonymousReportDTO;
 import com.ecoguard.tracking.dto.ObservationDTO;
 import com.ecoguard.tracking.dto.ObservationStatsDTO;
+import com.ecoguard.tracking.security.ReportSignatureVerifier;
+import com.ecoguard.tracking.security.UserPrincipal;
+import com.ecoguard.tracking.service.AsyncReportIngestService;
 import com.ecoguard.tracking.service.ObservationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequiredArgsConstructor
@@ -23,12 +31,14 @@ import java.time.LocalDateTime;
 public class ObservationController {
 
     private final ObservationService observationService;
+    private final AsyncReportIngestService asyncReportIngestService;
+    private final ReportSignatureVerifier reportSignatureVerifier;
 
     @GetMapping("/observations/device/{deviceId}")
     public ResponseEntity<Page<ObservationDTO>> getDeviceObservations(
             @PathVariable Long deviceId,
             Pageable pageable,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @AuthenticationPrincipal UserPrincipal principal) {
         
         log.debug("Getting observations for device ID: {}", deviceId);
         Page<ObservationDTO> observations = observationService.getDeviceObservations(deviceId, pageable);
@@ -41,7 +51,7 @@ public class ObservationController {
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime,
             Pageable pageable,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @AuthenticationPrincipal UserPrincipal principal) {
         
         log.debug("Getting observations for device ID: {} between {} and {}", deviceId, startTime, endTime);
         Page<ObservationDTO> observations = observationService.getDeviceObservationsByTimeRange(
@@ -52,7 +62,7 @@ public class ObservationController {
     @GetMapping("/observations/stats/device/{deviceId}")
     public ResponseEntity<ObservationStatsDTO> getObservationStats(
             @PathVariable Long deviceId,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @AuthenticationPrincipal UserPrincipal principal) {
         
         log.debug("Getting observation stats for device ID: {}", deviceId);
         ObservationStatsDTO stats = observationService.getObservationStats(deviceId);
@@ -62,7 +72,60 @@ public class ObservationController {
     @PostMapping("/anonymous-reports")
     public ResponseEntity<Void> processAnonymousReport(@Valid @RequestBody AnonymousReportDTO reportDTO) {
         log.debug("Processing anonymous report for device with partition UUID: {}", reportDTO.getDevicePartitionUuid());
+        reportSignatureVerifier.verify(reportDTO);
         observationService.processAnonymousReport(reportDTO);
         return ResponseEntity.ok().build();
     }
+
+    /**
+     * Several reports in one request, e.g. sightings buffered by a phone while offline.
+     * Signatures are verified in parallel first; reports with an invalid signature are rejected
+     * and the others are processed on their own, each in its own transaction, as if they had been
+     * sent separately. The status of each report is returned, with 207 when some were not
+     * processed, so that the phone sends again only the failed ones.
+     */
+    @PostMapping("/anonymous-reports/batch")
+    public ResponseEntity<AnonymousReportBatchResultDTO> processAnonymousReportBatch(@Valid @RequestBody AnonymousReportBatchDTO batchDTO) {
+        List<AnonymousReportDTO> reports = batchDTO.getReports();
+        log.debug("Processing batch of {} anonymous reports", reports.size());
+        boolean[] valid = reportSignatureVerifier.verifyAll(reports);
+
+        List<AnonymousReportBatchResultDTO.ReportStatus> statuses = new ArrayList<>(reports.size());
+        int processed = 0;
+        int rejected = 0;
+        for (int i = 0; i < reports.size(); i++) {
+            if (!valid[i]) {
+                statuses.add(AnonymousReportBatchResultDTO.ReportStatus.REJECTED);
+                rejected++;
+                continue;
+            }
+            try {
+                observationService.processAnonymousReport(reports.get(i));
+                statuses.add(AnonymousReportBatchResultDTO.ReportStatus.PROCESSED);
+                processed++;
+            } catch (RuntimeException e) {
+                log.warn("Anonymous report {} of batch failed: {}", i, e.getMessage());
+                statuses.add(AnonymousReportBatchResultDTO.ReportStatus.FAILED);
+            }
+        }
+
+        AnonymousReportBatchResultDTO result = AnonymousReportBatchResultDTO.builder()
+                .processed(processed)
+                .rejected(rejected)
+                .failed(reports.size() - processed - rejected)
+                .statuses(statuses)
+                .build();
+        return ResponseEntity.status(processed == reports.size() ? HttpStatus.OK : HttpStatus.MULTI_STATUS).body(result);
+    }
+
+    /**
+     * Same as {@link #processAnonymousReport(AnonymousReportDTO)}, but the request thread is released
+     * while the report waits for and goes through processing.
+     */
+    @PostMapping("/anonymous-reports/async")
+    public CompletableFuture<ResponseEntity<Void>> processAnonymousReportAsync(@Valid @RequestBody AnonymousReportDTO reportDTO) {
+        log.debug("Processing anonymous report asynchronously for device with partition UUID: {}", reportDTO.getDevicePartitionUuid());
+        return asyncReportIngestService.processAnonymousReport(reportDTO)
+                .thenApply(result -> ResponseEntity.ok().<Void>build());
+    }
 }
@@ -1,13 +1,13 @@
 package com.ecoguard.tracking.controller;
 
 import com.ecoguard.tracking.dto.TheftReportDTO;
+import com.ecoguard.tracking.security.UserPrincipal;
 import com.ecoguard.tracking.service.TheftReportService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
@@ -22,9 +22,8 @@ public class TheftReportController {
     private final TheftReportService theftReportService;
 
     @GetMapping
-    public ResponseEntity<List<TheftReportDTO>> getUserTheftReports(@AuthenticationPrincipal UserDetails userDetails) {
-        // In a real application, you would get the user ID from the authenticated user
-        Long userId = 1L; // This would be retrieved from the authenticated user
+    public ResponseEntity<List<TheftReportDTO>> getUserTheftReports(@AuthenticationPrincipal UserPrincipal principal) {
+        Long userId = principal.getId();
         
         log.debug("Getting theft reports for user ID: {}", userId);
         List<TheftReportDTO> theftReports = theftReportService.getUserTheftReports(userId);
@@ -33,9 +32,8 @@ public class TheftReportController {
 
     @GetMapping("/{id}")
     public ResponseEntity<TheftReportDTO> getTheftReportById(@PathVariable Long id,
-                                                           @AuthenticationPrincipal UserDetails userDetails) {
-        // In a real application, you would get the user ID from the authenticated user
-        Long userId = 1L; // This would be retrieved from the authenticated user
+                                                           @AuthenticationPrincipal UserPrincipal principal) {
+        Long userId = principal.getId();
         
         log.debug("Getting theft report with ID: {} for user ID: {}", id, userId);
         TheftReportDTO theftReport = theftReportService.getTheftReportById(id, userId);
@@ -44,7 +42,7 @@ public class TheftReportController {
 
     @GetMapping("/device/{deviceId}/active")
     public ResponseEntity<TheftReportDTO> getActiveTheftReportByDeviceId(@PathVariable Long deviceId,
-                                                                        @AuthenticationPrincipal UserDetails userDetails) {
+                                                                        @AuthenticationPrincipal UserPrincipal principal) {
         log.debug("Getting active theft report for device ID: {}", deviceId);
         TheftReportDTO theftReport = theftReportService.getActiveTheftReportByDeviceId(deviceId);
         return ResponseEntity.ok(theftReport);
@@ -52,9 +50,8 @@ public class TheftReportController {
 
     @PostMapping
     public ResponseEntity<TheftReportDTO> createTheftReport(@Valid @RequestBody TheftReportDTO theftReportDTO,
-                                                          @AuthenticationPrincipal UserDetails userDetails) {
-        // In a real application, you would get the user ID from the authenticated user
-        Long userId = 1L; // This would be retrieved from the authenticated user
+                                                          @AuthenticationPrincipal UserPrincipal principal) {
+        Long userId = principal.getId();
         
         log.debug("Creating theft report for device ID: {} by user ID: {}", theftReportDTO.getDeviceId(), userId);
         TheftReportDTO createdReport = theftReportService.createTheftReport(theftReportDTO, userId);
@@ -64,9 +61,8 @@ public class TheftReportController {
     @PutMapping("/{id}")
     public ResponseEntity<TheftReportDTO> updateTheftReport(@PathVariable Long id,
                                                           @Valid @RequestBody TheftReportDTO theftReportDTO,
-                                                          @AuthenticationPrincipal UserDetails userDetails) {
-        // In a real application, you would get the user ID from the authenticated user
-        Long userId = 1L; // This would be retrieved from the authenticated user
+                                                          @AuthenticationPrincipal UserPrincipal principal) {
+        Long userId = principal.getId();
         
         log.debug("Updating theft report with ID: {} by user ID: {}", id, userId);
         TheftReportDTO updatedReport = theftReportService.updateTheftReport(id, theftReportDTO, userId);
@@ -76,9 +72,8 @@ public class TheftReportController {
     @PutMapping("/{id}/resolve")
     public ResponseEntity<TheftReportDTO> resolveTheftReport(@PathVariable Long id,
                                                            @RequestParam String resolutionNotes,
-                                                           @AuthenticationPrincipal UserDetails userDetails) {
-        // In a real application, you would get the user ID from the authenticated user
-        Long userId = 1L; // This would be retrieved from the authenticated user
+                                                           @AuthenticationPrincipal UserPrincipal principal) {
+        Long userId = principal.getId();
         
         log.debug("Resolving theft report with ID: {} by user ID: {}", id, userId);
         TheftReportDTO resolvedReport = theftReportService.resolveTheftReport(id, resolutionNotes, userId);
@@ -87,9 +82,8 @@ public class TheftReportController {
 
     @PutMapping("/{id}/cancel")
     public ResponseEntity<TheftReportDTO> cancelTheftReport(@PathVariable Long id,
-                                                          @AuthenticationPrincipal UserDetails userDetails) {
-        // In a real application, you would get the user ID from the authenticated user
-        Long userId = 1L; // This would be retrieved from the authenticated user
+                                                          @AuthenticationPrincipal UserPrincipal principal) {
+        Long userId = principal.getId();
         
         log.debug("Cancelling theft report with ID: {} by user ID: {}", id, userId);
         TheftReportDTO cancelledReport = theftReportService.cancelTheftReport(id, userId);
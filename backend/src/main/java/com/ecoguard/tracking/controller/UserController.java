@@ -1,13 +1,13 @@
 package com.ecoguard.tracking.controller;
 
 import com.ecoguard.tracking.dto.UserDTO;
+import com.ecoguard.tracking.security.UserPrincipal;
 import com.ecoguard.tracking.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
@@ -22,16 +22,16 @@ public class UserController {
     private final UserService userService;
 
     @GetMapping("/me")
-    public ResponseEntity<UserDTO> getCurrentUser(@AuthenticationPrincipal UserDetails userDetails) {
-        log.debug("Getting current user: {}", userDetails.getUsername());
-        UserDTO userDTO = userService.getUserByEmail(userDetails.getUsername());
+    public ResponseEntity<UserDTO> getCurrentUser(@AuthenticationPrincipal UserPrincipal principal) {
+        log.debug("Getting current user: {}", principal.getUsername());
+        UserDTO userDTO = userService.getUserById(principal.getId());
         return ResponseEntity.ok(userDTO);
     }
 
     @GetMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN') or #userDetails.username == @userService.getUserById(#id).email")
+    @PreAuthorize("hasRole('ADMIN') or #principal.id == #id")
     public ResponseEntity<UserDTO> getUserById(@PathVariable Long id, 
-                                             @AuthenticationPrincipal UserDetails userDetails) {
+                                             @AuthenticationPrincipal UserPrincipal principal) {
         log.debug("Getting user with ID: {}", id);
         UserDTO userDTO = userService.getUserById(id);
         return ResponseEntity.ok(userDTO);
@@ -46,10 +46,10 @@ public class UserController {
     }
 
     @PutMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN') or #userDetails.username == @userService.getUserById(#id).email")
+    @PreAuthorize("hasRole('ADMIN') or #principal.id == #id")
     public ResponseEntity<UserDTO> updateUser(@PathVariable Long id, 
                                             @Valid @RequestBody UserDTO userDTO,
-                                            @AuthenticationPrincipal UserDetails userDetails) {
+                                            @AuthenticationPrincipal UserPrincipal principal) {
         log.debug("Updating user with ID: {}", id);
         UserDTO updatedUser = userService.updateUser(id, userDTO);
         return ResponseEntity.ok(updatedUser);
@@ -0,0 +1,45 @@
+package com.ecoguard.tracking.datasource;
+
+import javax.sql.DataSource;
+
+/**
+ * A replica connection pool with the availability last determined by {@link ReplicaLagMonitor}.
+ */
+public class ReadReplica {
+
+    private final String name;
+    private final DataSource dataSource;
+
+    private volatile boolean available = true;
+    private volatile double lagSeconds;
+
+    public ReadReplica(String name, DataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public double getLagSeconds() {
+        return lagSeconds;
+    }
+
+    void update(boolean available, double lagSeconds) {
+        this.available = available;
+        this.lagSeconds = lagSeconds;
+    }
+
+    void markUnavailable() {
+        this.available = false;
+    }
+}
@@ -0,0 +1,65 @@
+package com.ecoguard.tracking.datasource;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Per-request read-your-writes state, used by {@link ReplicaRoutingDataSource}.
+ * <p>
+ * Once a request has used the primary for a read-write transaction, or when the client asked
+ * for it with {@link ReadYourWritesFilter#CONSISTENCY_HEADER}, its later read-only transactions
+ * also go to the primary, so they see the request's own writes even if replicas are lagging.
+ * Outside of a request (scheduled jobs, startup) reads are routed without this constraint.
+ */
+public final class ReadYourWritesContext {
+
+    private static final ThreadLocal<State> STATE = new ThreadLocal<>();
+
+    private ReadYourWritesContext() {
+    }
+
+    static void begin(boolean primaryRequired) {
+        State state = new State();
+        state.primaryRequired = primaryRequired;
+        STATE.set(state);
+    }
+
+    static void end() {
+        STATE.remove();
+    }
+
+    /**
+     * Send the remaining reads of the current request to the primary.
+     */
+    public static void requirePrimary() {
+        State state = STATE.get();
+        if (state != null) {
+            state.primaryRequired = true;
+        }
+    }
+
+    /**
+     * Run the action with its reads sent to the primary, e.g. work done for a request on another thread.
+     */
+    public static <T> T callOnPrimary(Callable<T> action) throws Exception {
+        State previous = STATE.get();
+        begin(true);
+        try {
+            return action.call();
+        } finally {
+            if (previous != null) {
+                STATE.set(previous);
+            } else {
+                STATE.remove();
+            }
+        }
+    }
+
+    static boolean isPrimaryRequired() {
+        State state = STATE.get();
+        return state != null && state.primaryRequired;
+    }
+
+    private static class State {
+        private boolean primaryRequired;
+    }
+}
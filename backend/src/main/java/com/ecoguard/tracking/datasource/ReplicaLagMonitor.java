@@ -0,0 +1,62 @@
+package com.ecoguard.tracking.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Periodically measures the replication lag of each replica and takes replicas that lag more
+ * than the allowed maximum, or cannot be reached, out of the read rotation until they recover.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    // A replica that has replayed everything it received is up to date, however old its last replayed transaction is.
+    // On a database that is not a standby (e.g. a second local database for testing) the lag is zero.
+    private static final String LAG_QUERY = "SELECT CASE"
+            + " WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+            + " ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    private final List<ReadReplica> replicas;
+    private final double maxLagSeconds;
+
+    public ReplicaLagMonitor(List<ReadReplica> replicas, Duration maxLag) {
+        this.replicas = replicas;
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+    }
+
+    @Scheduled(fixedDelayString = "${ecoguard.datasource.read-replicas.lag-check-interval-ms:2000}")
+    public void checkReplicas() {
+        for (ReadReplica replica : replicas) {
+            check(replica);
+        }
+    }
+
+    void check(ReadReplica replica) {
+        boolean wasAvailable = replica.isAvailable();
+        try (Connection connection = replica.getDataSource().getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(LAG_QUERY)) {
+            resultSet.next();
+            double lagSeconds = resultSet.getDouble(1);
+            boolean available = lagSeconds <= maxLagSeconds;
+            replica.update(available, lagSeconds);
+            if (wasAvailable && !available) {
+                log.warn("Read replica {} lags {}s behind the primary, reading from the other replicas", replica.getName(), lagSeconds);
+            } else if (!wasAvailable && available) {
+                log.info("Read replica {} is back in the read rotation (lag {}s)", replica.getName(), lagSeconds);
+            }
+        } catch (SQLException e) {
+            replica.update(false, replica.getLagSeconds());
+            if (wasAvailable) {
+                log.warn("Read replica {} is unreachable: {}", replica.getName(), e.getMessage());
+            }
+        }
+    }
+}
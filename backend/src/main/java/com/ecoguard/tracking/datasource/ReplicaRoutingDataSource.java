@@ -0,0 +1,127 @@
+package com.ecoguard.tracking.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends connections of read-only transactions to the available replicas in turn, and every
+ * other connection to the primary.
+ * <p>
+ * Reads fall back to the primary when the request needs its own writes
+ * ({@link ReadYourWritesContext}), when no replica is available, or when the chosen replica
+ * refuses the connection, in which case it is skipped until {@link ReplicaLagMonitor} sees it
+ * healthy again.
+ * <p>
+ * The read-only flag is only known once the transaction has started, so this data source must
+ * be wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private final DataSource primary;
+    private final List<ReadReplica> replicas;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    private final Counter replicaReads;
+    private final Counter readYourWritesFallbacks;
+    private final Counter unavailableFallbacks;
+    private final Counter errorFallbacks;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<ReadReplica> replicas, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.replicaReads = Counter.builder("ecoguard.datasource.reads")
+                .description("Read-only transactions routed to a replica")
+                .tag("target", "replica")
+                .register(meterRegistry);
+        this.readYourWritesFallbacks = fallbackCounter(meterRegistry, "read-your-writes");
+        this.unavailableFallbacks = fallbackCounter(meterRegistry, "no-replica-available");
+        this.errorFallbacks = fallbackCounter(meterRegistry, "replica-error");
+    }
+
+    private static Counter fallbackCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("ecoguard.datasource.reads")
+                .description("Read-only transactions routed to the primary")
+                .tag("target", "primary")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    public List<ReadReplica> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            ReadYourWritesContext.requirePrimary();
+            return primary.getConnection();
+        }
+        if (ReadYourWritesContext.isPrimaryRequired()) {
+            readYourWritesFallbacks.increment();
+            return primary.getConnection();
+        }
+
+        ReadReplica replica = nextAvailableReplica();
+        if (replica == null) {
+            unavailableFallbacks.increment();
+            return primary.getConnection();
+        }
+
+        try {
+            Connection connection = replica.getDataSource().getConnection();
+            replicaReads.increment();
+            return connection;
+        } catch (SQLException e) {
+            log.warn("Read replica {} is unavailable, reading from the primary: {}", replica.getName(), e.getMessage());
+            replica.markUnavailable();
+            errorFallbacks.increment();
+            return primary.getConnection();
+        }
+    }
+
+    /**
+     * Close the primary and replica pools; called by Spring when the context shuts down.
+     */
+    public void close() throws Exception {
+        for (ReadReplica replica : replicas) {
+            closePool(replica.getDataSource());
+        }
+        closePool(primary);
+    }
+
+    private static void closePool(DataSource dataSource) throws Exception {
+        if (dataSource instanceof AutoCloseable) {
+            ((AutoCloseable) dataSource).close();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    private ReadReplica nextAvailableReplica() {
+        int size = replicas.size();
+        if (size == 0) {
+            return null;
+        }
+        int start = Math.floorMod(nextReplica.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            ReadReplica replica = replicas.get((start + i) % size);
+            if (replica.isAvailable()) {
+                return replica;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,30 @@
+package com.ecoguard.tracking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+
+/**
+ * The cell of a phone taking part in community alerts. Phones send the geohash of their
+ * position at 6 characters (about 1.2 × 0.6 km), never the position itself; the server only
+ * keeps the prefix used for alert topics.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlertSubscriptionDTO {
+
+    @NotBlank(message = "FCM token is required")
+    @Size(max = 512, message = "FCM token must be at most 512 characters")
+    private String token;
+
+    @NotBlank(message = "Geohash is required")
+    @Pattern(regexp = "[0-9b-hjkmnp-z]{6}", message = "Geohash must be 6 lowercase geohash characters")
+    private String geohash;
+}
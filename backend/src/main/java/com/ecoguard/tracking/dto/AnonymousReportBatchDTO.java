@@ -0,0 +1,25 @@
+package com.ecoguard.tracking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnonymousReportBatchDTO {
+
+    public static final int MAX_REPORTS = 100;
+
+    @NotEmpty(message = "At least one report is required")
+    @Size(max = MAX_REPORTS, message = "A batch contains at most " + MAX_REPORTS + " reports")
+    @Valid
+    private List<AnonymousReportDTO> reports;
+}
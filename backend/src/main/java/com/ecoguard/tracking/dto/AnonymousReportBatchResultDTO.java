@@ -0,0 +1,31 @@
+package com.ecoguard.tracking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnonymousReportBatchResultDTO {
+
+    private int processed;
+    private int rejected;
+    private int failed;
+
+    // One per report, in the order of the batch
+    private List<ReportStatus> statuses;
+
+    public enum ReportStatus {
+        // Processed and committed; reports of devices that are not stolen are processed too
+        PROCESSED,
+        // Invalid signature, not to be sent again
+        REJECTED,
+        // Processing failed and was rolled back, the report can be sent again
+        FAILED
+    }
+}
@@ -52,6 +52,9 @@ public class AnonymousReportDTO {
     
     private String additionalData;
     
-    // Validation signature to prevent fake reports
+    // Base64 X.509 public key of the reporting phone; reporterHash is the SHA-256 of its bytes
+    private String reporterPublicKey;
+    
+    // Validation signature to prevent fake reports, see ReportSignaturePayload
     private String signature;
 }
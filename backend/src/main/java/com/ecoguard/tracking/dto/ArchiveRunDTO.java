@@ -0,0 +1,17 @@
+package com.ecoguard.tracking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchiveRunDTO {
+
+    private long expiredObservations;
+
+    private long resolvedCaseObservations;
+}
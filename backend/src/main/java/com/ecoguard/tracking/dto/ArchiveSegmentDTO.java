@@ -0,0 +1,28 @@
+package com.ecoguard.tracking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchiveSegmentDTO {
+
+    private Long deviceId;
+
+    private YearMonth month;
+
+    private int observationCount;
+
+    private long sizeBytes;
+
+    private LocalDateTime firstObservation;
+
+    private LocalDateTime lastObservation;
+}
@@ -0,0 +1,43 @@
+package com.ecoguard.tracking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Observation read back from the cold archive. Coordinates are rounded to 1e-7 degrees and
+ * the accuracy to the centimeter.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedObservationDTO {
+
+    private Long id;
+
+    private Long deviceId;
+
+    private LocalDateTime observationTime;
+
+    private Double latitude;
+
+    private Double longitude;
+
+    private Double accuracy;
+
+    private Integer confidence;
+
+    private String reporterHash;
+
+    private Integer signalStrength;
+
+    private Integer batteryLevel;
+
+    private String networkType;
+
+    private String additionalData;
+}
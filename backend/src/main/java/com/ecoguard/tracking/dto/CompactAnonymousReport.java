@@ -0,0 +1,63 @@
+package com.ecoguard.tracking.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Compact wire form of {@link AnonymousReportDTO}, sent by phones as CBOR
+ * ({@code Content-Type: application/cbor}).
+ * <p>
+ * Keys are single letters, the observation time is in epoch milliseconds, coordinates are
+ * fixed-point integers in 1e-7 degrees (about 1cm) and the accuracy is in centimeters.
+ * A batch is a CBOR array of these maps.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CompactAnonymousReport {
+
+    @JsonProperty("d")
+    private String devicePartitionUuid;
+
+    @JsonProperty("t")
+    private Long observationTimeMillis;
+
+    @JsonProperty("y")
+    private Integer latitudeE7;
+
+    @JsonProperty("x")
+    private Integer longitudeE7;
+
+    @JsonProperty("a")
+    private Integer accuracyCm;
+
+    @JsonProperty("c")
+    private Integer confidence;
+
+    @JsonProperty("r")
+    private String reporterHash;
+
+    @JsonProperty("s")
+    private Integer signalStrength;
+
+    @JsonProperty("b")
+    private Integer batteryLevel;
+
+    @JsonProperty("n")
+    private String networkType;
+
+    @JsonProperty("e")
+    private String additionalData;
+
+    @JsonProperty("k")
+    private String reporterPublicKey;
+
+    @JsonProperty("g")
+    private String signature;
+}
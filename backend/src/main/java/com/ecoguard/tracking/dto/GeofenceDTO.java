@@ -0,0 +1,67 @@
+package com.ecoguard.tracking.dto;
+
+import com.ecoguard.tracking.entity.Geofence;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.Size;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A fence is either a circle, given by its center and radius, or a polygon given by its
+ * vertices as {@code [latitude, longitude]} pairs.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GeofenceDTO {
+
+    private Long id;
+
+    // Null for a fence covering every device of the user
+    private Long deviceId;
+
+    private String deviceName;
+
+    @NotBlank(message = "Geofence name is required")
+    @Size(max = 100, message = "Geofence name must be at most 100 characters")
+    private String name;
+
+    @NotNull(message = "Geofence type is required")
+    private Geofence.GeofenceType type;
+
+    @DecimalMin(value = "-90.0", message = "Latitude must be between -90 and 90")
+    @DecimalMax(value = "90.0", message = "Latitude must be between -90 and 90")
+    private Double centerLatitude;
+
+    @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
+    @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180")
+    private Double centerLongitude;
+
+    @Positive(message = "Radius must be positive")
+    private Double radiusMeters;
+
+    private List<double[]> vertices;
+
+    @Builder.Default
+    private boolean alertOnEnter = true;
+
+    @Builder.Default
+    private boolean alertOnExit = true;
+
+    @Builder.Default
+    private boolean active = true;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+}
@@ -46,16 +46,17 @@ public class Device {
     @Column(name = "registration_date", nullable = false)
     private LocalDateTime registrationDate;
 
-    @Column(name = "last_seen")
+    // Written only by DeviceLastSeenBuffer, so that saving a device never reverts a newer position
+    @Column(name = "last_seen", updatable = false)
     private LocalDateTime lastSeen;
 
-    @Column(name = "last_latitude")
+    @Column(name = "last_latitude", updatable = false)
     private Double lastLatitude;
 
-    @Column(name = "last_longitude")
+    @Column(name = "last_longitude", updatable = false)
     private Double lastLongitude;
 
-    @Column(name = "last_accuracy")
+    @Column(name = "last_accuracy", updatable = false)
     private Double lastAccuracy;
 
     @CreatedDate
@@ -62,6 +62,8 @@ public class Notification {
         DEVICE_OBSERVED,
         DEVICE_RECOVERED,
         SYSTEM_ALERT,
-        ACCOUNT_SECURITY
+        ACCOUNT_SECURITY,
+        GEOFENCE_ENTERED,
+        GEOFENCE_EXITED
     }
 }
@@ -50,9 +50,20 @@ public class Observation {
     @Column(name = "reporter_hash")
     private String reporterHash;
 
+    // Stored ghosts predate read-time generation; new ghosts only exist in memory
     @Column(name = "is_ghost")
     private boolean ghost;
 
+    // Seed of the ghosts generated at read time, null for rows saved before
+    @Column(name = "ghost_seed")
+    private Long ghostSeed;
+
+    @Column(name = "ghost_count")
+    private Integer ghostCount;
+
+    @Column(name = "ghost_confidence_sum")
+    private Integer ghostConfidenceSum;
+
     @Column(name = "signal_strength")
     private Integer signalStrength;
 
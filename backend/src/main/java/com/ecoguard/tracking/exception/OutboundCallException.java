@@ -0,0 +1,15 @@
+package com.ecoguard.tracking.exception;
+
+/**
+ * A call to an external service was rejected, timed out or failed.
+ */
+public class OutboundCallException extends RuntimeException {
+
+    public OutboundCallException(String message) {
+        super(message);
+    }
+
+    public OutboundCallException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,11 @@
+package com.ecoguard.tracking.exception;
+
+/**
+ * A call was not started because too many calls to the same dependency were already waiting.
+ */
+public class OutboundCallRejectedException extends OutboundCallException {
+
+    public OutboundCallRejectedException(String message) {
+        super(message);
+    }
+}
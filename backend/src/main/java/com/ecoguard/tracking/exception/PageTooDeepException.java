@@ -0,0 +1,12 @@
+package com.ecoguard.tracking.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class PageTooDeepException extends RuntimeException {
+
+    public PageTooDeepException(String message) {
+        super(message);
+    }
+}
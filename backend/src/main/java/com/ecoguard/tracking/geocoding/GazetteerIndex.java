@@ -0,0 +1,320 @@
+package com.ecoguard.tracking.geocoding;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Nearest-place index over a gazetteer, stored as a file and memory-mapped.
+ * <p>
+ * Places are points on the unit sphere, so that the straight-line distance orders them like
+ * the great-circle distance, without special cases at the poles or the antimeridian. They are
+ * laid out as an implicit k-d tree: the node of a range {@code [lo, hi)} is its middle element
+ * and its children are the two halves, split on the axis stored with the node. Lookups read
+ * the mapping directly, with no per-place objects on the heap.
+ * <p>
+ * File layout: magic, version, place count, then one split axis byte per place (padded to 4
+ * bytes), x/y/z floats per place, label offsets ({@code count + 1} ints) and UTF-8 labels.
+ */
+public final class GazetteerIndex {
+
+    private static final int MAGIC = 0x45474B44; // "EGKD"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 12;
+
+    private final MappedByteBuffer buffer;
+    private final int count;
+    private final int pointsOffset;
+    private final int labelOffsetsOffset;
+    private final int labelsOffset;
+
+    private GazetteerIndex(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalStateException("Not a gazetteer index");
+        }
+        this.count = buffer.getInt(8);
+        this.pointsOffset = HEADER_SIZE + align(count);
+        this.labelOffsetsOffset = pointsOffset + count * 12;
+        this.labelsOffset = labelOffsetsOffset + (count + 1) * 4;
+    }
+
+    public static GazetteerIndex open(Path index) {
+        try (FileChannel channel = FileChannel.open(index, StandardOpenOption.READ)) {
+            return new GazetteerIndex(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not map gazetteer index " + index, e);
+        }
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Position of the place nearest to the given coordinates, or -1 when none is within
+     * {@code maxChord}, the straight-line distance on the unit sphere.
+     */
+    public int nearest(double latitude, double longitude, double maxChord) {
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        Search search = new Search(Math.cos(lat) * Math.cos(lon), Math.cos(lat) * Math.sin(lon), Math.sin(lat),
+                maxChord * maxChord);
+        search(search, 0, count);
+        return search.best;
+    }
+
+    private void search(Search search, int lo, int hi) {
+        if (lo >= hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        int point = pointsOffset + mid * 12;
+        double dx = buffer.getFloat(point) - search.x;
+        double dy = buffer.getFloat(point + 4) - search.y;
+        double dz = buffer.getFloat(point + 8) - search.z;
+        double distance = dx * dx + dy * dy + dz * dz;
+        if (distance < search.bestDistance) {
+            search.bestDistance = distance;
+            search.best = mid;
+        }
+
+        int axis = buffer.get(HEADER_SIZE + mid);
+        double split = axis == 0 ? dx : axis == 1 ? dy : dz;
+        // split > 0: the query lies before the node on its axis, search that side first
+        if (split > 0) {
+            search(search, lo, mid);
+            if (split * split < search.bestDistance) {
+                search(search, mid + 1, hi);
+            }
+        } else {
+            search(search, mid + 1, hi);
+            if (split * split < search.bestDistance) {
+                search(search, lo, mid);
+            }
+        }
+    }
+
+    public String label(int place) {
+        int start = buffer.getInt(labelOffsetsOffset + place * 4);
+        int end = buffer.getInt(labelOffsetsOffset + place * 4 + 4);
+        byte[] bytes = new byte[end - start];
+        ByteBuffer labels = buffer.duplicate();
+        labels.position(labelsOffset + start);
+        labels.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class Search {
+
+        private final double x;
+        private final double y;
+        private final double z;
+        private double bestDistance;
+        private int best = -1;
+
+        private Search(double x, double y, double z, double bestDistance) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.bestDistance = bestDistance;
+        }
+    }
+
+    /**
+     * Build the index file of a GeoNames dump (tab-separated, e.g. {@code cities500.txt} or a
+     * country file). Only populated places (feature class {@code P}) are indexed, labelled
+     * "place, region, country" when the region names ({@code admin1CodesASCII.txt}) are given.
+     *
+     * @param adminCodes region names, or {@code null} to leave them out
+     */
+    public static void build(Path gazetteer, Path adminCodes, Path index, long minPopulation) {
+        try {
+            Map<String, String> regions = adminCodes != null ? readRegions(adminCodes) : new HashMap<>();
+            List<String> labels = new ArrayList<>();
+            List<double[]> points = new ArrayList<>();
+            try (BufferedReader reader = Files.newBufferedReader(gazetteer, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] fields = line.split("\t", -1);
+                    if (fields.length < 15 || !"P".equals(fields[6])) {
+                        continue;
+                    }
+                    long population = fields[14].isEmpty() ? 0 : Long.parseLong(fields[14]);
+                    if (population < minPopulation) {
+                        continue;
+                    }
+                    double lat = Math.toRadians(Double.parseDouble(fields[4]));
+                    double lon = Math.toRadians(Double.parseDouble(fields[5]));
+                    points.add(new double[]{Math.cos(lat) * Math.cos(lon), Math.cos(lat) * Math.sin(lon), Math.sin(lat)});
+                    labels.add(label(fields[1], regions.get(fields[8] + "." + fields[10]), fields[8]));
+                }
+            }
+            write(index, points, labels);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not build gazetteer index from " + gazetteer, e);
+        }
+    }
+
+    private static Map<String, String> readRegions(Path adminCodes) throws IOException {
+        Map<String, String> regions = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(adminCodes, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split("\t", -1);
+                if (fields.length >= 2) {
+                    regions.put(fields[0], fields[1]);
+                }
+            }
+        }
+        return regions;
+    }
+
+    private static String label(String name, String region, String countryCode) {
+        StringBuilder label = new StringBuilder(name);
+        if (region != null && !region.isEmpty()) {
+            label.append(", ").append(region);
+        }
+        if (!countryCode.isEmpty()) {
+            String country = new Locale("", countryCode).getDisplayCountry(Locale.FRENCH);
+            label.append(", ").append(country.isEmpty() ? countryCode : country);
+        }
+        return label.toString();
+    }
+
+    private static void write(Path index, List<double[]> points, List<String> labels) throws IOException {
+        int count = points.size();
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        byte[] axes = new byte[count];
+        buildTree(points, order, axes, 0, count);
+
+        byte[][] labelBytes = new byte[count][];
+        int labelsSize = 0;
+        for (int i = 0; i < count; i++) {
+            labelBytes[i] = labels.get(order[i]).getBytes(StandardCharsets.UTF_8);
+            labelsSize += labelBytes[i].length;
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(HEADER_SIZE + align(count) + count * 12 + (count + 1) * 4 + labelsSize);
+        out.putInt(MAGIC).putInt(VERSION).putInt(count);
+        out.put(axes);
+        out.position(HEADER_SIZE + align(count));
+        for (int i = 0; i < count; i++) {
+            double[] point = points.get(order[i]);
+            out.putFloat((float) point[0]).putFloat((float) point[1]).putFloat((float) point[2]);
+        }
+        int offset = 0;
+        for (int i = 0; i < count; i++) {
+            out.putInt(offset);
+            offset += labelBytes[i].length;
+        }
+        out.putInt(offset);
+        for (byte[] label : labelBytes) {
+            out.put(label);
+        }
+        out.flip();
+
+        Files.createDirectories(index.toAbsolutePath().getParent());
+        Path temporary = index.resolveSibling(index.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        }
+        try {
+            Files.move(temporary, index, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, index, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Arrange {@code order[lo, hi)} so that its middle element is the median on the axis of
+     * widest spread, with smaller elements before it and larger ones after, then recurse.
+     */
+    private static void buildTree(List<double[]> points, int[] order, byte[] axes, int lo, int hi) {
+        if (hi - lo <= 0) {
+            return;
+        }
+        int axis = widestAxis(points, order, lo, hi);
+        int mid = (lo + hi) >>> 1;
+        select(points, order, axis, lo, hi - 1, mid);
+        axes[mid] = (byte) axis;
+        buildTree(points, order, axes, lo, mid);
+        buildTree(points, order, axes, mid + 1, hi);
+    }
+
+    private static int widestAxis(List<double[]> points, int[] order, int lo, int hi) {
+        double[] min = {Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE};
+        double[] max = {-Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE};
+        for (int i = lo; i < hi; i++) {
+            double[] point = points.get(order[i]);
+            for (int axis = 0; axis < 3; axis++) {
+                min[axis] = Math.min(min[axis], point[axis]);
+                max[axis] = Math.max(max[axis], point[axis]);
+            }
+        }
+        int widest = 0;
+        for (int axis = 1; axis < 3; axis++) {
+            if (max[axis] - min[axis] > max[widest] - min[widest]) {
+                widest = axis;
+            }
+        }
+        return widest;
+    }
+
+    /**
+     * Quickselect on {@code order[left, right]}.
+     */
+    private static void select(List<double[]> points, int[] order, int axis, int left, int right, int k) {
+        while (left < right) {
+            double pivot = points.get(order[(left + right) >>> 1])[axis];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (points.get(order[i])[axis] < pivot) {
+                    i++;
+                }
+                while (points.get(order[j])[axis] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int tmp = order[i];
+                    order[i] = order[j];
+                    order[j] = tmp;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private static int align(int length) {
+        return (length + 3) & ~3;
+    }
+}
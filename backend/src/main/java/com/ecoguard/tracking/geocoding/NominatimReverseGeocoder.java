@@ -0,0 +1,20 @@
+package com.ecoguard.tracking.geocoding;
+
+import com.ecoguard.tracking.util.GeoUtils;
+
+/**
+ * Reverse geocoding through the public OpenStreetMap Nominatim service, which allows about one
+ * request per second.
+ */
+public class NominatimReverseGeocoder implements ReverseGeocoder {
+
+    @Override
+    public String getAddress(double latitude, double longitude) {
+        return GeoUtils.getAddressFromCoordinates(latitude, longitude);
+    }
+
+    @Override
+    public boolean isRemote() {
+        return true;
+    }
+}
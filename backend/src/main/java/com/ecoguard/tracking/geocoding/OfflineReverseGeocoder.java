@@ -0,0 +1,67 @@
+package com.ecoguard.tracking.geocoding;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reverse geocoding against a local gazetteer: the address is the nearest populated place,
+ * see {@link GazetteerIndex}. The index file is rebuilt from the gazetteer when missing or
+ * older than it, then memory-mapped.
+ */
+@Slf4j
+public class OfflineReverseGeocoder implements ReverseGeocoder {
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    private final GazetteerIndex index;
+    private final double maxChord;
+
+    public OfflineReverseGeocoder(GazetteerIndex index, double maxDistanceKm) {
+        this.index = index;
+        // Straight-line distance on the unit sphere for the given great-circle distance
+        this.maxChord = 2 * Math.sin(Math.min(maxDistanceKm / EARTH_RADIUS_KM, Math.PI) / 2);
+    }
+
+    /**
+     * @param adminCodes region names, or {@code null} to leave them out of addresses
+     */
+    public static OfflineReverseGeocoder load(Path gazetteer, Path adminCodes, Path indexFile,
+                                              long minPopulation, double maxDistanceKm) {
+        if (isStale(indexFile, gazetteer, adminCodes)) {
+            long start = System.currentTimeMillis();
+            GazetteerIndex.build(gazetteer, adminCodes, indexFile, minPopulation);
+            log.info("Built gazetteer index {} from {} in {} ms", indexFile, gazetteer, System.currentTimeMillis() - start);
+        }
+        GazetteerIndex index = GazetteerIndex.open(indexFile);
+        log.info("Offline reverse geocoding ready with {} places", index.size());
+        return new OfflineReverseGeocoder(index, maxDistanceKm);
+    }
+
+    @Override
+    public String getAddress(double latitude, double longitude) {
+        int place = index.nearest(latitude, longitude, maxChord);
+        return place >= 0 ? index.label(place) : null;
+    }
+
+    @Override
+    public boolean isRemote() {
+        return false;
+    }
+
+    private static boolean isStale(Path indexFile, Path gazetteer, Path adminCodes) {
+        try {
+            if (!Files.exists(indexFile)) {
+                return true;
+            }
+            long built = Files.getLastModifiedTime(indexFile).toMillis();
+            return (Files.exists(gazetteer) && Files.getLastModifiedTime(gazetteer).toMillis() > built)
+                    || (adminCodes != null && Files.exists(adminCodes) && Files.getLastModifiedTime(adminCodes).toMillis() > built);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not check gazetteer index " + indexFile, e);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.ecoguard.tracking.geocoding;
+
+/**
+ * Source of addresses for {@link com.ecoguard.tracking.service.GeocodingService}, selected with
+ * {@code ecoguard.geocoding.provider}.
+ */
+public interface ReverseGeocoder {
+
+    /**
+     * The address closest to the given coordinates, or {@code null} when it is unknown.
+     */
+    String getAddress(double latitude, double longitude);
+
+    /**
+     * Whether lookups call an external service, and so must be bounded by a timeout.
+     */
+    boolean isRemote();
+}
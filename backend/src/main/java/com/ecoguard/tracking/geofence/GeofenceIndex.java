@@ -0,0 +1,232 @@
+package com.ecoguard.tracking.geofence;
+
+import com.ecoguard.tracking.entity.Geofence;
+import com.ecoguard.tracking.repository.GeofenceRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The active geofences of all users in memory, in an {@link STRtree} of their bounding boxes,
+ * so that an observation is matched against thousands of fences with a tree lookup and a
+ * point-in-polygon test on the few whose box contains it.
+ * <p>
+ * An STRtree cannot be modified once built, so each change publishes a new snapshot: only the
+ * fences that changed are prepared again, the others are reused, and the tree is packed again
+ * from their bounding boxes, which takes a few milliseconds for thousands of fences. Lookups
+ * read the current snapshot without locking. Changes made on this instance are applied once
+ * committed; those of other instances are picked up by the periodic {@link #refresh()}.
+ */
+@Component
+@Slf4j
+public class GeofenceIndex {
+
+    private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory(new PrecisionModel(), 4326);
+
+    private final GeofenceRepository geofenceRepository;
+
+    // Written under the lock of this index only, then published as a snapshot
+    private final Map<Long, IndexedGeofence> fences = new HashMap<>();
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    public GeofenceIndex(GeofenceRepository geofenceRepository, MeterRegistry meterRegistry) {
+        this.geofenceRepository = geofenceRepository;
+        Gauge.builder("ecoguard.geofence.indexed", this, index -> index.snapshot.size)
+                .description("Active geofences held in the in-memory index")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether any fence watches the device, so that devices without fences skip the lookup.
+     */
+    public boolean watches(Long deviceId, Long userId) {
+        Snapshot current = snapshot;
+        return current.deviceIds.contains(deviceId) || current.userIds.contains(userId);
+    }
+
+    /**
+     * The fences of the device that contain the point, boundary included.
+     */
+    public List<IndexedGeofence> containing(Long deviceId, Long userId, double latitude, double longitude) {
+        Snapshot current = snapshot;
+        if (current.tree == null) {
+            return Collections.emptyList();
+        }
+        List<?> candidates = current.tree.query(new Envelope(longitude, longitude, latitude, latitude));
+        if (candidates.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Point point = GEOMETRY_FACTORY.createPoint(new Coordinate(longitude, latitude));
+        List<IndexedGeofence> containing = new ArrayList<>(2);
+        for (Object candidate : candidates) {
+            IndexedGeofence fence = (IndexedGeofence) candidate;
+            if (fence.appliesTo(deviceId, userId) && fence.covers(point)) {
+                containing.add(fence);
+            }
+        }
+        return containing;
+    }
+
+    /**
+     * The active fence with this id, or {@code null}.
+     */
+    public IndexedGeofence get(Long id) {
+        return snapshot.byId.get(id);
+    }
+
+    public int size() {
+        return snapshot.size;
+    }
+
+    /**
+     * Index the saved fence, or drop it when inactive, once the current transaction commits.
+     */
+    public void putOnCommit(Geofence geofence) {
+        IndexedGeofence fence = geofence.isActive() ? IndexedGeofence.of(geofence) : null;
+        Long id = geofence.getId();
+        afterCommit(() -> {
+            if (fence != null) {
+                putAll(List.of(fence));
+            } else {
+                removeAll(List.of(id));
+            }
+        });
+    }
+
+    /**
+     * Drop the deleted fence once the current transaction commits.
+     */
+    public void removeOnCommit(Long id) {
+        afterCommit(() -> removeAll(List.of(id)));
+    }
+
+    public synchronized void putAll(Collection<IndexedGeofence> changed) {
+        for (IndexedGeofence fence : changed) {
+            fences.put(fence.getId(), fence);
+        }
+        publish();
+    }
+
+    public synchronized void removeAll(Collection<Long> ids) {
+        if (fences.keySet().removeAll(ids)) {
+            publish();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refresh();
+    }
+
+    /**
+     * Reload the fences created, modified, deactivated or deleted since the last refresh,
+     * on this instance or another one. Runs every minute by default.
+     */
+    @Scheduled(fixedDelayString = "${ecoguard.geofence.refresh-interval-ms:60000}",
+            initialDelayString = "${ecoguard.geofence.refresh-interval-ms:60000}")
+    public synchronized void refresh() {
+        Map<Long, LocalDateTime> versions = new HashMap<>();
+        for (Object[] row : geofenceRepository.findActiveVersions()) {
+            versions.put((Long) row[0], (LocalDateTime) row[1]);
+        }
+
+        List<Long> changedIds = new ArrayList<>();
+        versions.forEach((id, updatedAt) -> {
+            IndexedGeofence current = fences.get(id);
+            if (current == null || !Objects.equals(current.getUpdatedAt(), updatedAt)) {
+                changedIds.add(id);
+            }
+        });
+        boolean removed = fences.keySet().retainAll(versions.keySet());
+        if (changedIds.isEmpty() && !removed) {
+            return;
+        }
+
+        for (Geofence geofence : geofenceRepository.findAllById(changedIds)) {
+            if (geofence.isActive()) {
+                fences.put(geofence.getId(), IndexedGeofence.of(geofence));
+            }
+        }
+        publish();
+        log.info("Reloaded {} geofences, {} indexed", changedIds.size(), fences.size());
+    }
+
+    private void publish() {
+        snapshot = Snapshot.of(fences);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static final class Snapshot {
+
+        private static final Snapshot EMPTY = new Snapshot(null, Map.of(), Set.of(), Set.of());
+
+        private final STRtree tree;
+        private final Map<Long, IndexedGeofence> byId;
+        // Devices watched by a fence of their own, and users with a fence on all their devices
+        private final Set<Long> deviceIds;
+        private final Set<Long> userIds;
+        private final int size;
+
+        private Snapshot(STRtree tree, Map<Long, IndexedGeofence> byId, Set<Long> deviceIds, Set<Long> userIds) {
+            this.tree = tree;
+            this.byId = byId;
+            this.deviceIds = deviceIds;
+            this.userIds = userIds;
+            this.size = byId.size();
+        }
+
+        private static Snapshot of(Map<Long, IndexedGeofence> fences) {
+            if (fences.isEmpty()) {
+                return EMPTY;
+            }
+            STRtree tree = new STRtree();
+            Set<Long> deviceIds = new HashSet<>();
+            Set<Long> userIds = new HashSet<>();
+            for (IndexedGeofence fence : fences.values()) {
+                tree.insert(fence.getArea().getGeometry().getEnvelopeInternal(), fence);
+                if (fence.getDeviceId() != null) {
+                    deviceIds.add(fence.getDeviceId());
+                } else {
+                    userIds.add(fence.getUserId());
+                }
+            }
+            tree.build();
+            return new Snapshot(tree, new HashMap<>(fences), deviceIds, userIds);
+        }
+    }
+}
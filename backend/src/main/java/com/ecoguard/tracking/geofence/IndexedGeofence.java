@@ -0,0 +1,65 @@
+package com.ecoguard.tracking.geofence;
+
+import com.ecoguard.tracking.entity.Geofence;
+import lombok.Getter;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+
+import java.time.LocalDateTime;
+
+/**
+ * Immutable copy of an active {@link Geofence} held by the {@link GeofenceIndex}, with its area
+ * prepared for repeated point-in-polygon tests.
+ */
+@Getter
+public final class IndexedGeofence {
+
+    private final Long id;
+    private final Long userId;
+    private final Long deviceId;
+    private final String name;
+    private final Geofence.GeofenceType type;
+    private final boolean alertOnEnter;
+    private final boolean alertOnExit;
+    private final LocalDateTime updatedAt;
+    private final PreparedGeometry area;
+
+    IndexedGeofence(Long id, Long userId, Long deviceId, String name, Geofence.GeofenceType type,
+                    boolean alertOnEnter, boolean alertOnExit, LocalDateTime updatedAt, PreparedGeometry area) {
+        this.id = id;
+        this.userId = userId;
+        this.deviceId = deviceId;
+        this.name = name;
+        this.type = type;
+        this.alertOnEnter = alertOnEnter;
+        this.alertOnExit = alertOnExit;
+        this.updatedAt = updatedAt;
+        this.area = area;
+    }
+
+    public static IndexedGeofence of(Geofence geofence) {
+        return new IndexedGeofence(
+                geofence.getId(),
+                geofence.getUser().getId(),
+                geofence.getDevice() != null ? geofence.getDevice().getId() : null,
+                geofence.getName(),
+                geofence.getType(),
+                geofence.isAlertOnEnter(),
+                geofence.isAlertOnExit(),
+                geofence.getUpdatedAt(),
+                PreparedGeometryFactory.prepare(geofence.getArea()));
+    }
+
+    /**
+     * Whether the fence watches the given device: it is the device of the fence, or the fence
+     * covers every device of its owner.
+     */
+    public boolean appliesTo(Long deviceId, Long userId) {
+        return this.deviceId != null ? this.deviceId.equals(deviceId) : this.userId.equals(userId);
+    }
+
+    public boolean covers(Point point) {
+        return area.covers(point);
+    }
+}
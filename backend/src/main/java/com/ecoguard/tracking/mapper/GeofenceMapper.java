@@ -0,0 +1,37 @@
+package com.ecoguard.tracking.mapper;
+
+import com.ecoguard.tracking.dto.GeofenceDTO;
+import com.ecoguard.tracking.entity.Geofence;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Polygon;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.ReportingPolicy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE)
+public interface GeofenceMapper {
+
+    @Mapping(target = "deviceId", source = "device.id")
+    @Mapping(target = "deviceName", source = "device.name")
+    @Mapping(target = "vertices",
+            expression = "java(geofence.getRadiusMeters() == null ? vertices(geofence.getArea()) : null)")
+    GeofenceDTO toDTO(Geofence geofence);
+
+    /**
+     * Vertices of the outer ring as {@code [latitude, longitude]} pairs, without the closing one.
+     */
+    default List<double[]> vertices(Polygon area) {
+        if (area == null) {
+            return null;
+        }
+        Coordinate[] ring = area.getExteriorRing().getCoordinates();
+        List<double[]> vertices = new ArrayList<>(ring.length - 1);
+        for (int i = 0; i < ring.length - 1; i++) {
+            vertices.add(new double[]{ring[i].y, ring[i].x});
+        }
+        return vertices;
+    }
+}
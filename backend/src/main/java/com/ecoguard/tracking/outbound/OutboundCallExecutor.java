@@ -0,0 +1,254 @@
+package com.ecoguard.tracking.outbound;
+
+import com.ecoguard.tracking.config.OutboundCallProperties;
+import com.ecoguard.tracking.exception.OutboundCallException;
+import com.ecoguard.tracking.exception.OutboundCallRejectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs blocking calls to external services off the request threads.
+ * <p>
+ * Every dependency is isolated: it has its own limit of concurrent calls, a bounded number of
+ * waiting calls beyond which new ones are rejected, and a timeout after which the call is
+ * abandoned and its thread interrupted. A slow service therefore only delays its own callers.
+ * The same isolation is used for database work moved off the request threads.
+ * <p>
+ * Calls run on virtual threads when the JDK provides them (JDK 21+), with a semaphore per
+ * dependency; otherwise each dependency gets a fixed pool of platform threads sized to its limit.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OutboundCallExecutor {
+
+    private final OutboundCallProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    private ExecutorService virtualThreadExecutor;
+    private ScheduledExecutorService timeoutScheduler;
+
+    @PostConstruct
+    public void init() {
+        OutboundCallProperties.Mode mode = properties.getMode();
+        if (mode != OutboundCallProperties.Mode.PLATFORM) {
+            virtualThreadExecutor = newVirtualThreadExecutor();
+            if (virtualThreadExecutor == null && mode == OutboundCallProperties.Mode.VIRTUAL) {
+                throw new IllegalStateException("Virtual threads are not available on Java " + Runtime.version().feature());
+            }
+        }
+        timeoutScheduler = Executors.newSingleThreadScheduledExecutor(daemonThreadFactory("outbound-timeout"));
+        log.info("Outbound calls run on {}", virtualThreadExecutor != null ? "virtual threads" : "platform thread pools");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        bulkheads.values().forEach(Bulkhead::shutdown);
+        if (virtualThreadExecutor != null) {
+            virtualThreadExecutor.shutdown();
+        }
+        timeoutScheduler.shutdown();
+    }
+
+    /**
+     * Start a call without waiting for it. The returned future fails with an
+     * {@link OutboundCallException} if the call is rejected, times out or throws.
+     */
+    public <T> CompletableFuture<T> submit(String dependency, Callable<T> call) {
+        return bulkheads.computeIfAbsent(dependency, this::createBulkhead).submit(call);
+    }
+
+    /**
+     * Run a call and wait for its result, at most for the timeout of the dependency.
+     * Rejected calls fail with an {@link OutboundCallRejectedException}.
+     *
+     * @throws OutboundCallException if the call is rejected, times out or throws
+     */
+    public <T> T call(String dependency, Callable<T> call) {
+        try {
+            return submit(dependency, call).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OutboundCallException("Interrupted while waiting for " + dependency, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof OutboundCallException) {
+                throw (OutboundCallException) e.getCause();
+            }
+            throw new OutboundCallException("Call to " + dependency + " failed", e.getCause());
+        }
+    }
+
+    private Bulkhead createBulkhead(String dependency) {
+        OutboundCallProperties.Spec spec = properties.specFor(dependency);
+        log.info("Outbound calls to {} limited to {} concurrent, {} waiting, timeout {}",
+                dependency, spec.getMaxConcurrent(), spec.getQueueCapacity(), spec.getTimeout());
+        return new Bulkhead(dependency, spec);
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static ThreadFactory daemonThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private final class Bulkhead {
+
+        private final String dependency;
+        private final OutboundCallProperties.Spec spec;
+        private final ExecutorService executor;
+        // Only with virtual threads; platform pools are limited by their size
+        private final Semaphore permits;
+        private final AtomicInteger pending = new AtomicInteger();
+
+        private final Timer successTimer;
+        private final Timer failureTimer;
+        private final Timer timeoutTimer;
+        private final Counter rejectedCounter;
+
+        private Bulkhead(String dependency, OutboundCallProperties.Spec spec) {
+            this.dependency = dependency;
+            this.spec = spec;
+            if (virtualThreadExecutor != null) {
+                this.executor = virtualThreadExecutor;
+                this.permits = new Semaphore(spec.getMaxConcurrent());
+            } else {
+                this.executor = new ThreadPoolExecutor(spec.getMaxConcurrent(), spec.getMaxConcurrent(),
+                        0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(spec.getQueueCapacity()),
+                        daemonThreadFactory("outbound-" + dependency), new ThreadPoolExecutor.AbortPolicy());
+                this.permits = null;
+            }
+
+            this.successTimer = timer("success");
+            this.failureTimer = timer("failure");
+            this.timeoutTimer = timer("timeout");
+            this.rejectedCounter = Counter.builder("ecoguard.outbound.rejected")
+                    .description("Outbound calls rejected because too many were already waiting")
+                    .tag("dependency", dependency)
+                    .register(meterRegistry);
+            Gauge.builder("ecoguard.outbound.pending", pending, AtomicInteger::get)
+                    .description("Outbound calls running or waiting to run")
+                    .tag("dependency", dependency)
+                    .register(meterRegistry);
+        }
+
+        private Timer timer(String outcome) {
+            return Timer.builder("ecoguard.outbound.calls")
+                    .description("Outbound calls from submission to completion")
+                    .tag("dependency", dependency)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry);
+        }
+
+        <T> CompletableFuture<T> submit(Callable<T> call) {
+            CompletableFuture<T> result = new CompletableFuture<>();
+            if (pending.incrementAndGet() > spec.getMaxConcurrent() + spec.getQueueCapacity()) {
+                pending.decrementAndGet();
+                return reject(result);
+            }
+
+            long startNanos = System.nanoTime();
+            Future<?> task;
+            try {
+                task = executor.submit(() -> run(call, result, startNanos));
+            } catch (RejectedExecutionException e) {
+                pending.decrementAndGet();
+                return reject(result);
+            }
+
+            if (spec.getTimeout().isZero()) {
+                return result;
+            }
+            ScheduledFuture<?> timeout = timeoutScheduler.schedule(() -> {
+                if (result.completeExceptionally(new OutboundCallException(
+                        "Call to " + dependency + " timed out after " + spec.getTimeout().toMillis() + "ms"))) {
+                    timeoutTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+                    task.cancel(true);
+                }
+            }, spec.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            result.whenComplete((value, error) -> timeout.cancel(false));
+            return result;
+        }
+
+        private <T> CompletableFuture<T> reject(CompletableFuture<T> result) {
+            rejectedCounter.increment();
+            result.completeExceptionally(new OutboundCallRejectedException("Too many pending calls to " + dependency));
+            return result;
+        }
+
+        private <T> void run(Callable<T> call, CompletableFuture<T> result, long startNanos) {
+            boolean acquired = false;
+            try {
+                if (permits != null) {
+                    permits.acquire();
+                    acquired = true;
+                }
+                if (result.isDone()) {
+                    // Timed out while waiting for a slot
+                    return;
+                }
+                T value = call.call();
+                if (result.complete(value)) {
+                    successTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                result.completeExceptionally(new OutboundCallException("Call to " + dependency + " was interrupted", e));
+            } catch (Exception e) {
+                if (result.completeExceptionally(new OutboundCallException("Call to " + dependency + " failed", e))) {
+                    failureTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+                }
+            } finally {
+                if (acquired) {
+                    permits.release();
+                }
+                pending.decrementAndGet();
+            }
+        }
+
+        void shutdown() {
+            if (executor != virtualThreadExecutor) {
+                executor.shutdown();
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.ecoguard.tracking.ratelimit;
+
+import com.ecoguard.tracking.exception.GlobalExceptionHandler;
+import com.ecoguard.tracking.exception.RateLimitExceededException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * Rejects anonymous report requests over the client or global limit with 429, before the body
+ * is decompressed or parsed. Runs ahead of every other filter, Spring Security included.
+ * Behind a reverse proxy, set {@code server.forward-headers-strategy} so that the remote
+ * address is the one of the phone.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class AnonymousReportRateLimitFilter extends OncePerRequestFilter {
+
+    private static final String ANONYMOUS_REPORTS_PATH = "/anonymous-reports";
+
+    private final AnonymousReportRateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !rateLimiter.isEnabled() || !request.getServletPath().startsWith(ANONYMOUS_REPORTS_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try {
+            rateLimiter.checkClient(request.getRemoteAddr());
+        } catch (RateLimitExceededException e) {
+            // Not handled by GlobalExceptionHandler this early, write the same error body here
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(), new GlobalExceptionHandler.ErrorResponse(
+                    HttpStatus.TOO_MANY_REQUESTS.value(), e.getMessage(), "uri=" + request.getRequestURI(),
+                    LocalDateTime.now()));
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
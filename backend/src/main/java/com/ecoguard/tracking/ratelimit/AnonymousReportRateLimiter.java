@@ -0,0 +1,150 @@
+package com.ecoguard.tracking.ratelimit;
+
+import com.ecoguard.tracking.config.RateLimitProperties;
+import com.ecoguard.tracking.dto.AnonymousReportBatchDTO;
+import com.ecoguard.tracking.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control for the anonymous report endpoints. Each request takes a token from the
+ * bucket of its client address and, when enabled, from the global budget shared through Redis;
+ * a batch then takes one token per report from the batch bucket of its client address, and
+ * each report takes a token from the bucket of its reporter hash.
+ */
+@Component
+@Slf4j
+public class AnonymousReportRateLimiter {
+
+    private static final long GLOBAL_RETRY_AFTER_SECONDS = 1;
+
+    private final boolean enabled;
+    private final KeyedRateLimiter clientLimiter;
+    private final KeyedRateLimiter clientBatchLimiter;
+    private final KeyedRateLimiter reporterLimiter;
+    private final GlobalRateBudget globalBudget;
+
+    private final Counter clientRejections;
+    private final Counter clientBatchRejections;
+    private final Counter reporterRejections;
+    private final Counter globalRejections;
+
+    public AnonymousReportRateLimiter(RateLimitProperties properties, ObjectProvider<StringRedisTemplate> redisTemplate,
+                                      MeterRegistry meterRegistry) {
+        if (properties.getPerClientBatch().getCapacity() < AnonymousReportBatchDTO.MAX_REPORTS) {
+            throw new IllegalArgumentException("Batch rate limit capacity must hold a full batch of "
+                    + AnonymousReportBatchDTO.MAX_REPORTS + " reports: " + properties.getPerClientBatch());
+        }
+        this.enabled = properties.isEnabled();
+        this.clientLimiter = new KeyedRateLimiter(properties.getPerClient(), properties.getMaxTrackedKeys());
+        this.clientBatchLimiter = new KeyedRateLimiter(properties.getPerClientBatch(), properties.getMaxTrackedKeys());
+        this.reporterLimiter = new KeyedRateLimiter(properties.getPerReporter(), properties.getMaxTrackedKeys());
+        this.globalBudget = properties.getGlobal().isEnabled()
+                ? new GlobalRateBudget(redisTemplate.getObject(), properties.getGlobal().getRequestsPerSecond())
+                : null;
+
+        this.clientRejections = rejections(meterRegistry, "client");
+        this.clientBatchRejections = rejections(meterRegistry, "client-batch");
+        this.reporterRejections = rejections(meterRegistry, "reporter");
+        this.globalRejections = rejections(meterRegistry, "global");
+        registerBucketGauges(meterRegistry, "client", clientLimiter);
+        registerBucketGauges(meterRegistry, "client-batch", clientBatchLimiter);
+        registerBucketGauges(meterRegistry, "reporter", reporterLimiter);
+
+        log.info("Anonymous report rate limiting {}: {} per client, {} batched reports per client, {} per reporter, "
+                        + "global budget {}",
+                enabled ? "enabled" : "disabled", properties.getPerClient(), properties.getPerClientBatch(),
+                properties.getPerReporter(),
+                globalBudget != null ? properties.getGlobal().getRequestsPerSecond() + "/s" : "disabled");
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, String limit) {
+        return Counter.builder("ecoguard.ratelimit.rejected")
+                .description("Anonymous report requests rejected by the rate limiter")
+                .tag("limit", limit)
+                .register(meterRegistry);
+    }
+
+    private static void registerBucketGauges(MeterRegistry meterRegistry, String limit, KeyedRateLimiter limiter) {
+        Gauge.builder("ecoguard.ratelimit.buckets", limiter, KeyedRateLimiter::trackedKeys)
+                .description("Token buckets currently tracked")
+                .tag("limit", limit)
+                .register(meterRegistry);
+        Gauge.builder("ecoguard.ratelimit.buckets.exhausted.ratio", limiter, KeyedRateLimiter::exhaustedRatio)
+                .description("Share of tracked token buckets that are empty")
+                .tag("limit", limit)
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Admit a request from the given client address, before its body is read.
+     *
+     * @throws RateLimitExceededException when the client or the global budget is over its limit
+     */
+    public void checkClient(String clientAddress) {
+        if (!enabled) {
+            return;
+        }
+        long waitNanos = clientLimiter.tryAcquire(clientAddress);
+        if (waitNanos > 0) {
+            clientRejections.increment();
+            throw new RateLimitExceededException("Too many reports from this client", retryAfterSeconds(waitNanos));
+        }
+        if (globalBudget != null && !globalBudget.tryAcquire()) {
+            globalRejections.increment();
+            throw new RateLimitExceededException("Too many reports, please retry later", GLOBAL_RETRY_AFTER_SECONDS);
+        }
+    }
+
+    /**
+     * Admit the reports of a batch from the given client address, one token each. A batch
+     * larger than {@link AnonymousReportBatchDTO#MAX_REPORTS} fails validation afterwards and is
+     * only charged that maximum.
+     *
+     * @throws RateLimitExceededException when the client is over its batch limit
+     */
+    public void checkClientBatch(String clientAddress, int reports) {
+        if (!enabled || reports <= 0) {
+            return;
+        }
+        long waitNanos = clientBatchLimiter.tryAcquire(clientAddress,
+                Math.min(reports, AnonymousReportBatchDTO.MAX_REPORTS));
+        if (waitNanos > 0) {
+            clientBatchRejections.increment();
+            throw new RateLimitExceededException("Too many batched reports from this client",
+                    retryAfterSeconds(waitNanos));
+        }
+    }
+
+    /**
+     * Admit one report from the given reporter. Reports without reporter hash are only
+     * limited by client address.
+     *
+     * @throws RateLimitExceededException when the reporter is over its limit
+     */
+    public void checkReporter(String reporterHash) {
+        if (!enabled || reporterHash == null || reporterHash.isEmpty()) {
+            return;
+        }
+        long waitNanos = reporterLimiter.tryAcquire(reporterHash);
+        if (waitNanos > 0) {
+            reporterRejections.increment();
+            throw new RateLimitExceededException("Too many reports from this reporter", retryAfterSeconds(waitNanos));
+        }
+    }
+
+    private static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+}
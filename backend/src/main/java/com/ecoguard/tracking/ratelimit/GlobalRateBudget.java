@@ -0,0 +1,48 @@
+package com.ecoguard.tracking.ratelimit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.Collections;
+
+/**
+ * Requests-per-second budget shared by all nodes, counted in Redis with one counter per
+ * one-second window. Redis errors let the request through: the per-key limits still apply
+ * and losing the global budget is preferable to rejecting every report.
+ */
+@Slf4j
+class GlobalRateBudget {
+
+    private static final String KEY_PREFIX = "ecoguard:ratelimit:global:";
+
+    // Counter and expiry must be set together, otherwise a crash could leave a counter forever
+    private static final RedisScript<Long> INCREMENT_SCRIPT = new DefaultRedisScript<>(
+            "local count = redis.call('incr', KEYS[1]) "
+                    + "if count == 1 then redis.call('pexpire', KEYS[1], ARGV[1]) end "
+                    + "return count",
+            Long.class);
+
+    private static final String WINDOW_EXPIRY_MS = "2000";
+
+    private final StringRedisTemplate redisTemplate;
+    private final long requestsPerSecond;
+
+    GlobalRateBudget(StringRedisTemplate redisTemplate, long requestsPerSecond) {
+        this.redisTemplate = redisTemplate;
+        this.requestsPerSecond = requestsPerSecond;
+    }
+
+    boolean tryAcquire() {
+        long window = System.currentTimeMillis() / 1000;
+        try {
+            Long count = redisTemplate.execute(INCREMENT_SCRIPT,
+                    Collections.singletonList(KEY_PREFIX + window), WINDOW_EXPIRY_MS);
+            return count == null || count <= requestsPerSecond;
+        } catch (RuntimeException e) {
+            log.warn("Could not check the global rate budget: {}", e.getMessage());
+            return true;
+        }
+    }
+}
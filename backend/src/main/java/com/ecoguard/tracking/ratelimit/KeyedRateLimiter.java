@@ -0,0 +1,73 @@
+package com.ecoguard.tracking.ratelimit;
+
+import com.ecoguard.tracking.config.RateLimitProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One {@link TokenBucket} per key (client address, reporter hash). Buckets live in a bounded
+ * Caffeine map, whose concurrent hash table spreads keys over independent bins, so requests
+ * for different keys never contend. A bucket idle for longer than it takes to refill is
+ * dropped: recreating it full gives the same answer.
+ */
+class KeyedRateLimiter {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final long emissionInterval;
+    private final long burstTolerance;
+    private final Cache<String, TokenBucket> buckets;
+
+    KeyedRateLimiter(RateLimitProperties.Limit limit, long maxTrackedKeys) {
+        if (limit.getCapacity() < 1 || limit.getRefillPerSecond() <= 0) {
+            throw new IllegalArgumentException("Rate limit capacity and refill rate must be positive: " + limit);
+        }
+        this.emissionInterval = Math.max(1, (long) (NANOS_PER_SECOND / limit.getRefillPerSecond()));
+        this.burstTolerance = emissionInterval * limit.getCapacity();
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxTrackedKeys)
+                .expireAfterAccess(Duration.ofNanos(burstTolerance))
+                .build();
+    }
+
+    /**
+     * @return 0 when the request is allowed, otherwise the nanoseconds until it would be
+     */
+    long tryAcquire(String key) {
+        return tryAcquire(key, 1);
+    }
+
+    /**
+     * Take several tokens at once, all or none.
+     *
+     * @return 0 when the request is allowed, otherwise the nanoseconds until it would be
+     */
+    long tryAcquire(String key, int tokens) {
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(key, k -> new TokenBucket(now));
+        return bucket.tryAcquire(now, emissionInterval, burstTolerance, tokens);
+    }
+
+    long trackedKeys() {
+        return buckets.estimatedSize();
+    }
+
+    /**
+     * Share of tracked keys whose bucket is empty, i.e. that would be rejected right now.
+     */
+    double exhaustedRatio() {
+        long now = System.nanoTime();
+        long tracked = 0;
+        long exhausted = 0;
+        for (TokenBucket bucket : buckets.asMap().values()) {
+            tracked++;
+            if (bucket.availableTokens(now, emissionInterval, burstTolerance) < 1) {
+                exhausted++;
+            }
+        }
+        return tracked == 0 ? 0 : exhausted / (double) tracked;
+    }
+}
@@ -0,0 +1,54 @@
+package com.ecoguard.tracking.ratelimit;
+
+import com.ecoguard.tracking.dto.AnonymousReportBatchDTO;
+import com.ecoguard.tracking.dto.AnonymousReportDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Applies the per-reporter limit, and the per-client batch limit for batches, as soon as an
+ * anonymous report body is parsed, before validation and before any database work. Rejections
+ * surface as
+ * {@link com.ecoguard.tracking.exception.RateLimitExceededException}.
+ */
+@ControllerAdvice
+@RequiredArgsConstructor
+public class ReporterRateLimitAdvice extends RequestBodyAdviceAdapter {
+
+    private final AnonymousReportRateLimiter rateLimiter;
+
+    @Override
+    public boolean supports(MethodParameter methodParameter, Type targetType,
+                            Class<? extends HttpMessageConverter<?>> converterType) {
+        return rateLimiter.isEnabled()
+                && (targetType == AnonymousReportDTO.class || targetType == AnonymousReportBatchDTO.class);
+    }
+
+    @Override
+    public Object afterBodyRead(Object body, HttpInputMessage inputMessage, MethodParameter parameter, Type targetType,
+                                Class<? extends HttpMessageConverter<?>> converterType) {
+        if (body instanceof AnonymousReportDTO) {
+            rateLimiter.checkReporter(((AnonymousReportDTO) body).getReporterHash());
+        } else if (body instanceof AnonymousReportBatchDTO && ((AnonymousReportBatchDTO) body).getReports() != null) {
+            List<AnonymousReportDTO> reports = ((AnonymousReportBatchDTO) body).getReports();
+            rateLimiter.checkClientBatch(clientAddress(), reports.size());
+            for (AnonymousReportDTO report : reports) {
+                rateLimiter.checkReporter(report != null ? report.getReporterHash() : null);
+            }
+        }
+        return body;
+    }
+
+    private static String clientAddress() {
+        return ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest().getRemoteAddr();
+    }
+}
@@ -0,0 +1,45 @@
+package com.ecoguard.tracking.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket stored as a single theoretical arrival time (the GCRA formulation):
+ * the time at which the bucket would be full again if no more requests came in. Acquiring a
+ * token moves that time forward by one emission interval with a compare-and-set.
+ */
+final class TokenBucket {
+
+    private final AtomicLong theoreticalArrivalTime;
+
+    TokenBucket(long now) {
+        this.theoreticalArrivalTime = new AtomicLong(now);
+    }
+
+    /**
+     * @param emissionInterval nanoseconds needed to refill one token
+     * @param burstTolerance   nanoseconds needed to refill a full bucket
+     * @param tokens           tokens to take at once, all or none
+     * @return 0 when the tokens were taken, otherwise the nanoseconds to wait for them
+     */
+    long tryAcquire(long now, long emissionInterval, long burstTolerance, int tokens) {
+        while (true) {
+            long current = theoreticalArrivalTime.get();
+            long next = Math.max(current, now) + emissionInterval * tokens;
+            long excess = next - now - burstTolerance;
+            if (excess > 0) {
+                return excess;
+            }
+            if (theoreticalArrivalTime.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Tokens currently left, for metrics.
+     */
+    double availableTokens(long now, long emissionInterval, long burstTolerance) {
+        long used = Math.max(0, theoreticalArrivalTime.get() - now);
+        return Math.max(0, (burstTolerance - used) / (double) emissionInterval);
+    }
+}
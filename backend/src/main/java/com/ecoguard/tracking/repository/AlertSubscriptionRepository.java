@@ -0,0 +1,32 @@
+package com.ecoguard.tracking.repository;
+
+import com.ecoguard.tracking.entity.AlertSubscription;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AlertSubscriptionRepository extends JpaRepository<AlertSubscription, String> {
+
+    List<AlertSubscription> findByUpdatedAtBefore(LocalDateTime cutoff, Pageable pageable);
+
+    /**
+     * @return 1 when the subscription was created, 0 when the phone already had one
+     */
+    @Modifying
+    @Query(value = "INSERT INTO alert_subscriptions (token, cell, created_at, updated_at) " +
+           "VALUES (:token, :cell, :now, :now) ON CONFLICT (token) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("token") String token, @Param("cell") String cell, @Param("now") LocalDateTime now);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<AlertSubscription> findWithLockByToken(String token);
+}
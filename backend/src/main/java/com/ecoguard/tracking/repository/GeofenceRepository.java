@@ -0,0 +1,43 @@
+package com.ecoguard.tracking.repository;
+
+import com.ecoguard.tracking.entity.Geofence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface GeofenceRepository extends JpaRepository<Geofence, Long> {
+
+    List<Geofence> findByUserIdOrderByCreatedAtDesc(Long userId);
+
+    // Id and modification time of the active fences, to reload only those that changed
+    @Query("SELECT g.id, g.updatedAt FROM Geofence g WHERE g.active = true")
+    List<Object[]> findActiveVersions();
+
+    // Native scalars come back as BigInteger
+    @Query(value = "SELECT geofence_id FROM geofence_presences WHERE device_id = :deviceId AND inside",
+            nativeQuery = true)
+    List<Number> findGeofenceIdsContainingDevice(@Param("deviceId") Long deviceId);
+
+    /**
+     * Record that the device crossed the fence at the given time, unless it is already known to
+     * be on that side or a later observation was recorded.
+     *
+     * @return 1 when the crossing was recorded, 0 when it was already known
+     */
+    @Modifying
+    @Query(value = "INSERT INTO geofence_presences (geofence_id, device_id, inside, changed_at) " +
+            "VALUES (:geofenceId, :deviceId, :inside, :changedAt) " +
+            "ON CONFLICT (device_id, geofence_id) DO UPDATE " +
+            "SET inside = EXCLUDED.inside, changed_at = EXCLUDED.changed_at " +
+            "WHERE geofence_presences.inside <> EXCLUDED.inside " +
+            "AND geofence_presences.changed_at <= EXCLUDED.changed_at",
+            nativeQuery = true)
+    int recordCrossing(@Param("geofenceId") Long geofenceId, @Param("deviceId") Long deviceId,
+                       @Param("inside") boolean inside, @Param("changedAt") LocalDateTime changedAt);
+}
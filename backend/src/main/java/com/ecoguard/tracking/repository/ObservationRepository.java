@@ -4,15 +4,21 @@ import com.ecoguard.tracking.entity.Device;
 import com.ecoguard.tracking.entity.Observation;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 
+/**
+ * Stored observations. Ghosts generated at read time are not rows: the counts below add the
+ * {@code ghostCount} of each row, and listings go through
+ * {@link com.ecoguard.tracking.service.ObservationTimeline}.
+ */
 @Repository
 public interface ObservationRepository extends JpaRepository<Observation, Long> {
     
@@ -21,39 +27,103 @@ public interface ObservationRepository extends JpaRepository<Observation, Long>
     Page<Observation> findByDeviceAndObservationTimeBetween(
             Device device, LocalDateTime start, LocalDateTime end, Pageable pageable);
     
-    @Query("SELECT o FROM Observation o WHERE o.device.id = :deviceId ORDER BY o.observationTime DESC")
-    Page<Observation> findByDeviceIdOrderByObservationTimeDesc(
-            @Param("deviceId") Long deviceId, Pageable pageable);
+    @Query("SELECT o FROM Observation o WHERE o.device.id = :deviceId ORDER BY o.observationTime DESC, o.id DESC")
+    Slice<Observation> findSliceByDeviceId(@Param("deviceId") Long deviceId, Pageable pageable);
     
-    @Query("SELECT o FROM Observation o WHERE o.device.id = :deviceId AND o.observationTime BETWEEN :start AND :end " +
-           "ORDER BY o.observationTime DESC")
-    Page<Observation> findByDeviceIdAndTimeRangeOrderByObservationTimeDesc(
-            @Param("deviceId") Long deviceId, 
-            @Param("start") LocalDateTime start, 
-            @Param("end") LocalDateTime end, 
+    @Query("SELECT o FROM Observation o WHERE o.device.id = :deviceId " +
+           "AND o.observationTime >= :from AND o.observationTime < :to ORDER BY o.observationTime DESC, o.id DESC")
+    Slice<Observation> findSliceByDeviceIdAndTimeRange(
+            @Param("deviceId") Long deviceId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
             Pageable pageable);
     
-    @Query("SELECT o FROM Observation o WHERE o.device.id = :deviceId ORDER BY o.observationTime DESC LIMIT 1")
-    Optional<Observation> findLatestByDeviceId(@Param("deviceId") Long deviceId);
+    @Query("SELECT o FROM Observation o WHERE o.device.id = :deviceId " +
+           "AND o.observationTime >= :from AND o.observationTime < :to ORDER BY o.observationTime DESC, o.id DESC")
+    List<Observation> findByDeviceIdAndTimeRange(
+            @Param("deviceId") Long deviceId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
     
-    @Query("SELECT COUNT(o) FROM Observation o WHERE o.device.id = :deviceId")
-    int countByDeviceId(@Param("deviceId") Long deviceId);
+    @Query("SELECT COALESCE(SUM(1 + COALESCE(o.ghostCount, 0)), 0) FROM Observation o WHERE o.device.id = :deviceId")
+    long countWithGhostsByDeviceId(@Param("deviceId") Long deviceId);
     
-    @Query("SELECT COUNT(o) FROM Observation o WHERE o.device.id = :deviceId AND o.observationTime >= :since")
-    int countByDeviceIdSince(@Param("deviceId") Long deviceId, @Param("since") LocalDateTime since);
+    // Newest rows, each with the device total, read by one statement so that both come from the same snapshot
+    @Query("SELECT o, (SELECT COALESCE(SUM(1 + COALESCE(c.ghostCount, 0)), 0) FROM Observation c " +
+           "WHERE c.device.id = :deviceId) FROM Observation o WHERE o.device.id = :deviceId " +
+           "ORDER BY o.observationTime DESC, o.id DESC")
+    List<Object[]> findNewestWithTotalByDeviceId(@Param("deviceId") Long deviceId, Pageable pageable);
     
-    @Query("SELECT COUNT(DISTINCT o.reporterHash) FROM Observation o WHERE o.device.id = :deviceId AND o.reporterHash IS NOT NULL")
-    int countUniqueReportersByDeviceId(@Param("deviceId") Long deviceId);
+    @Query("SELECT o.device.id AS deviceId, SUM(1 + COALESCE(o.ghostCount, 0)) AS observationCount FROM Observation o " +
+           "WHERE o.device.id IN :deviceIds GROUP BY o.device.id")
+    List<DeviceObservationCount> countWithGhostsByDeviceIds(@Param("deviceIds") Collection<Long> deviceIds);
     
-    @Query("SELECT AVG(o.confidence) FROM Observation o WHERE o.device.id = :deviceId")
-    Double getAverageConfidenceByDeviceId(@Param("deviceId") Long deviceId);
+    @Query("SELECT COALESCE(SUM(1 + COALESCE(o.ghostCount, 0)), 0) FROM Observation o " +
+           "WHERE o.device.id = :deviceId AND o.observationTime >= :from")
+    long countWithGhostsByDeviceIdSince(@Param("deviceId") Long deviceId, @Param("from") LocalDateTime from);
     
-    @Query("SELECT MIN(o.observationTime) FROM Observation o WHERE o.device.id = :deviceId")
-    LocalDateTime getFirstObservationTimeByDeviceId(@Param("deviceId") Long deviceId);
+    @Query("SELECT COALESCE(SUM(1 + COALESCE(o.ghostCount, 0)), 0) FROM Observation o " +
+           "WHERE o.device.id = :deviceId AND o.observationTime >= :from AND o.observationTime < :to")
+    long countWithGhostsByDeviceIdAndTimeRange(
+            @Param("deviceId") Long deviceId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
     
-    @Query("SELECT MAX(o.observationTime) FROM Observation o WHERE o.device.id = :deviceId")
-    LocalDateTime getLastObservationTimeByDeviceId(@Param("deviceId") Long deviceId);
+    // Ghost reporter hashes are random, so each ghost is one more unique reporter
+    @Query("SELECT COALESCE(SUM(1 + COALESCE(o.ghostCount, 0)), 0) AS observationCount, " +
+           "SUM(o.confidence + COALESCE(o.ghostConfidenceSum, 0)) AS confidenceSum, " +
+           "COUNT(DISTINCT o.reporterHash) + COALESCE(SUM(COALESCE(o.ghostCount, 0)), 0) AS uniqueReporters, " +
+           "MIN(o.observationTime) AS firstObservationTime, MAX(o.observationTime) AS lastObservationTime " +
+           "FROM Observation o WHERE o.device.id = :deviceId")
+    ObservationTotals getTotalsByDeviceId(@Param("deviceId") Long deviceId);
     
     @Query("SELECT o FROM Observation o WHERE o.observationTime < :cutoffDate")
     List<Observation> findObservationsOlderThan(@Param("cutoffDate") LocalDateTime cutoffDate);
+    
+    @Query("SELECT DISTINCT o.device.id FROM Observation o WHERE o.observationTime < :cutoffDate")
+    List<Long> findDeviceIdsWithObservationsOlderThan(@Param("cutoffDate") LocalDateTime cutoffDate);
+    
+    @Query("SELECT o FROM Observation o WHERE o.device.id = :deviceId AND o.observationTime < :cutoffDate ORDER BY o.id")
+    List<Observation> findByDeviceIdOlderThan(
+            @Param("deviceId") Long deviceId,
+            @Param("cutoffDate") LocalDateTime cutoffDate,
+            Pageable pageable);
+    
+    interface DeviceObservationCount {
+        
+        Long getDeviceId();
+        
+        long getObservationCount();
+    }
+    
+    // Newest id and entries of each device, to tell whether an in-memory copy is still current
+    @Query("SELECT o.device.id AS deviceId, MAX(o.id) AS newestId, SUM(1 + COALESCE(o.ghostCount, 0)) AS observationCount " +
+           "FROM Observation o WHERE o.device.id IN :deviceIds GROUP BY o.device.id")
+    List<DeviceObservationVersion> findVersionsByDeviceIds(@Param("deviceIds") Collection<Long> deviceIds);
+    
+    interface DeviceObservationVersion {
+        
+        Long getDeviceId();
+        
+        long getNewestId();
+        
+        long getObservationCount();
+    }
+    
+    /**
+     * Aggregates over the stored rows of a device, ghosts included except for the times, which
+     * are those of the stored rows.
+     */
+    interface ObservationTotals {
+        
+        long getObservationCount();
+        
+        Long getConfidenceSum();
+        
+        long getUniqueReporters();
+        
+        LocalDateTime getFirstObservationTime();
+        
+        LocalDateTime getLastObservationTime();
+    }
 }
@@ -3,11 +3,13 @@ package com.ecoguard.tracking.repository;
 import com.ecoguard.tracking.entity.Device;
 import com.ecoguard.tracking.entity.TheftReport;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,9 +26,35 @@ public interface TheftReportRepository extends JpaRepository<TheftReport, Long>
     @Query("SELECT tr FROM TheftReport tr WHERE tr.device.id = :deviceId AND tr.status = 'ACTIVE'")
     Optional<TheftReport> findActiveReportByDeviceId(@Param("deviceId") Long deviceId);
     
+    @Query("SELECT DISTINCT tr.device.id FROM TheftReport tr WHERE tr.device.id IN :deviceIds AND tr.status = 'ACTIVE'")
+    List<Long> findDeviceIdsWithActiveReport(@Param("deviceIds") Collection<Long> deviceIds);
+    
+    @Query("SELECT DISTINCT tr.device.id FROM TheftReport tr WHERE tr.status = 'ACTIVE'")
+    List<Long> findActiveDeviceIds();
+    
     @Query("SELECT COUNT(tr) FROM TheftReport tr WHERE tr.device.user.id = :userId AND tr.status = 'ACTIVE'")
     int countActiveReportsByUserId(@Param("userId") Long userId);
     
     @Query("SELECT tr FROM TheftReport tr WHERE tr.status = 'ACTIVE' AND tr.reportedAt >= :since")
     List<TheftReport> findActiveReportsSince(@Param("since") LocalDateTime since);
+    
+    // Devices whose case is closed: resolved long enough ago, not stolen again since, with observations left
+    @Query("SELECT DISTINCT tr.device.id FROM TheftReport tr WHERE tr.status = 'RESOLVED' AND tr.resolvedAt < :resolvedBefore " +
+           "AND NOT EXISTS (SELECT a FROM TheftReport a WHERE a.device = tr.device AND a.status = 'ACTIVE') " +
+           "AND EXISTS (SELECT o FROM Observation o WHERE o.device = tr.device)")
+    List<Long> findDeviceIdsWithResolvedCaseBefore(@Param("resolvedBefore") LocalDateTime resolvedBefore);
+    
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM theft_report_alerted_cells WHERE theft_report_id = :theftReportId AND cell = :cell)",
+           nativeQuery = true)
+    boolean isCellAlerted(@Param("theftReportId") Long theftReportId, @Param("cell") String cell);
+    
+    /**
+     * Record that the cell was alerted for the theft report.
+     *
+     * @return 1 when the cell was recorded, 0 when it was already alerted, possibly by another node
+     */
+    @Modifying
+    @Query(value = "INSERT INTO theft_report_alerted_cells (theft_report_id, cell) VALUES (:theftReportId, :cell) " +
+           "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int recordAlertedCell(@Param("theftReportId") Long theftReportId, @Param("cell") String cell);
 }
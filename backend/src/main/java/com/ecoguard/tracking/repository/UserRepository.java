@@ -2,8 +2,12 @@ package com.ecoguard.tracking.repository;
 
 import com.ecoguard.tracking.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +16,23 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     
     boolean existsByEmail(String email);
+    
+    /**
+     * Load a user together with its roles and device count in a single round trip.
+     * The roles fetch join yields one row per role, all referencing the same user instance.
+     */
+    @Query("SELECT u AS user, (SELECT COUNT(d) FROM Device d WHERE d.user = u) AS deviceCount " +
+           "FROM User u LEFT JOIN FETCH u.roles WHERE u.email = :email")
+    List<UserWithDeviceCount> findWithDeviceCountByEmail(@Param("email") String email);
+    
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+    void updatePassword(@Param("id") Long id, @Param("password") String password);
+    
+    interface UserWithDeviceCount {
+        
+        User getUser();
+        
+        long getDeviceCount();
+    }
 }
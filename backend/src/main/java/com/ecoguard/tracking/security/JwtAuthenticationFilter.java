@@ -2,9 +2,11 @@ package com.ecoguard.tracking.security;
 
 import com.ecoguard.tracking.dto.AuthRequestDTO;
 import com.ecoguard.tracking.dto.AuthResponseDTO;
+import com.ecoguard.tracking.exception.ServiceOverloadedException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -12,7 +14,6 @@ import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 import javax.servlet.FilterChain;
@@ -45,18 +46,40 @@ public class JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilte
             );
             
             return authentication;
+        } catch (ServiceOverloadedException e) {
+            // Not handled by GlobalExceptionHandler in the filter chain, and not an authentication failure
+            writeOverloaded(response, e);
+            return null;
         } catch (IOException e) {
             log.error("Error parsing authentication request", e);
             throw new BadCredentialsException("Invalid credentials");
         }
     }
 
+    private void writeOverloaded(HttpServletResponse response, ServiceOverloadedException e) {
+        log.warn("Login shed: {}", e.getMessage());
+        
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        
+        Map<String, String> errorResponse = new HashMap<>();
+        errorResponse.put("error", "Service overloaded");
+        errorResponse.put("message", e.getMessage());
+        
+        try {
+            objectMapper.writeValue(response.getWriter(), errorResponse);
+        } catch (IOException ioException) {
+            log.debug("Could not write the overloaded response", ioException);
+        }
+    }
+
     @Override
     protected void successfulAuthentication(HttpServletRequest request, HttpServletResponse response,
                                            FilterChain chain, Authentication authResult) 
             throws IOException, ServletException {
         
-        User user = (User) authResult.getPrincipal();
+        UserPrincipal user = (UserPrincipal) authResult.getPrincipal();
         
         String accessToken = jwtTokenProvider.generateToken(authResult);
         String refreshToken = jwtTokenProvider.generateRefreshToken(user.getUsername());
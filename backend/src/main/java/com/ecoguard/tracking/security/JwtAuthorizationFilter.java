@@ -35,7 +35,8 @@ public class JwtAuthorizationFilter extends BasicAuthenticationFilter {
         
         String token = header.replace("Bearer ", "");
         
-        if (jwtTokenProvider.validateToken(token)) {
+        // Refresh tokens carry no user id or roles and must not be accepted as access tokens
+        if (jwtTokenProvider.validateToken(token) && !jwtTokenProvider.isRefreshToken(token)) {
             Authentication authentication = jwtTokenProvider.getAuthentication(token);
             SecurityContextHolder.getContext().setAuthentication(authentication);
             log.debug("User authenticated: {}", authentication.getName());
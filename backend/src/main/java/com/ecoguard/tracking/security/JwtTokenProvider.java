@@ -8,20 +8,24 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
 import java.security.Key;
-import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 import java.util.stream.Collectors;
 
 @Component
 @Slf4j
 public class JwtTokenProvider {
 
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_ROLES = "roles";
+    static final String CLAIM_TYPE = "type";
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
@@ -39,10 +43,11 @@ public class JwtTokenProvider {
     }
 
     public String generateToken(Authentication authentication) {
-        User principal = (User) authentication.getPrincipal();
+        UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
         
         Claims claims = Jwts.claims().setSubject(principal.getUsername());
-        claims.put("auth", principal.getAuthorities().stream()
+        claims.put(CLAIM_USER_ID, principal.getId());
+        claims.put(CLAIM_ROLES, principal.getAuthorities().stream()
                 .map(GrantedAuthority::getAuthority)
                 .collect(Collectors.toList()));
 
@@ -59,7 +64,7 @@ public class JwtTokenProvider {
 
     public String generateRefreshToken(String username) {
         Claims claims = Jwts.claims().setSubject(username);
-        claims.put("type", "refresh");
+        claims.put(CLAIM_TYPE, "refresh");
 
         Date now = new Date();
         Date validity = new Date(now.getTime() + refreshExpiration);
@@ -72,6 +77,9 @@ public class JwtTokenProvider {
                 .compact();
     }
 
+    /**
+     * Rebuild the authenticated principal from the token claims alone, without touching the database.
+     */
     public Authentication getAuthentication(String token) {
         Claims claims = Jwts.parserBuilder()
                 .setSigningKey(key)
@@ -79,16 +87,29 @@ public class JwtTokenProvider {
                 .parseClaimsJws(token)
                 .getBody();
 
-        Collection<? extends GrantedAuthority> authorities =
-                Arrays.stream(claims.get("auth").toString().split(","))
-                        .map(SimpleGrantedAuthority::new)
-                        .collect(Collectors.toList());
+        Collection<? extends GrantedAuthority> authorities = getRoles(claims).stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toList());
 
-        User principal = new User(claims.getSubject(), "", authorities);
+        UserPrincipal principal = UserPrincipal.builder()
+                .id(claims.get(CLAIM_USER_ID, Long.class))
+                .email(claims.getSubject())
+                .password("")
+                .authorities(authorities)
+                .build();
 
         return new UsernamePasswordAuthenticationToken(principal, token, authorities);
     }
 
+    @SuppressWarnings("unchecked")
+    private List<String> getRoles(Claims claims) {
+        Object roles = claims.get(CLAIM_ROLES);
+        if (roles instanceof List) {
+            return (List<String>) roles;
+        }
+        return Collections.emptyList();
+    }
+
     public String getUsernameFromToken(String token) {
         return Jwts.parserBuilder()
                 .setSigningKey(key)
@@ -115,7 +136,7 @@ public class JwtTokenProvider {
                     .build()
                     .parseClaimsJws(token)
                     .getBody();
-            return "refresh".equals(claims.get("type"));
+            return "refresh".equals(claims.get(CLAIM_TYPE));
         } catch (JwtException | IllegalArgumentException e) {
             return false;
         }
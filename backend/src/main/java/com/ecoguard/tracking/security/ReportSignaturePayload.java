@@ -0,0 +1,52 @@
+package com.ecoguard.tracking.security;
+
+import com.ecoguard.tracking.dto.AnonymousReportDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Bytes signed by the reporting phone: the UTF-8 encoding of
+ * <pre>
+ * devicePartitionUuid \n observationTime \n latitudeE7 \n longitudeE7 \n accuracyCm \n confidence \n reporterHash
+ * </pre>
+ * where the observation time is formatted as {@code yyyy-MM-dd'T'HH:mm:ss} and coordinates and
+ * accuracy are rounded as in the compact CBOR format, so that both encodings of a report sign
+ * the same bytes.
+ */
+public final class ReportSignaturePayload {
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss");
+    private static final char SEPARATOR = '\n';
+
+    private ReportSignaturePayload() {
+    }
+
+    public static byte[] of(AnonymousReportDTO report) {
+        return (report.getDevicePartitionUuid() + SEPARATOR
+                + TIME_FORMAT.format(report.getObservationTime()) + SEPARATOR
+                + Math.round(report.getLatitude() * 1e7) + SEPARATOR
+                + Math.round(report.getLongitude() * 1e7) + SEPARATOR
+                + Math.round(report.getAccuracy() * 100) + SEPARATOR
+                + report.getConfidence() + SEPARATOR
+                + report.getReporterHash()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reporter hash matching a public key: lowercase hex SHA-256 of its X.509 encoding.
+     */
+    public static String reporterHash(byte[] encodedPublicKey) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(encodedPublicKey);
+            StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.ecoguard.tracking.security;
+
+import com.ecoguard.tracking.dto.AnonymousReportDTO;
+import com.ecoguard.tracking.exception.InvalidReportSignatureException;
+import com.ecoguard.tracking.service.IngestMetrics;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Verifies the signature of anonymous reports before they reach the database.
+ * <p>
+ * Each report carries the X.509 public key of the reporting phone, whose SHA-256 must be the
+ * reporter hash, and a signature of {@link ReportSignaturePayload}. ECDSA P-256 keys
+ * ({@code SHA256withECDSA}) are always supported, Ed25519 keys when the JDK provides them (15+).
+ * Decoded keys are cached by their encoded form, as a phone sends many reports with the same key.
+ * <p>
+ * Batches are split over a dedicated pool sized to the CPU count; when its queue is full the
+ * caller verifies its share itself.
+ */
+@Component
+@Slf4j
+public class ReportSignatureVerifier implements DisposableBean {
+
+    private static final int MIN_REPORTS_PER_TASK = 8;
+    private static final int QUEUE_CAPACITY = 1024;
+    private static final String EC = "EC";
+    private static final String ED25519 = "Ed25519";
+
+    private static final ThreadLocal<Signature> EC_SIGNATURE = ThreadLocal.withInitial(() -> signature("SHA256withECDSA"));
+    private static final ThreadLocal<Signature> ED25519_SIGNATURE = ThreadLocal.withInitial(() -> signature(ED25519));
+
+    private final boolean required;
+    private final IngestMetrics ingestMetrics;
+    private final Cache<String, ReporterKey> keyCache;
+    private final ThreadPoolExecutor executor;
+    private final int threads;
+
+    public ReportSignatureVerifier(@Value("${ecoguard.anonymous-report.signature.required:false}") boolean required,
+                                   @Value("${ecoguard.anonymous-report.signature.threads:0}") int threads,
+                                   @Value("${ecoguard.anonymous-report.signature.key-cache-size:100000}") long keyCacheSize,
+                                   IngestMetrics ingestMetrics) {
+        this.required = required;
+        this.ingestMetrics = ingestMetrics;
+        this.keyCache = Caffeine.newBuilder().maximumSize(keyCacheSize).build();
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(this.threads, this.threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+                    Thread thread = new Thread(runnable, "signature-verify-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    /**
+     * @throws InvalidReportSignatureException when the report is not validly signed
+     */
+    public void verify(AnonymousReportDTO report) {
+        if (!verifyAndRecord(report)) {
+            throw new InvalidReportSignatureException("Invalid report signature");
+        }
+    }
+
+    /**
+     * Verify a batch in parallel.
+     *
+     * @return whether each report is validly signed, in the order of the batch
+     */
+    public boolean[] verifyAll(List<AnonymousReportDTO> reports) {
+        boolean[] valid = new boolean[reports.size()];
+        int tasks = Math.min(threads, Math.max(1, reports.size() / MIN_REPORTS_PER_TASK));
+        if (tasks == 1) {
+            verifyRange(reports, valid, 0, reports.size());
+        } else {
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[tasks];
+            for (int task = 0; task < tasks; task++) {
+                int from = reports.size() * task / tasks;
+                int to = reports.size() * (task + 1) / tasks;
+                futures[task] = CompletableFuture.runAsync(() -> verifyRange(reports, valid, from, to), executor);
+            }
+            CompletableFuture.allOf(futures).join();
+        }
+        return valid;
+    }
+
+    private void verifyRange(List<AnonymousReportDTO> reports, boolean[] valid, int from, int to) {
+        for (int i = from; i < to; i++) {
+            valid[i] = verifyAndRecord(reports.get(i));
+        }
+    }
+
+    private boolean verifyAndRecord(AnonymousReportDTO report) {
+        boolean valid = ingestMetrics.time(IngestMetrics.Stage.SIGNATURE_VALIDATION, () -> isValid(report));
+        if (!valid) {
+            log.warn("Invalid signature for anonymous report with partition UUID: {}", report.getDevicePartitionUuid());
+            ingestMetrics.outcome(IngestMetrics.Outcome.INVALID_SIGNATURE);
+        }
+        return valid;
+    }
+
+    public boolean isValid(AnonymousReportDTO report) {
+        if (report.getSignature() == null && report.getReporterPublicKey() == null) {
+            return !required;
+        }
+        if (report.getSignature() == null || report.getReporterPublicKey() == null) {
+            return false;
+        }
+
+        ReporterKey key = keyCache.getIfPresent(report.getReporterPublicKey());
+        if (key == null) {
+            key = decode(report.getReporterPublicKey());
+            if (key == null) {
+                return false;
+            }
+            keyCache.put(report.getReporterPublicKey(), key);
+        }
+        if (!key.reporterHash.equals(report.getReporterHash())) {
+            return false;
+        }
+
+        try {
+            Signature signature = EC.equals(key.publicKey.getAlgorithm()) ? EC_SIGNATURE.get() : ED25519_SIGNATURE.get();
+            signature.initVerify(key.publicKey);
+            signature.update(ReportSignaturePayload.of(report));
+            return signature.verify(Base64.getDecoder().decode(report.getSignature()));
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            log.debug("Could not verify report signature: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    // Invalid keys are not cached, so that garbage cannot evict the keys of real phones
+    private static ReporterKey decode(String encodedKey) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getDecoder().decode(encodedKey);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        for (String algorithm : new String[]{EC, ED25519}) {
+            try {
+                PublicKey publicKey = KeyFactory.getInstance(algorithm).generatePublic(new X509EncodedKeySpec(bytes));
+                return new ReporterKey(publicKey, ReportSignaturePayload.reporterHash(bytes));
+            } catch (GeneralSecurityException e) {
+                // Not a key of this algorithm, or algorithm not supported by this JDK
+            }
+        }
+        return null;
+    }
+
+    private static Signature signature(String algorithm) {
+        try {
+            return Signature.getInstance(algorithm);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(algorithm + " signatures are not supported by this JDK", e);
+        }
+    }
+
+    private static final class ReporterKey {
+
+        private final PublicKey publicKey;
+        private final String reporterHash;
+
+        private ReporterKey(PublicKey publicKey, String reporterHash) {
+            this.publicKey = publicKey;
+            this.reporterHash = reporterHash;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.ecoguard.tracking.security;
+
+import com.ecoguard.tracking.dto.UserDTO;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+
+/**
+ * Authenticated principal carrying the user id alongside the usual {@link UserDetails} data.
+ * It is built from the database at login and from the JWT claims on every other request,
+ * so controllers can resolve the current user id through {@code @AuthenticationPrincipal}
+ * without querying the users table.
+ * <p>
+ * When loaded from the database the principal also carries the user's {@link UserDTO} profile,
+ * so the login and refresh flows can build their response from the same load.
+ */
+@Getter
+@Builder(toBuilder = true)
+@AllArgsConstructor
+@ToString(exclude = {"password", "profile"})
+public class UserPrincipal implements UserDetails {
+
+    private final Long id;
+
+    private final String email;
+
+    private final String password;
+
+    private final Collection<? extends GrantedAuthority> authorities;
+
+    private final UserDTO profile;
+
+    @Builder.Default
+    private final boolean enabled = true;
+
+    @Builder.Default
+    private final boolean accountNonExpired = true;
+
+    @Builder.Default
+    private final boolean accountNonLocked = true;
+
+    @Builder.Default
+    private final boolean credentialsNonExpired = true;
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+}
@@ -0,0 +1,53 @@
+package com.ecoguard.tracking.service;
+
+import com.ecoguard.tracking.dto.AnonymousReportDTO;
+import com.ecoguard.tracking.exception.OutboundCallException;
+import com.ecoguard.tracking.exception.OutboundCallRejectedException;
+import com.ecoguard.tracking.exception.ServiceOverloadedException;
+import com.ecoguard.tracking.outbound.OutboundCallExecutor;
+import com.ecoguard.tracking.security.ReportSignatureVerifier;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Processes anonymous reports without holding a request thread.
+ * <p>
+ * Reports are handed to the {@value #DEPENDENCY} bulkhead of {@link OutboundCallExecutor}, which
+ * runs them on virtual threads when available and at most as many at a time as configured
+ * (normally the size of the connection pool). A burst of reports waits in its bounded queue
+ * instead of occupying Tomcat threads, and is shed with a 503 once the queue is full.
+ */
+@Service
+@RequiredArgsConstructor
+public class AsyncReportIngestService {
+
+    public static final String DEPENDENCY = "ingest";
+
+    private final ObservationService observationService;
+    private final OutboundCallExecutor outboundCallExecutor;
+    private final ReportSignatureVerifier reportSignatureVerifier;
+
+    public CompletableFuture<Void> processAnonymousReport(AnonymousReportDTO reportDTO) {
+        return outboundCallExecutor.submit(DEPENDENCY, () -> {
+            reportSignatureVerifier.verify(reportDTO);
+            observationService.processAnonymousReport(reportDTO);
+            return (Void) null;
+        }).handle((result, error) -> {
+            if (error == null) {
+                return null;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause instanceof OutboundCallRejectedException) {
+                throw new ServiceOverloadedException("Too many anonymous reports in progress, please retry later");
+            }
+            // Surface the original failure so that it is handled like on the synchronous endpoint
+            if (cause instanceof OutboundCallException && cause.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) cause.getCause();
+            }
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new CompletionException(cause);
+        });
+    }
+}
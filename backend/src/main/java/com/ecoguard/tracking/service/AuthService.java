@@ -5,16 +5,18 @@ import com.ecoguard.tracking.dto.AuthResponseDTO;
 import com.ecoguard.tracking.dto.RegisterRequestDTO;
 import com.ecoguard.tracking.dto.UserDTO;
 import com.ecoguard.tracking.security.JwtTokenProvider;
+import com.ecoguard.tracking.security.UserPrincipal;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -24,8 +26,13 @@ public class AuthService {
     private final JwtTokenProvider jwtTokenProvider;
     private final UserService userService;
     private final UserDetailsServiceImpl userDetailsService;
+    private final LastLoginBuffer lastLoginBuffer;
 
-    @Transactional
+    /**
+     * Authenticate the user and issue tokens.
+     * Not transactional: the user is loaded once by {@link UserDetailsServiceImpl} in its own short
+     * read-only transaction, and no connection is held while the password hash is verified.
+     */
     public AuthResponseDTO login(AuthRequestDTO authRequest) {
         Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
@@ -39,11 +46,12 @@ public class AuthService {
         String accessToken = jwtTokenProvider.generateToken(authentication);
         String refreshToken = jwtTokenProvider.generateRefreshToken(authRequest.getEmail());
         
-        // Update last login time
-        userService.updateLastLogin(authRequest.getEmail());
-        
-        // Get user details
-        UserDTO userDTO = userService.getUserByEmail(authRequest.getEmail());
+        // Reuse the profile loaded during authentication and record the login write-behind
+        UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
+        UserDTO userDTO = principal.getProfile();
+        LocalDateTime loginTime = LocalDateTime.now();
+        userDTO.setLastLogin(loginTime);
+        lastLoginBuffer.record(principal.getId(), loginTime);
         
         return AuthResponseDTO.builder()
                 .accessToken(accessToken)
@@ -55,22 +63,21 @@ public class AuthService {
                 .build();
     }
 
-    @Transactional
     public AuthResponseDTO refreshToken(String refreshToken) {
         if (!jwtTokenProvider.validateToken(refreshToken) || !jwtTokenProvider.isRefreshToken(refreshToken)) {
             throw new IllegalArgumentException("Invalid refresh token");
         }
         
         String username = jwtTokenProvider.getUsernameFromToken(refreshToken);
-        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        UserPrincipal principal = (UserPrincipal) userDetailsService.loadUserByUsername(username);
         
         UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                userDetails, null, userDetails.getAuthorities());
+                principal, null, principal.getAuthorities());
         
         String newAccessToken = jwtTokenProvider.generateToken(authentication);
         String newRefreshToken = jwtTokenProvider.generateRefreshToken(username);
         
-        UserDTO userDTO = userService.getUserByEmail(username);
+        UserDTO userDTO = principal.getProfile();
         
         return AuthResponseDTO.builder()
                 .accessToken(newAccessToken)
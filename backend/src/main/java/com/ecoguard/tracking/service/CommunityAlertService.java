@@ -0,0 +1,237 @@
+package com.ecoguard.tracking.service;
+
+import com.ecoguard.tracking.config.CommunityAlertProperties;
+import com.ecoguard.tracking.entity.AlertSubscription;
+import com.ecoguard.tracking.entity.Device;
+import com.ecoguard.tracking.entity.TheftReport;
+import com.ecoguard.tracking.repository.AlertSubscriptionRepository;
+import com.ecoguard.tracking.repository.TheftReportRepository;
+import com.ecoguard.tracking.util.Geohash;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Community alerts sent to the phones near a stolen device, so that only they scan for it.
+ * <p>
+ * Phones send the geohash cell of their position, and are subscribed to the FCM topic of that
+ * cell only, moved to another topic when they change cell and unsubscribed when they stop
+ * sending it. An alert is published to the topics of the cells around the theft location and
+ * around the last known position of the device, and again to the cells around later
+ * observations when the device moves out of the alerted area. The alerted cells of each theft
+ * report are recorded in {@code theft_report_alerted_cells}, and messages are published once
+ * the transaction that recorded them commits.
+ */
+@Service
+@Slf4j
+public class CommunityAlertService {
+
+    // Longest cell phones send, see AlertSubscriptionDTO
+    private static final int MAX_PRECISION = 6;
+    // FCM accepts at most 1000 tokens per subscription call
+    private static final int FCM_BATCH_SIZE = 1000;
+    private static final long TOUCH_INTERVAL_HOURS = 24;
+
+    private static final String TITLE = "Alerte appareil volé";
+    private static final String BODY = "Un appareil a été signalé volé dans votre région. Votre application EcoGuard va vérifier si elle l'a détecté récemment.";
+
+    private final AlertSubscriptionRepository subscriptionRepository;
+    private final TheftReportRepository theftReportRepository;
+    private final FCMService fcmService;
+    private final CommunityAlertProperties properties;
+    private final int precision;
+
+    private final Counter topicMessages;
+
+    public CommunityAlertService(AlertSubscriptionRepository subscriptionRepository,
+                                 TheftReportRepository theftReportRepository,
+                                 FCMService fcmService,
+                                 CommunityAlertProperties properties,
+                                 MeterRegistry meterRegistry) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.theftReportRepository = theftReportRepository;
+        this.fcmService = fcmService;
+        this.properties = properties;
+        this.precision = Math.max(1, Math.min(MAX_PRECISION, properties.getPrecision()));
+        this.topicMessages = Counter.builder("ecoguard.community-alert.topic-messages")
+                .description("Community alert messages published, one per cell topic")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Subscribe the phone to the topic of its cell, moving it from its previous cell if needed.
+     * Concurrent calls for the same phone are serialized on its row: the first one creates it,
+     * the others see the cell it recorded.
+     */
+    @Transactional
+    public void updateSubscription(String token, String geohash) {
+        String cell = geohash.substring(0, precision);
+        AlertSubscription subscription = null;
+        while (subscription == null) {
+            if (subscriptionRepository.insertIfAbsent(token, cell, LocalDateTime.now()) == 1) {
+                afterCommit(() -> fcmService.subscribeToTopic(List.of(token), topic(cell)));
+                return;
+            }
+            // Empty when the subscription was removed since the insert, in which case it is created again
+            subscription = subscriptionRepository.findWithLockByToken(token).orElse(null);
+        }
+
+        String previousCell = subscription.getCell();
+        if (previousCell.equals(cell)) {
+            // Refreshed at most daily, so that phones resending their cell do not write every time
+            if (subscription.getUpdatedAt() == null
+                    || subscription.getUpdatedAt().isBefore(LocalDateTime.now().minusHours(TOUCH_INTERVAL_HOURS))) {
+                subscription.setUpdatedAt(LocalDateTime.now());
+                subscriptionRepository.save(subscription);
+            }
+            return;
+        }
+
+        subscription.setCell(cell);
+        subscriptionRepository.save(subscription);
+        afterCommit(() -> {
+            fcmService.unsubscribeFromTopic(List.of(token), topic(previousCell));
+            fcmService.subscribeToTopic(List.of(token), topic(cell));
+        });
+        log.debug("Alert subscription moved from cell {} to {}", previousCell, cell);
+    }
+
+    @Transactional
+    public void removeSubscription(String token) {
+        subscriptionRepository.findById(token).ifPresent(subscription -> {
+            subscriptionRepository.delete(subscription);
+            afterCommit(() -> fcmService.unsubscribeFromTopic(List.of(token), topic(subscription.getCell())));
+        });
+    }
+
+    /**
+     * Alert the phones around the theft location and the last known position of the device,
+     * or every phone when neither is known. Must run in the transaction that saves the report.
+     */
+    public void sendAlert(Device device, TheftReport theftReport) {
+        Set<String> cells = new LinkedHashSet<>();
+        if (theftReport.getTheftLatitude() != null && theftReport.getTheftLongitude() != null) {
+            cells.addAll(cellsAround(theftReport.getTheftLatitude(), theftReport.getTheftLongitude()));
+        }
+        if (device.getLastLatitude() != null && device.getLastLongitude() != null) {
+            cells.addAll(cellsAround(device.getLastLatitude(), device.getLastLongitude()));
+        }
+
+        if (cells.isEmpty()) {
+            Map<String, String> data = data(device);
+            afterCommit(() -> {
+                fcmService.sendTopicMessage(properties.getGlobalTopic(), TITLE, BODY, data);
+                topicMessages.increment();
+                log.info("No location known for stolen device {}, community alert sent to every phone", device.getName());
+            });
+            return;
+        }
+
+        cells.forEach(cell -> theftReportRepository.recordAlertedCell(theftReport.getId(), cell));
+        publishOnCommit(device, cells);
+        log.info("Community alert for stolen device {} to cells {}", device.getName(), cells);
+    }
+
+    /**
+     * Alert the cells around an observation of a stolen device that were not alerted yet for
+     * its theft report. Must run in the transaction that saves the observation.
+     */
+    public void alertIfMoved(Device device, TheftReport theftReport, double latitude, double longitude) {
+        if (!properties.isRealertOnMove()) {
+            return;
+        }
+        // Observations mostly fall in an alerted cell, checked with a single read
+        if (theftReportRepository.isCellAlerted(theftReport.getId(), Geohash.encode(latitude, longitude, precision))) {
+            return;
+        }
+        List<String> cells = cellsAround(latitude, longitude).stream()
+                .filter(cell -> theftReportRepository.recordAlertedCell(theftReport.getId(), cell) > 0)
+                .collect(Collectors.toList());
+        if (!cells.isEmpty()) {
+            publishOnCommit(device, cells);
+            log.info("Stolen device {} observed in a new area, community alert to cells {}", device.getName(), cells);
+        }
+    }
+
+    /**
+     * Unsubscribe the phones that have not sent their cell within the subscription TTL.
+     * Runs daily at 4:15 AM by default.
+     */
+    @Scheduled(cron = "${ecoguard.community-alert.cleanup-cron:0 15 4 * * *}")
+    public void cleanupStaleSubscriptions() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.getSubscriptionTtl());
+        long removed = 0;
+        List<AlertSubscription> stale;
+        while (!(stale = subscriptionRepository.findByUpdatedAtBefore(cutoff, PageRequest.of(0, FCM_BATCH_SIZE))).isEmpty()) {
+            stale.stream()
+                    .collect(Collectors.groupingBy(AlertSubscription::getCell,
+                            Collectors.mapping(AlertSubscription::getToken, Collectors.toList())))
+                    .forEach((cell, tokens) -> fcmService.unsubscribeFromTopic(tokens, topic(cell)));
+            subscriptionRepository.deleteAllInBatch(stale);
+            removed += stale.size();
+        }
+        log.info("Removed {} alert subscriptions not refreshed since {}", removed, cutoff);
+    }
+
+    /**
+     * The cell of the position and, at cell boundaries, the surrounding ones that may hold
+     * phones closer than the far side of the cell.
+     */
+    List<String> cellsAround(double latitude, double longitude) {
+        String cell = Geohash.encode(latitude, longitude, precision);
+        List<String> cells = new ArrayList<>(9);
+        cells.add(cell);
+        for (String neighbour : Geohash.neighbours(cell)) {
+            if (neighbour != null && !cells.contains(neighbour)) {
+                cells.add(neighbour);
+            }
+        }
+        return cells;
+    }
+
+    String topic(String cell) {
+        return properties.getTopicPrefix() + cell;
+    }
+
+    private void publishOnCommit(Device device, Iterable<String> cells) {
+        Map<String, String> data = data(device);
+        afterCommit(() -> {
+            for (String cell : cells) {
+                fcmService.sendTopicMessage(topic(cell), TITLE, BODY, data);
+                topicMessages.increment();
+            }
+        });
+    }
+
+    private static Map<String, String> data(Device device) {
+        // Include device partition UUID in the data payload
+        return Map.of("devicePartitionUuid", device.getPartitionUuid());
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,152 @@
+package com.ecoguard.tracking.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind buffer for device last-seen information.
+ * Concurrent reports for the same device are merged in memory, keeping only the newest
+ * observation, and a scheduled flush writes one row update per device in a single JDBC batch.
+ * The update is guarded on {@code last_seen}, so an older observation never overwrites a newer one.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DeviceLastSeenBuffer {
+
+    private static final String UPDATE_LAST_SEEN_SQL =
+            "UPDATE devices SET last_seen = ?, last_latitude = ?, last_longitude = ?, last_accuracy = ? " +
+            "WHERE id = ? AND (last_seen IS NULL OR last_seen < ?)";
+
+    // Device ids per owner lookup when evicting the device lists
+    private static final int EVICTION_CHUNK_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheManager cacheManager;
+
+    private final Map<Long, LastSeen> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Record a device sighting; only the most recent one per device is kept until the next flush.
+     */
+    public void record(Long deviceId, LocalDateTime observationTime, Double latitude, Double longitude, Double accuracy) {
+        pending.merge(deviceId, new LastSeen(observationTime, latitude, longitude, accuracy), LastSeen::newest);
+    }
+
+    /**
+     * Same as {@link #record}, once the current transaction commits, so that a rolled-back
+     * report does not move the last-seen position.
+     */
+    public void recordOnCommit(Long deviceId, LocalDateTime observationTime, Double latitude, Double longitude,
+                               Double accuracy) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            record(deviceId, observationTime, latitude, longitude, accuracy);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                record(deviceId, observationTime, latitude, longitude, accuracy);
+            }
+        });
+    }
+
+    /**
+     * Flush pending last-seen updates to the database.
+     * Runs every second by default.
+     */
+    @Scheduled(fixedDelayString = "${ecoguard.device.last-seen-flush-interval-ms:1000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        
+        List<Long> deviceIds = new ArrayList<>();
+        List<LastSeen> updates = new ArrayList<>();
+        for (Long deviceId : new ArrayList<>(pending.keySet())) {
+            LastSeen lastSeen = pending.remove(deviceId);
+            if (lastSeen != null) {
+                deviceIds.add(deviceId);
+                updates.add(lastSeen);
+            }
+        }
+        
+        List<Object[]> batch = new ArrayList<>(updates.size());
+        for (int i = 0; i < updates.size(); i++) {
+            LastSeen lastSeen = updates.get(i);
+            Timestamp timestamp = Timestamp.valueOf(lastSeen.getObservationTime());
+            batch.add(new Object[]{timestamp, lastSeen.getLatitude(), lastSeen.getLongitude(),
+                    lastSeen.getAccuracy(), deviceIds.get(i), timestamp});
+        }
+        
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_LAST_SEEN_SQL, batch);
+            log.debug("Flushed last seen information for {} devices", batch.size());
+        } catch (RuntimeException e) {
+            log.error("Error flushing device last seen information, re-queuing {} entries", batch.size(), e);
+            for (int i = 0; i < updates.size(); i++) {
+                pending.merge(deviceIds.get(i), updates.get(i), LastSeen::newest);
+            }
+            return;
+        }
+        
+        evictCachedDevices(deviceIds);
+    }
+
+    /**
+     * Drop the cached DTOs of the flushed devices, and the device lists of their owners.
+     */
+    private void evictCachedDevices(List<Long> deviceIds) {
+        Cache device = cacheManager.getCache("device");
+        Cache devices = cacheManager.getCache("devices");
+        try {
+            if (device != null) {
+                deviceIds.forEach(device::evict);
+            }
+            if (devices != null) {
+                for (int from = 0; from < deviceIds.size(); from += EVICTION_CHUNK_SIZE) {
+                    List<Long> chunk = deviceIds.subList(from, Math.min(deviceIds.size(), from + EVICTION_CHUNK_SIZE));
+                    String placeholders = chunk.stream().map(id -> "?").collect(Collectors.joining(","));
+                    jdbcTemplate.queryForList("SELECT DISTINCT user_id FROM devices WHERE id IN (" + placeholders + ")",
+                            Long.class, chunk.toArray()).forEach(devices::evict);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not evict cached devices after flushing last seen information: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    @Value
+    static class LastSeen {
+        LocalDateTime observationTime;
+        Double latitude;
+        Double longitude;
+        Double accuracy;
+
+        static LastSeen newest(LastSeen current, LastSeen candidate) {
+            return candidate.observationTime.isAfter(current.observationTime) ? candidate : current;
+        }
+    }
+}
@@ -19,8 +19,13 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,6 +33,9 @@ import java.util.stream.Collectors;
 @Slf4j
 public class DeviceService {
 
+    // Keeps IN lists well below the PostgreSQL bind parameter limit
+    private static final int ENRICHMENT_CHUNK_SIZE = 10000;
+
     private final DeviceRepository deviceRepository;
     private final UserRepository userRepository;
     private final TheftReportRepository theftReportRepository;
@@ -40,13 +48,7 @@ public class DeviceService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
         
-        return deviceRepository.findByUser(user).stream()
-                .map(device -> {
-                    DeviceDTO dto = deviceMapper.toDTO(device);
-                    enrichDeviceDTO(dto, device);
-                    return dto;
-                })
-                .collect(Collectors.toList());
+        return toEnrichedDTOs(deviceRepository.findByUser(user));
     }
 
     @Transactional(readOnly = true)
@@ -149,21 +151,41 @@ public class DeviceService {
 
     @Transactional(readOnly = true)
     public List<DeviceDTO> getAllStolenDevices() {
-        return deviceRepository.findAllStolenDevices().stream()
-                .map(device -> {
-                    DeviceDTO dto = deviceMapper.toDTO(device);
-                    enrichDeviceDTO(dto, device);
-                    return dto;
-                })
-                .collect(Collectors.toList());
+        return toEnrichedDTOs(deviceRepository.findAllStolenDevices());
     }
 
     @Transactional(readOnly = true)
     public List<DeviceDTO> getAllActivelyStolenDevices() {
-        return deviceRepository.findAllActivelyStolenDevices().stream()
+        return toEnrichedDTOs(deviceRepository.findAllActivelyStolenDevices());
+    }
+
+    /**
+     * Map and enrich a list of devices with two grouped queries per chunk of ids,
+     * instead of two queries per device.
+     */
+    private List<DeviceDTO> toEnrichedDTOs(List<Device> devices) {
+        if (devices.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        List<Long> deviceIds = devices.stream()
+                .map(Device::getId)
+                .collect(Collectors.toList());
+        
+        Set<Long> withActiveReport = new HashSet<>();
+        Map<Long, Long> observationCounts = new HashMap<>();
+        for (int from = 0; from < deviceIds.size(); from += ENRICHMENT_CHUNK_SIZE) {
+            List<Long> chunk = deviceIds.subList(from, Math.min(from + ENRICHMENT_CHUNK_SIZE, deviceIds.size()));
+            withActiveReport.addAll(theftReportRepository.findDeviceIdsWithActiveReport(chunk));
+            observationRepository.countWithGhostsByDeviceIds(chunk).forEach(count ->
+                    observationCounts.put(count.getDeviceId(), count.getObservationCount()));
+        }
+        
+        return devices.stream()
                 .map(device -> {
                     DeviceDTO dto = deviceMapper.toDTO(device);
-                    enrichDeviceDTO(dto, device);
+                    dto.setHasActiveTheftReport(withActiveReport.contains(device.getId()));
+                    dto.setObservationCount(observationCounts.getOrDefault(device.getId(), 0L).intValue());
                     return dto;
                 })
                 .collect(Collectors.toList());
@@ -175,7 +197,7 @@ public class DeviceService {
         dto.setHasActiveTheftReport(activeReport.isPresent());
         
         // Get observation count
-        int observationCount = observationRepository.countByDeviceId(device.getId());
-        dto.setObservationCount(observationCount);
+        long observationCount = observationRepository.countWithGhostsByDeviceId(device.getId());
+        dto.setObservationCount((int) observationCount);
     }
 }
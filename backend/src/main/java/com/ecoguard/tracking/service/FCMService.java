@@ -1,5 +1,6 @@
 package com.ecoguard.tracking.service;
 
+import com.ecoguard.tracking.outbound.OutboundCallExecutor;
 import com.google.firebase.messaging.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -7,13 +8,20 @@ import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutionException;
 
+/**
+ * Firebase Cloud Messaging client. Messages are sent through {@link OutboundCallExecutor}:
+ * callers do not wait for Firebase, and failures are only logged.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class FCMService {
 
+    public static final String DEPENDENCY = "fcm";
+
+    private final OutboundCallExecutor outboundCallExecutor;
+
     /**
      * Send FCM message to a specific device
      */
@@ -27,13 +35,14 @@ public class FCMService {
                 .setToken(token)
                 .build();
 
-        try {
-            String response = FirebaseMessaging.getInstance().sendAsync(message).get();
-            log.info("Successfully sent message: {}", response);
-        } catch (InterruptedException | ExecutionException e) {
-            log.error("Failed to send FCM message", e);
-            Thread.currentThread().interrupt();
-        }
+        outboundCallExecutor.submit(DEPENDENCY, () -> FirebaseMessaging.getInstance().sendAsync(message).get())
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        log.error("Failed to send FCM message", error);
+                    } else {
+                        log.info("Successfully sent message: {}", response);
+                    }
+                });
     }
 
     /**
@@ -49,23 +58,24 @@ public class FCMService {
                 .addAllTokens(tokens)
                 .build();
 
-        try {
-            BatchResponse response = FirebaseMessaging.getInstance().sendMulticastAsync(message).get();
-            log.info("Successfully sent message to {} devices", response.getSuccessCount());
-            
-            if (response.getFailureCount() > 0) {
-                List<SendResponse> responses = response.getResponses();
-                for (int i = 0; i < responses.size(); i++) {
-                    if (!responses.get(i).isSuccessful()) {
-                        log.error("Failed to send message to token {}: {}", 
-                                tokens.get(i), responses.get(i).getException().getMessage());
+        outboundCallExecutor.submit(DEPENDENCY, () -> FirebaseMessaging.getInstance().sendMulticastAsync(message).get())
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        log.error("Failed to send FCM multicast message", error);
+                        return;
                     }
-                }
-            }
-        } catch (InterruptedException | ExecutionException e) {
-            log.error("Failed to send FCM multicast message", e);
-            Thread.currentThread().interrupt();
-        }
+                    log.info("Successfully sent message to {} devices", response.getSuccessCount());
+
+                    if (response.getFailureCount() > 0) {
+                        List<SendResponse> responses = response.getResponses();
+                        for (int i = 0; i < responses.size(); i++) {
+                            if (!responses.get(i).isSuccessful()) {
+                                log.error("Failed to send message to token {}: {}",
+                                        tokens.get(i), responses.get(i).getException().getMessage());
+                            }
+                        }
+                    }
+                });
     }
 
     /**
@@ -81,54 +91,55 @@ public class FCMService {
                 .setTopic(topic)
                 .build();
 
-        try {
-            String response = FirebaseMessaging.getInstance().sendAsync(message).get();
-            log.info("Successfully sent message to topic {}: {}", topic, response);
-        } catch (InterruptedException | ExecutionException e) {
-            log.error("Failed to send FCM topic message", e);
-            Thread.currentThread().interrupt();
-        }
+        outboundCallExecutor.submit(DEPENDENCY, () -> FirebaseMessaging.getInstance().sendAsync(message).get())
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        log.error("Failed to send FCM topic message", error);
+                    } else {
+                        log.info("Successfully sent message to topic {}: {}", topic, response);
+                    }
+                });
     }
 
     /**
      * Subscribe tokens to a topic
      */
     public void subscribeToTopic(List<String> tokens, String topic) {
-        try {
-            TopicManagementResponse response = FirebaseMessaging.getInstance()
-                    .subscribeToTopicAsync(tokens, topic).get();
-            
-            log.info("Successfully subscribed {} tokens to topic {}", 
-                    tokens.size() - response.getFailureCount(), topic);
-            
-            if (response.getFailureCount() > 0) {
-                log.error("Failed to subscribe {} tokens to topic {}", 
-                        response.getFailureCount(), topic);
-            }
-        } catch (InterruptedException | ExecutionException e) {
-            log.error("Failed to subscribe to topic", e);
-            Thread.currentThread().interrupt();
-        }
+        outboundCallExecutor.submit(DEPENDENCY,
+                        () -> FirebaseMessaging.getInstance().subscribeToTopicAsync(tokens, topic).get())
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        log.error("Failed to subscribe to topic", error);
+                        return;
+                    }
+                    log.info("Successfully subscribed {} tokens to topic {}",
+                            tokens.size() - response.getFailureCount(), topic);
+
+                    if (response.getFailureCount() > 0) {
+                        log.error("Failed to subscribe {} tokens to topic {}",
+                                response.getFailureCount(), topic);
+                    }
+                });
     }
 
     /**
      * Unsubscribe tokens from a topic
      */
     public void unsubscribeFromTopic(List<String> tokens, String topic) {
-        try {
-            TopicManagementResponse response = FirebaseMessaging.getInstance()
-                    .unsubscribeFromTopicAsync(tokens, topic).get();
-            
-            log.info("Successfully unsubscribed {} tokens from topic {}", 
-                    tokens.size() - response.getFailureCount(), topic);
-            
-            if (response.getFailureCount() > 0) {
-                log.error("Failed to unsubscribe {} tokens from topic {}", 
-                        response.getFailureCount(), topic);
-            }
-        } catch (InterruptedException | ExecutionException e) {
-            log.error("Failed to unsubscribe from topic", e);
-            Thread.currentThread().interrupt();
-        }
+        outboundCallExecutor.submit(DEPENDENCY,
+                        () -> FirebaseMessaging.getInstance().unsubscribeFromTopicAsync(tokens, topic).get())
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        log.error("Failed to unsubscribe from topic", error);
+                        return;
+                    }
+                    log.info("Successfully unsubscribed {} tokens from topic {}",
+                            tokens.size() - response.getFailureCount(), topic);
+
+                    if (response.getFailureCount() > 0) {
+                        log.error("Failed to unsubscribe {} tokens from topic {}",
+                                response.getFailureCount(), topic);
+                    }
+                });
     }
 }
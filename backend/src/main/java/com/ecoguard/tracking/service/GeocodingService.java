@@ -0,0 +1,43 @@
+package com.ecoguard.tracking.service;
+
+import com.ecoguard.tracking.exception.OutboundCallException;
+import com.ecoguard.tracking.geocoding.ReverseGeocoder;
+import com.ecoguard.tracking.outbound.OutboundCallExecutor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Reverse geocoding of observation coordinates into a human readable address.
+ * Lookups against a remote geocoder go through {@link OutboundCallExecutor}, so a slow
+ * geocoder delays callers by at most the configured timeout; local lookups run inline.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GeocodingService {
+
+    public static final String DEPENDENCY = "geocoding";
+
+    private static final String UNKNOWN_LOCATION = "Localisation inconnue";
+
+    private final OutboundCallExecutor outboundCallExecutor;
+    private final ReverseGeocoder reverseGeocoder;
+
+    /**
+     * Get the address closest to the given coordinates, or a placeholder when it cannot be resolved.
+     */
+    public String getAddress(double latitude, double longitude) {
+        if (!reverseGeocoder.isRemote()) {
+            String address = reverseGeocoder.getAddress(latitude, longitude);
+            return address != null ? address : UNKNOWN_LOCATION;
+        }
+        try {
+            String address = outboundCallExecutor.call(DEPENDENCY, () -> reverseGeocoder.getAddress(latitude, longitude));
+            return address != null ? address : UNKNOWN_LOCATION;
+        } catch (OutboundCallException e) {
+            log.warn("Reverse geocoding unavailable: {}", e.getMessage());
+            return UNKNOWN_LOCATION;
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.ecoguard.tracking.service;
+
+import com.ecoguard.tracking.dto.GeofenceDTO;
+import com.ecoguard.tracking.entity.Device;
+import com.ecoguard.tracking.entity.Geofence;
+import com.ecoguard.tracking.entity.Notification;
+import com.ecoguard.tracking.entity.Observation;
+import com.ecoguard.tracking.entity.User;
+import com.ecoguard.tracking.exception.InvalidGeofenceException;
+import com.ecoguard.tracking.exception.ResourceNotFoundException;
+import com.ecoguard.tracking.exception.UnauthorizedAccessException;
+import com.ecoguard.tracking.geofence.GeofenceIndex;
+import com.ecoguard.tracking.geofence.IndexedGeofence;
+import com.ecoguard.tracking.mapper.GeofenceMapper;
+import com.ecoguard.tracking.repository.DeviceRepository;
+import com.ecoguard.tracking.repository.GeofenceRepository;
+import com.ecoguard.tracking.repository.UserRepository;
+import com.ecoguard.tracking.util.GeoUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.locationtech.jts.geom.Polygon;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Geofences of the users, and the alerts sent when a stolen device enters or leaves one.
+ * <p>
+ * Each observation is matched against the {@link GeofenceIndex}; the fences the device was
+ * inside are read from {@code geofence_presences}, and each crossing is recorded there with a
+ * conditional upsert before its owner is notified, so that a crossing seen by several
+ * observations at once is notified only once.
+ */
+@Service
+@Slf4j
+public class GeofenceService {
+
+    private final GeofenceRepository geofenceRepository;
+    private final UserRepository userRepository;
+    private final DeviceRepository deviceRepository;
+    private final NotificationService notificationService;
+    private final GeofenceIndex geofenceIndex;
+    private final GeofenceMapper geofenceMapper;
+    private final double maxAccuracyMeters;
+    private final double maxRadiusMeters;
+    private final int maxVertices;
+    private final int circleVertices;
+
+    public GeofenceService(GeofenceRepository geofenceRepository,
+                           UserRepository userRepository,
+                           DeviceRepository deviceRepository,
+                           NotificationService notificationService,
+                           GeofenceIndex geofenceIndex,
+                           GeofenceMapper geofenceMapper,
+                           @Value("${ecoguard.geofence.max-accuracy-meters:200}") double maxAccuracyMeters,
+                           @Value("${ecoguard.geofence.max-radius-meters:50000}") double maxRadiusMeters,
+                           @Value("${ecoguard.geofence.max-vertices:500}") int maxVertices,
+                           @Value("${ecoguard.geofence.circle-vertices:64}") int circleVertices) {
+        this.geofenceRepository = geofenceRepository;
+        this.userRepository = userRepository;
+        this.deviceRepository = deviceRepository;
+        this.notificationService = notificationService;
+        this.geofenceIndex = geofenceIndex;
+        this.geofenceMapper = geofenceMapper;
+        this.maxAccuracyMeters = maxAccuracyMeters;
+        this.maxRadiusMeters = maxRadiusMeters;
+        this.maxVertices = maxVertices;
+        this.circleVertices = circleVertices;
+    }
+
+    @Transactional(readOnly = true)
+    public List<GeofenceDTO> getUserGeofences(Long userId) {
+        return geofenceRepository.findByUserIdOrderByCreatedAtDesc(userId).stream()
+                .map(geofenceMapper::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public GeofenceDTO getGeofenceById(Long id, Long userId) {
+        return geofenceMapper.toDTO(findOwnedGeofence(id, userId));
+    }
+
+    @Transactional
+    public GeofenceDTO createGeofence(GeofenceDTO geofenceDTO, Long userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
+
+        Geofence geofence = Geofence.builder()
+                .user(user)
+                .build();
+        apply(geofence, geofenceDTO, userId);
+
+        Geofence savedGeofence = geofenceRepository.save(geofence);
+        geofenceIndex.putOnCommit(savedGeofence);
+        log.info("Geofence created: {} for user: {}", savedGeofence.getName(), user.getEmail());
+
+        return geofenceMapper.toDTO(savedGeofence);
+    }
+
+    @Transactional
+    public GeofenceDTO updateGeofence(Long id, GeofenceDTO geofenceDTO, Long userId) {
+        Geofence geofence = findOwnedGeofence(id, userId);
+        apply(geofence, geofenceDTO, userId);
+
+        // Flushed so that the indexed copy carries the new modification time
+        Geofence updatedGeofence = geofenceRepository.saveAndFlush(geofence);
+        geofenceIndex.putOnCommit(updatedGeofence);
+        log.info("Geofence updated: {}", id);
+
+        return geofenceMapper.toDTO(updatedGeofence);
+    }
+
+    @Transactional
+    public void deleteGeofence(Long id, Long userId) {
+        Geofence geofence = findOwnedGeofence(id, userId);
+        geofenceRepository.delete(geofence);
+        geofenceIndex.removeOnCommit(id);
+        log.info("Geofence deleted: {}", id);
+    }
+
+    /**
+     * Notify the owner of the device of the fences it entered or left at this observation.
+     * Must run in the transaction that saves the observation.
+     */
+    public void evaluate(Device device, Observation observation) {
+        Long userId = device.getUser().getId();
+        if (!geofenceIndex.watches(device.getId(), userId)) {
+            return;
+        }
+        // A coarse position could flip the device in and out of a fence
+        if (observation.getAccuracy() > maxAccuracyMeters) {
+            return;
+        }
+
+        List<IndexedGeofence> containing = geofenceIndex.containing(
+                device.getId(), userId, observation.getLatitude(), observation.getLongitude());
+        Set<Long> wasInside = new HashSet<>();
+        for (Number geofenceId : geofenceRepository.findGeofenceIdsContainingDevice(device.getId())) {
+            wasInside.add(geofenceId.longValue());
+        }
+
+        for (IndexedGeofence fence : containing) {
+            if (!wasInside.remove(fence.getId()) && recordCrossing(fence, device, observation, true)
+                    && fence.isAlertOnEnter()) {
+                notifyCrossing(fence, device, true);
+            }
+        }
+        // Fences left, unless they were deactivated or deleted meanwhile
+        for (Long geofenceId : wasInside) {
+            IndexedGeofence fence = geofenceIndex.get(geofenceId);
+            if (fence != null && recordCrossing(fence, device, observation, false) && fence.isAlertOnExit()) {
+                notifyCrossing(fence, device, false);
+            }
+        }
+    }
+
+    private boolean recordCrossing(IndexedGeofence fence, Device device, Observation observation, boolean inside) {
+        return geofenceRepository.recordCrossing(
+                fence.getId(), device.getId(), inside, observation.getObservationTime()) > 0;
+    }
+
+    private void notifyCrossing(IndexedGeofence fence, Device device, boolean entered) {
+        log.info("Device {} {} geofence {}", device.getId(), entered ? "entered" : "left", fence.getId());
+        notificationService.createNotification(
+                device.getUser(),
+                device,
+                entered ? Notification.NotificationType.GEOFENCE_ENTERED : Notification.NotificationType.GEOFENCE_EXITED,
+                entered ? "Appareil entré dans une zone" : "Appareil sorti d'une zone",
+                "Votre appareil " + device.getName() + (entered ? " est entré dans" : " a quitté")
+                        + " la zone « " + fence.getName() + " »."
+        );
+    }
+
+    private Geofence findOwnedGeofence(Long id, Long userId) {
+        Geofence geofence = geofenceRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Geofence not found with id: " + id));
+
+        // Check if the user owns this geofence
+        if (!geofence.getUser().getId().equals(userId)) {
+            throw new UnauthorizedAccessException("User is not authorized to access this geofence");
+        }
+
+        return geofence;
+    }
+
+    private void apply(Geofence geofence, GeofenceDTO geofenceDTO, Long userId) {
+        Device device = null;
+        if (geofenceDTO.getDeviceId() != null) {
+            device = deviceRepository.findById(geofenceDTO.getDeviceId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Device not found with id: " + geofenceDTO.getDeviceId()));
+            if (!device.getUser().getId().equals(userId)) {
+                throw new UnauthorizedAccessException("User is not authorized to add a geofence to this device");
+            }
+        }
+
+        geofence.setDevice(device);
+        geofence.setName(geofenceDTO.getName());
+        geofence.setType(geofenceDTO.getType());
+        geofence.setAlertOnEnter(geofenceDTO.isAlertOnEnter());
+        geofence.setAlertOnExit(geofenceDTO.isAlertOnExit());
+        geofence.setActive(geofenceDTO.isActive());
+
+        if (geofenceDTO.getRadiusMeters() != null) {
+            if (geofenceDTO.getCenterLatitude() == null || geofenceDTO.getCenterLongitude() == null) {
+                throw new InvalidGeofenceException("A circular geofence needs a center");
+            }
+            if (geofenceDTO.getRadiusMeters() > maxRadiusMeters) {
+                throw new InvalidGeofenceException("Geofence radius must be at most " + maxRadiusMeters + " meters");
+            }
+            geofence.setArea(circle(geofenceDTO.getCenterLatitude(), geofenceDTO.getCenterLongitude(),
+                    geofenceDTO.getRadiusMeters()));
+            geofence.setCenterLatitude(geofenceDTO.getCenterLatitude());
+            geofence.setCenterLongitude(geofenceDTO.getCenterLongitude());
+            geofence.setRadiusMeters(geofenceDTO.getRadiusMeters());
+        } else {
+            geofence.setArea(polygon(geofenceDTO.getVertices()));
+            geofence.setCenterLatitude(null);
+            geofence.setCenterLongitude(null);
+            geofence.setRadiusMeters(null);
+        }
+    }
+
+    private Polygon circle(double latitude, double longitude, double radiusMeters) {
+        Polygon circle;
+        try {
+            circle = GeoUtils.createCircle(latitude, longitude, radiusMeters, circleVertices);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidGeofenceException("Invalid circular geofence: " + e.getMessage());
+        }
+        // Around a pole the ring folds onto itself
+        if (!circle.isValid()) {
+            throw new InvalidGeofenceException("Circular geofence is too close to a pole");
+        }
+        return circle;
+    }
+
+    private Polygon polygon(List<double[]> vertices) {
+        if (vertices == null || vertices.size() < 3) {
+            throw new InvalidGeofenceException("A geofence needs a radius or at least 3 vertices");
+        }
+        if (vertices.size() > maxVertices) {
+            throw new InvalidGeofenceException("A geofence has at most " + maxVertices + " vertices");
+        }
+        double[] latitudes = new double[vertices.size()];
+        double[] longitudes = new double[vertices.size()];
+        for (int i = 0; i < vertices.size(); i++) {
+            double[] vertex = vertices.get(i);
+            if (vertex == null || vertex.length != 2 || Math.abs(vertex[0]) > 90 || Math.abs(vertex[1]) > 180) {
+                throw new InvalidGeofenceException("Vertices must be [latitude, longitude] pairs");
+            }
+            latitudes[i] = vertex[0];
+            longitudes[i] = vertex[1];
+        }
+        Polygon polygon;
+        try {
+            polygon = GeoUtils.createPolygon(latitudes, longitudes);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidGeofenceException("Invalid geofence polygon: " + e.getMessage());
+        }
+        if (!polygon.isValid()) {
+            throw new InvalidGeofenceException("Geofence polygon must not intersect itself");
+        }
+        return polygon;
+    }
+}
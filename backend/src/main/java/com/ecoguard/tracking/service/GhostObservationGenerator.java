@@ -0,0 +1,158 @@
+package com.ecoguard.tracking.service;
+
+import com.ecoguard.tracking.entity.Observation;
+import com.ecoguard.tracking.util.GeoUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generates the ghost observations shown next to every real observation, so that the real
+ * reporter position cannot be singled out from the history of a device.
+ * <p>
+ * Ghosts are not stored. Each real observation gets a random seed when it is saved, and its
+ * ghosts are derived from that seed whenever observations are read, so every read sees the
+ * same ghosts. The number of ghosts and the sum of their confidences are stored with the
+ * observation so that counts and averages can still be computed in SQL; listings generate
+ * exactly the stored number, so changing {@code ghost-min}/{@code ghost-max} only applies to
+ * new observations.
+ */
+@Component
+public class GhostObservationGenerator {
+
+    /**
+     * Ghost observation times are within this distance of the real observation time.
+     */
+    public static final Duration MAX_TIME_SHIFT = Duration.ofMinutes(30);
+
+    /**
+     * Number of ids reserved per real observation in listings, see {@link #viewId}. Fixed, so
+     * that listed ids do not change with the configuration; bounds {@code ghost-max}.
+     */
+    public static final int IDS_PER_OBSERVATION = 8;
+
+    private final int ghostMin;
+    private final int ghostMax;
+    private final SecureRandom seedRandom = new SecureRandom();
+
+    public GhostObservationGenerator(@Value("${ecoguard.anonymous-report.ghost-min:3}") int ghostMin,
+                                     @Value("${ecoguard.anonymous-report.ghost-max:7}") int ghostMax) {
+        if (ghostMin < 0 || ghostMax < ghostMin || ghostMax >= IDS_PER_OBSERVATION) {
+            throw new IllegalArgumentException("Ghost bounds must satisfy 0 <= ghost-min <= ghost-max < "
+                    + IDS_PER_OBSERVATION + ", got " + ghostMin + " and " + ghostMax);
+        }
+        this.ghostMin = ghostMin;
+        this.ghostMax = ghostMax;
+    }
+
+    /**
+     * Give a new real observation its ghost seed and the aggregates of its ghosts.
+     */
+    public void assignGhosts(Observation realObservation) {
+        realObservation.setGhostSeed(seedRandom.nextLong());
+        realObservation.setGhostCount(seedRandom.nextInt(ghostMax - ghostMin + 1) + ghostMin);
+        List<Observation> ghosts = generate(realObservation);
+        int confidenceSum = 0;
+        for (Observation ghost : ghosts) {
+            confidenceSum += ghost.getConfidence();
+        }
+        realObservation.setGhostCount(ghosts.size());
+        realObservation.setGhostConfidenceSum(confidenceSum);
+    }
+
+    /**
+     * The stored number of ghosts of a real observation, always the same for the same seed.
+     * Observations saved before ghosts were generated at read time have no seed, and no ghosts.
+     */
+    public List<Observation> generate(Observation realObservation) {
+        if (realObservation.getGhostSeed() == null) {
+            return new ArrayList<>(0);
+        }
+        SplittableRandom random = random(realObservation);
+        int ghostCount = ghostCount(realObservation);
+        int[] slots = shuffledSlots(random, ghostCount + 1);
+        List<Observation> ghosts = new ArrayList<>(ghostCount);
+
+        for (int i = 0; i < ghostCount; i++) {
+            // Create a ghost observation with slightly modified coordinates
+            double latOffset = (random.nextDouble() - 0.5) * 0.01; // ~1km radius
+            double lonOffset = (random.nextDouble() - 0.5) * 0.01;
+
+            ghosts.add(Observation.builder()
+                    .id(realObservation.getId() != null ? viewId(realObservation.getId(), slots[i + 1]) : null)
+                    .device(realObservation.getDevice())
+                    .observationTime(realObservation.getObservationTime()
+                            .plusMinutes(random.nextInt(60) - 30)) // +/- 30 minutes
+                    .latitude(realObservation.getLatitude() + latOffset)
+                    .longitude(realObservation.getLongitude() + lonOffset)
+                    .location(GeoUtils.createPoint(
+                            realObservation.getLongitude() + lonOffset,
+                            realObservation.getLatitude() + latOffset))
+                    .accuracy(realObservation.getAccuracy() * (1 + (random.nextDouble() - 0.5) * 0.5))
+                    .confidence(Math.max(10, realObservation.getConfidence() - random.nextInt(30)))
+                    .reporterHash(reporterHash(random))
+                    .ghost(true)
+                    .createdAt(realObservation.getCreatedAt())
+                    .build());
+        }
+        return ghosts;
+    }
+
+    /**
+     * Id under which a real observation is listed. Its ghosts take the other ids of the same
+     * block in a seed-dependent order, so the real one cannot be told apart by its id.
+     */
+    public long realViewId(Observation realObservation) {
+        if (realObservation.getGhostSeed() == null) {
+            return viewId(realObservation.getId(), 0);
+        }
+        return viewId(realObservation.getId(), shuffledSlots(random(realObservation), ghostCount(realObservation) + 1)[0]);
+    }
+
+    private static SplittableRandom random(Observation realObservation) {
+        SplittableRandom random = new SplittableRandom(realObservation.getGhostSeed());
+        // Skips the draw that used to pick the ghost count, so that existing ghosts keep their positions
+        random.nextInt();
+        return random;
+    }
+
+    private static int ghostCount(Observation realObservation) {
+        Integer ghostCount = realObservation.getGhostCount();
+        return ghostCount != null ? Math.min(ghostCount, IDS_PER_OBSERVATION - 1) : 0;
+    }
+
+    private static long viewId(long observationId, int slot) {
+        return observationId * IDS_PER_OBSERVATION + slot;
+    }
+
+    private int[] shuffledSlots(SplittableRandom random, int count) {
+        int[] slots = new int[count];
+        for (int i = 0; i < count; i++) {
+            slots[i] = i;
+        }
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = slots[i];
+            slots[i] = slots[j];
+            slots[j] = tmp;
+        }
+        return slots;
+    }
+
+    private static String reporterHash(SplittableRandom random) {
+        StringBuilder sb = new StringBuilder(64);
+        for (int i = 0; i < 4; i++) {
+            String part = Long.toHexString(random.nextLong());
+            for (int pad = part.length(); pad < 16; pad++) {
+                sb.append('0');
+            }
+            sb.append(part);
+        }
+        return sb.toString();
+    }
+}
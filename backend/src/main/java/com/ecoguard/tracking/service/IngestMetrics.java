@@ -0,0 +1,106 @@
+package com.ecoguard.tracking.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer instrumentation of the anonymous report ingest pipeline.
+ * <ul>
+ *     <li>{@code ecoguard.ingest.stage}: time spent in each stage, tagged by {@code stage};</li>
+ *     <li>{@code ecoguard.ingest.reports}: processed reports, tagged by {@code outcome};</li>
+ *     <li>{@code ecoguard.ingest.lag}: delay between the observation time reported by the phone
+ *     and the commit of the observation, with a percentile histogram.</li>
+ * </ul>
+ */
+@Component
+public class IngestMetrics {
+
+    public enum Stage {
+        SIGNATURE_VALIDATION,
+        DEVICE_LOOKUP,
+        THEFT_REPORT_LOOKUP,
+        OBSERVATION_INSERT,
+        DEVICE_UPDATE,
+        GHOST_GENERATION,
+        GEOCODING,
+        NOTIFICATION,
+        GEOFENCE
+    }
+
+    public enum Outcome {
+        ACCEPTED,
+        UNKNOWN_DEVICE,
+        NOT_STOLEN,
+        INVALID_SIGNATURE
+    }
+
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    private final Map<Outcome, Counter> outcomeCounters = new EnumMap<>(Outcome.class);
+    private final Timer lagTimer;
+
+    public IngestMetrics(MeterRegistry meterRegistry) {
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, Timer.builder("ecoguard.ingest.stage")
+                    .description("Time spent in each stage of anonymous report ingest")
+                    .tag("stage", stage.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        for (Outcome outcome : Outcome.values()) {
+            outcomeCounters.put(outcome, Counter.builder("ecoguard.ingest.reports")
+                    .description("Anonymous reports processed, by outcome")
+                    .tag("outcome", outcome.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        this.lagTimer = Timer.builder("ecoguard.ingest.lag")
+                .description("Delay between the reported observation time and the commit of the observation")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(10))
+                .maximumExpectedValue(Duration.ofHours(1))
+                .register(meterRegistry);
+    }
+
+    public <T> T time(Stage stage, Supplier<T> supplier) {
+        return stageTimers.get(stage).record(supplier);
+    }
+
+    public void time(Stage stage, Runnable runnable) {
+        stageTimers.get(stage).record(runnable);
+    }
+
+    public void outcome(Outcome outcome) {
+        outcomeCounters.get(outcome).increment();
+    }
+
+    /**
+     * Record the ingest lag once the current transaction commits, or right away outside a transaction.
+     */
+    public void recordLagOnCommit(LocalDateTime observationTime) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recordLag(observationTime);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recordLag(observationTime);
+            }
+        });
+    }
+
+    private void recordLag(LocalDateTime observationTime) {
+        Duration lag = Duration.between(observationTime, LocalDateTime.now());
+        if (!lag.isNegative()) {
+            lagTimer.record(lag);
+        }
+    }
+}
@@ -83,6 +83,10 @@ public class NotificationService {
         } else if (type == Notification.NotificationType.DEVICE_STOLEN) {
             notification.setActionUrl("/tracking/" + device.getId());
             notification.setActionText("Voir le tracking");
+        } else if (type == Notification.NotificationType.GEOFENCE_ENTERED
+                || type == Notification.NotificationType.GEOFENCE_EXITED) {
+            notification.setActionUrl("/tracking/" + device.getId());
+            notification.setActionText("Voir le tracking");
         }
         
         Notification savedNotification = notificationRepository.save(notification);
@@ -1,5 +1,6 @@
 package com.ecoguard.tracking.service;
 
+import com.ecoguard.tracking.cache.CachedPage;
 import com.ecoguard.tracking.dto.AnonymousReportDTO;
 import com.ecoguard.tracking.dto.ObservationDTO;
 import com.ecoguard.tracking.dto.ObservationStatsDTO;
@@ -26,12 +27,9 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
-import java.util.Random;
 
 @Service
 @RequiredArgsConstructor
@@ -43,61 +41,72 @@ public class ObservationService {
     private final TheftReportRepository theftReportRepository;
     private final NotificationService notificationService;
     private final ObservationMapper observationMapper;
-    
-    @Value("${ecoguard.anonymous-report.ghost-min:3}")
-    private int ghostMin;
-    
-    @Value("${ecoguard.anonymous-report.ghost-max:7}")
-    private int ghostMax;
+    private final DeviceLastSeenBuffer deviceLastSeenBuffer;
+    private final IngestMetrics ingestMetrics;
+    private final GhostObservationGenerator ghostObservationGenerator;
+    private final GeocodingService geocodingService;
+    private final ObservationTimeline observationTimeline;
+    private final RecentObservationStore recentObservationStore;
+    private final GeofenceService geofenceService;
+    private final CommunityAlertService communityAlertService;
     
     @Value("${ecoguard.anonymous-report.confidence-threshold:60}")
     private int confidenceThreshold;
     
     @Value("${ecoguard.observation.max-age-days:30}")
     private int maxAgeDays;
+    
+    @Value("${ecoguard.archive.enabled:false}")
+    private boolean archiveEnabled;
 
     @Transactional(readOnly = true)
-    @Cacheable(value = "observations", key = "#deviceId + '-' + #pageable.pageNumber + '-' + #pageable.pageSize")
+    @Cacheable(value = "observations", sync = true, key = "#deviceId + '-' + #pageable.pageNumber + '-' + #pageable.pageSize")
     public Page<ObservationDTO> getDeviceObservations(Long deviceId, Pageable pageable) {
-        return observationRepository.findByDeviceIdOrderByObservationTimeDesc(deviceId, pageable)
-                .map(observationMapper::toDTO);
+        return new CachedPage<>(observationTimeline.page(deviceId, null, null, pageable).map(this::toDTO));
     }
 
     @Transactional(readOnly = true)
-    @Cacheable(value = "observations", key = "#deviceId + '-' + #startTime + '-' + #endTime + '-' + #pageable.pageNumber + '-' + #pageable.pageSize")
+    @Cacheable(value = "observations", sync = true, key = "#deviceId + '-' + #startTime + '-' + #endTime + '-' + #pageable.pageNumber + '-' + #pageable.pageSize")
     public Page<ObservationDTO> getDeviceObservationsByTimeRange(Long deviceId, LocalDateTime startTime, 
                                                                LocalDateTime endTime, Pageable pageable) {
-        return observationRepository.findByDeviceIdAndTimeRangeOrderByObservationTimeDesc(
-                deviceId, startTime, endTime, pageable)
-                .map(observationMapper::toDTO);
+        return new CachedPage<>(observationTimeline.page(deviceId, startTime, endTime, pageable).map(this::toDTO));
     }
 
     @Transactional(readOnly = true)
-    @Cacheable(value = "observation-stats", key = "#deviceId")
+    @Cacheable(value = "observation-stats", key = "#deviceId", sync = true)
     public ObservationStatsDTO getObservationStats(Long deviceId) {
         Device device = deviceRepository.findById(deviceId)
                 .orElseThrow(() -> new ResourceNotFoundException("Device not found with id: " + deviceId));
         
-        int totalObservations = observationRepository.countByDeviceId(deviceId);
-        int last24HoursObservations = observationRepository.countByDeviceIdSince(deviceId, LocalDateTime.now().minusHours(24));
-        int last7DaysObservations = observationRepository.countByDeviceIdSince(deviceId, LocalDateTime.now().minusDays(7));
-        LocalDateTime firstObservation = observationRepository.getFirstObservationTimeByDeviceId(deviceId);
-        LocalDateTime lastObservation = observationRepository.getLastObservationTimeByDeviceId(deviceId);
-        Double averageConfidence = observationRepository.getAverageConfidenceByDeviceId(deviceId);
-        int uniqueReporters = observationRepository.countUniqueReportersByDeviceId(deviceId);
+        ObservationRepository.ObservationTotals totals = observationRepository.getTotalsByDeviceId(deviceId);
+        long totalObservations = totals.getObservationCount();
         
-        Optional<Observation> latestObservation = observationRepository.findLatestByDeviceId(deviceId);
+        LocalDateTime firstObservation = null;
+        LocalDateTime lastObservation = null;
+        Double averageConfidence = null;
+        Optional<Observation> latestObservation = Optional.empty();
+        long last24HoursObservations = 0;
+        long last7DaysObservations = 0;
+        if (totalObservations > 0) {
+            firstObservation = observationTimeline.firstTime(deviceId, totals.getFirstObservationTime());
+            latestObservation = observationTimeline.latest(deviceId, totals.getLastObservationTime())
+                    .map(ObservationTimeline.Entry::getObservation);
+            lastObservation = latestObservation.map(Observation::getObservationTime).orElse(null);
+            averageConfidence = totals.getConfidenceSum() / (double) totalObservations;
+            last24HoursObservations = observationTimeline.countSince(deviceId, LocalDateTime.now().minusHours(24));
+            last7DaysObservations = observationTimeline.countSince(deviceId, LocalDateTime.now().minusDays(7));
+        }
         
         return ObservationStatsDTO.builder()
                 .deviceId(deviceId)
                 .deviceName(device.getName())
-                .totalObservations(totalObservations)
-                .last24HoursObservations(last24HoursObservations)
-                .last7DaysObservations(last7DaysObservations)
+                .totalObservations((int) totalObservations)
+                .last24HoursObservations((int) last24HoursObservations)
+                .last7DaysObservations((int) last7DaysObservations)
                 .firstObservation(firstObservation)
                 .lastObservation(lastObservation)
                 .averageConfidence(averageConfidence)
-                .uniqueReporters(uniqueReporters)
+                .uniqueReporters((int) totals.getUniqueReporters())
                 .lastLatitude(latestObservation.map(Observation::getLatitude).orElse(null))
                 .lastLongitude(latestObservation.map(Observation::getLongitude).orElse(null))
                 .lastAccuracy(latestObservation.map(Observation::getAccuracy).orElse(null))
@@ -105,30 +114,31 @@ public class ObservationService {
                 .build();
     }
 
+    /**
+     * Record a report whose signature was already checked by
+     * {@link com.ecoguard.tracking.security.ReportSignatureVerifier}.
+     */
     @Transactional
     @CacheEvict(value = {"observations", "observation-stats"}, allEntries = true)
     public void processAnonymousReport(AnonymousReportDTO reportDTO) {
-        // Validate the report signature
-        if (!validateReportSignature(reportDTO)) {
-            log.warn("Invalid signature for anonymous report with partition UUID: {}", reportDTO.getDevicePartitionUuid());
-            return;
-        }
-        
         // Find the device by partition UUID
-        Device device = deviceRepository.findByPartitionUuid(reportDTO.getDevicePartitionUuid())
-                .orElse(null);
+        Device device = ingestMetrics.time(IngestMetrics.Stage.DEVICE_LOOKUP,
+                () -> deviceRepository.findByPartitionUuid(reportDTO.getDevicePartitionUuid()).orElse(null));
         
         if (device == null) {
             log.warn("Device not found with partition UUID: {}", reportDTO.getDevicePartitionUuid());
+            ingestMetrics.outcome(IngestMetrics.Outcome.UNKNOWN_DEVICE);
             return;
         }
         
         // Check if the device is marked as stolen and has an active theft report
         boolean isStolen = device.getStatus() == Device.DeviceStatus.STOLEN;
-        Optional<TheftReport> activeTheftReport = theftReportRepository.findActiveReportByDeviceId(device.getId());
+        Optional<TheftReport> activeTheftReport = ingestMetrics.time(IngestMetrics.Stage.THEFT_REPORT_LOOKUP,
+                () -> theftReportRepository.findActiveReportByDeviceId(device.getId()));
         
         if (!isStolen || activeTheftReport.isEmpty()) {
             log.debug("Device is not marked as stolen or has no active theft report: {}", device.getName());
+            ingestMetrics.outcome(IngestMetrics.Outcome.NOT_STOLEN);
             return;
         }
         
@@ -149,99 +159,63 @@ public class ObservationService {
                 .additionalData(reportDTO.getAdditionalData())
                 .build();
         
-        Observation savedObservation = observationRepository.save(observation);
+        // Ghosts are generated from a seed when observations are read, only their seed and totals are stored
+        ingestMetrics.time(IngestMetrics.Stage.GHOST_GENERATION, () -> ghostObservationGenerator.assignGhosts(observation));
+        
+        ingestMetrics.time(IngestMetrics.Stage.OBSERVATION_INSERT, () -> observationRepository.save(observation));
+        recentObservationStore.recordOnCommit(observation);
         log.info("Observation saved for stolen device: {}", device.getName());
         
-        // Update device last seen information
-        device.setLastSeen(reportDTO.getObservationTime());
-        device.setLastLatitude(reportDTO.getLatitude());
-        device.setLastLongitude(reportDTO.getLongitude());
-        device.setLastAccuracy(reportDTO.getAccuracy());
-        deviceRepository.save(device);
+        // Update device last seen information once committed; coalesced per device and flushed in batches
+        ingestMetrics.time(IngestMetrics.Stage.DEVICE_UPDATE, () -> deviceLastSeenBuffer.recordOnCommit(device.getId(),
+                reportDTO.getObservationTime(), reportDTO.getLatitude(), reportDTO.getLongitude(), reportDTO.getAccuracy()));
         
-        // Create ghost observations to protect privacy
-        createGhostObservations(device, observation);
+        // Alert the owner when the device enters or leaves one of their geofences
+        ingestMetrics.time(IngestMetrics.Stage.GEOFENCE, () -> geofenceService.evaluate(device, observation));
         
         // Send notification to the device owner if confidence is high enough
         if (reportDTO.getConfidence() >= confidenceThreshold) {
-            notificationService.createNotification(
+            // Phones near a device that moved out of the alerted area are alerted too
+            communityAlertService.alertIfMoved(device, activeTheftReport.get(), reportDTO.getLatitude(), reportDTO.getLongitude());
+            String address = ingestMetrics.time(IngestMetrics.Stage.GEOCODING,
+                    () -> geocodingService.getAddress(reportDTO.getLatitude(), reportDTO.getLongitude()));
+            ingestMetrics.time(IngestMetrics.Stage.NOTIFICATION, () -> notificationService.createNotification(
                     device.getUser(),
                     device,
                     Notification.NotificationType.DEVICE_OBSERVED,
                     "Appareil volé détecté",
                     "Votre appareil " + device.getName() + " a été détecté à proximité de " + 
-                            GeoUtils.getAddressFromCoordinates(reportDTO.getLatitude(), reportDTO.getLongitude()) + 
-                            " avec une confiance de " + reportDTO.getConfidence() + "%."
-            );
+                            address + " avec une confiance de " + reportDTO.getConfidence() + "%."
+            ));
         }
-    }
-
-    private boolean validateReportSignature(AnonymousReportDTO reportDTO) {
-        // In a real implementation, this would validate the signature using a cryptographic approach
-        // For this prototype, we'll assume all reports are valid
-        return true;
-    }
-
-    private void createGhostObservations(Device device, Observation realObservation) {
-        Random random = new Random();
-        int ghostCount = random.nextInt(ghostMax - ghostMin + 1) + ghostMin;
         
-        for (int i = 0; i < ghostCount; i++) {
-            // Create a ghost observation with slightly modified coordinates
-            double latOffset = (random.nextDouble() - 0.5) * 0.01; // ~1km radius
-            double lonOffset = (random.nextDouble() - 0.5) * 0.01;
-            
-            LocalDateTime timeOffset = realObservation.getObservationTime()
-                    .plusMinutes(random.nextInt(60) - 30); // +/- 30 minutes
-            
-            Observation ghost = Observation.builder()
-                    .device(device)
-                    .observationTime(timeOffset)
-                    .latitude(realObservation.getLatitude() + latOffset)
-                    .longitude(realObservation.getLongitude() + lonOffset)
-                    .location(GeoUtils.createPoint(
-                            realObservation.getLongitude() + lonOffset, 
-                            realObservation.getLatitude() + latOffset))
-                    .accuracy(realObservation.getAccuracy() * (1 + (random.nextDouble() - 0.5) * 0.5))
-                    .confidence(Math.max(10, realObservation.getConfidence() - random.nextInt(30)))
-                    .reporterHash(generateRandomReporterHash())
-                    .ghost(true)
-                    .build();
-            
-            observationRepository.save(ghost);
-        }
-        
-        log.debug("Created {} ghost observations for device: {}", ghostCount, device.getName());
+        ingestMetrics.outcome(IngestMetrics.Outcome.ACCEPTED);
+        ingestMetrics.recordLagOnCommit(reportDTO.getObservationTime());
     }
 
-    private String generateRandomReporterHash() {
-        try {
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            byte[] digest = md.digest(String.valueOf(System.nanoTime()).getBytes());
-            StringBuilder sb = new StringBuilder();
-            for (byte b : digest) {
-                sb.append(String.format("%02x", b));
-            }
-            return sb.toString();
-        } catch (NoSuchAlgorithmException e) {
-            log.error("Error generating reporter hash", e);
-            return "unknown-" + System.nanoTime();
-        }
+    private ObservationDTO toDTO(ObservationTimeline.Entry entry) {
+        ObservationDTO dto = observationMapper.toDTO(entry.getObservation());
+        dto.setId(entry.getViewId());
+        return dto;
     }
 
     /**
      * Clean up old observations (older than configured max age)
-     * Runs daily at 2:00 AM
+     * Runs daily at 2:00 AM, unless the archiver moves them to the cold archive instead
      */
     @Scheduled(cron = "${ecoguard.observation.cleanup-cron:0 0 2 * * *}")
     @Transactional
     @CacheEvict(value = {"observations", "observation-stats"}, allEntries = true)
     public void cleanupOldObservations() {
+        if (archiveEnabled) {
+            return;
+        }
         LocalDateTime cutoffDate = LocalDateTime.now().minusDays(maxAgeDays);
         List<Observation> oldObservations = observationRepository.findObservationsOlderThan(cutoffDate);
         
         if (!oldObservations.isEmpty()) {
             observationRepository.deleteAll(oldObservations);
+            recentObservationStore.reloadOnCommit();
             log.info("Cleaned up {} observations older than {}", oldObservations.size(), cutoffDate);
         }
     }
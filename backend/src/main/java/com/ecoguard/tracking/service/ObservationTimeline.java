@@ -0,0 +1,282 @@
+package com.ecoguard.tracking.service;
+
+import com.ecoguard.tracking.entity.Observation;
+import com.ecoguard.tracking.exception.PageTooDeepException;
+import com.ecoguard.tracking.repository.ObservationRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+
+/**
+ * The observations of a device as shown to its owner: the stored rows merged with the ghosts
+ * generated from them, newest first.
+ * <p>
+ * A ghost is at most {@link GhostObservationGenerator#MAX_TIME_SHIFT} away from its real
+ * observation. Counts over a time range therefore sum the stored ghost counts of the rows well
+ * inside the range in SQL, and only generate the ghosts of the rows within that distance of
+ * its bounds. Listings read the rows in time order and emit an entry once no row still to be
+ * read can produce a later one.
+ * <p>
+ * Ghost ids and times are only known once generated, so a page is reached by reading every
+ * earlier row and generating its ghosts: the cost grows with the offset. Offsets are therefore
+ * limited to {@link #MAX_OFFSET} entries; older observations are listed by time range.
+ */
+@Component
+@RequiredArgsConstructor
+public class ObservationTimeline {
+
+    private static final Duration SHIFT = GhostObservationGenerator.MAX_TIME_SHIFT;
+    private static final int SLICE_SIZE = 256;
+
+    /**
+     * Deepest offset served, in entries; about 3 300 rows read with the default ghost bounds.
+     */
+    public static final int MAX_OFFSET = 20_000;
+
+    // Observation times are stored with microsecond precision
+    private static final Duration TIME_PRECISION = Duration.ofNanos(1000);
+
+    private static final Comparator<Entry> NEWEST_FIRST = Comparator
+            .comparing((Entry entry) -> entry.getObservation().getObservationTime())
+            .thenComparingLong(Entry::getViewId)
+            .reversed();
+
+    private final ObservationRepository observationRepository;
+    private final GhostObservationGenerator ghostGenerator;
+    private final RecentObservationStore recentObservationStore;
+
+    /**
+     * A real observation or a ghost, with the id under which it is listed.
+     */
+    public static final class Entry {
+
+        private final Observation observation;
+        private final long viewId;
+
+        private Entry(Observation observation, long viewId) {
+            this.observation = observation;
+            this.viewId = viewId;
+        }
+
+        public Observation getObservation() {
+            return observation;
+        }
+
+        public long getViewId() {
+            return viewId;
+        }
+    }
+
+    /**
+     * Entries with an observation time between {@code start} and {@code end} (inclusive), or all
+     * entries when both are null. Listings of all entries are served from the
+     * {@link RecentObservationStore} when the device is tracked there and the page is recent enough.
+     */
+    public Page<Entry> page(Long deviceId, LocalDateTime start, LocalDateTime end, Pageable pageable) {
+        if (pageable.getOffset() > MAX_OFFSET) {
+            throw new PageTooDeepException("Pages start at most " + MAX_OFFSET
+                    + " observations deep, use a time range to list older observations");
+        }
+        long total;
+        EntryIterator entries;
+        LocalDateTime endExclusive = end != null ? end.plus(TIME_PRECISION) : null;
+        if (start == null || end == null) {
+            Page<Entry> recent = recentPage(deviceId, pageable);
+            if (recent != null) {
+                return recent;
+            }
+            total = observationRepository.countWithGhostsByDeviceId(deviceId);
+            entries = new EntryIterator(page -> observationRepository.findSliceByDeviceId(deviceId, page));
+        } else {
+            total = count(deviceId, start, endExclusive);
+            entries = new EntryIterator(page -> observationRepository.findSliceByDeviceIdAndTimeRange(
+                    deviceId, start.minus(SHIFT), endExclusive.plus(SHIFT), page));
+        }
+        return new PageImpl<>(collect(entries, start, endExclusive, pageable), pageable, total);
+    }
+
+    /**
+     * The page read from the in-memory ring of the device, or {@code null} when it cannot be.
+     */
+    private Page<Entry> recentPage(Long deviceId, Pageable pageable) {
+        RecentObservationRing ring = recentObservationStore.ring(deviceId);
+        if (ring == null) {
+            return null;
+        }
+        RecentObservationRing.View view = ring.view();
+        List<Entry> content = collect(new EntryIterator(view::slice), null, null, pageable);
+        recentObservationStore.recordRead(view.isConsistent());
+        return view.isConsistent() ? new PageImpl<>(content, pageable, view.getTotalEntries()) : null;
+    }
+
+    private List<Entry> collect(EntryIterator entries, LocalDateTime start, LocalDateTime endExclusive,
+                                Pageable pageable) {
+        List<Entry> content = new ArrayList<>(pageable.getPageSize());
+        long toSkip = pageable.getOffset();
+        Entry entry;
+        while (content.size() < pageable.getPageSize() && (entry = entries.next()) != null) {
+            if (start != null && endExclusive != null && !isInRange(entry, start, endExclusive)) {
+                continue;
+            }
+            if (toSkip > 0) {
+                toSkip--;
+            } else {
+                content.add(entry);
+            }
+        }
+        return content;
+    }
+
+    /**
+     * Number of entries observed at or after {@code since}.
+     */
+    public long countSince(Long deviceId, LocalDateTime since) {
+        long count = observationRepository.countWithGhostsByDeviceIdSince(deviceId, since.plus(SHIFT));
+        for (Observation row : observationRepository.findByDeviceIdAndTimeRange(
+                deviceId, since.minus(SHIFT), since.plus(SHIFT))) {
+            count += countInRange(row, since, LocalDateTime.MAX);
+        }
+        return count;
+    }
+
+    /**
+     * Number of entries observed in {@code [from, to)}.
+     */
+    public long count(Long deviceId, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime innerFrom = from.plus(SHIFT);
+        LocalDateTime innerTo = to.minus(SHIFT);
+        if (!innerFrom.isBefore(innerTo)) {
+            return countRows(observationRepository.findByDeviceIdAndTimeRange(deviceId, from.minus(SHIFT), to.plus(SHIFT)),
+                    from, to);
+        }
+        return observationRepository.countWithGhostsByDeviceIdAndTimeRange(deviceId, innerFrom, innerTo)
+                + countRows(observationRepository.findByDeviceIdAndTimeRange(deviceId, from.minus(SHIFT), innerFrom), from, to)
+                + countRows(observationRepository.findByDeviceIdAndTimeRange(deviceId, innerTo, to.plus(SHIFT)), from, to);
+    }
+
+    /**
+     * Earliest entry time, given the earliest stored observation time.
+     */
+    public LocalDateTime firstTime(Long deviceId, LocalDateTime firstStoredTime) {
+        LocalDateTime first = firstStoredTime;
+        for (Observation row : observationRepository.findByDeviceIdAndTimeRange(
+                deviceId, firstStoredTime, firstStoredTime.plus(SHIFT.multipliedBy(2)))) {
+            for (Entry entry : entriesOf(row)) {
+                if (entry.getObservation().getObservationTime().isBefore(first)) {
+                    first = entry.getObservation().getObservationTime();
+                }
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Latest entry, given the latest stored observation time.
+     */
+    public Optional<Entry> latest(Long deviceId, LocalDateTime lastStoredTime) {
+        Entry latest = null;
+        for (Observation row : observationRepository.findByDeviceIdAndTimeRange(
+                deviceId, lastStoredTime.minus(SHIFT.multipliedBy(2)), lastStoredTime.plus(TIME_PRECISION))) {
+            for (Entry entry : entriesOf(row)) {
+                if (latest == null || NEWEST_FIRST.compare(entry, latest) < 0) {
+                    latest = entry;
+                }
+            }
+        }
+        return Optional.ofNullable(latest);
+    }
+
+    private long countRows(List<Observation> rows, LocalDateTime from, LocalDateTime to) {
+        long count = 0;
+        for (Observation row : rows) {
+            count += countInRange(row, from, to);
+        }
+        return count;
+    }
+
+    private long countInRange(Observation row, LocalDateTime from, LocalDateTime to) {
+        long count = 0;
+        for (Entry entry : entriesOf(row)) {
+            if (isInRange(entry, from, to)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static boolean isInRange(Entry entry, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime time = entry.getObservation().getObservationTime();
+        return !time.isBefore(from) && time.isBefore(to);
+    }
+
+    private List<Entry> entriesOf(Observation row) {
+        List<Observation> ghosts = ghostGenerator.generate(row);
+        List<Entry> entries = new ArrayList<>(ghosts.size() + 1);
+        entries.add(new Entry(row, ghostGenerator.realViewId(row)));
+        for (Observation ghost : ghosts) {
+            entries.add(new Entry(ghost, ghost.getId()));
+        }
+        return entries;
+    }
+
+    private interface SliceLoader {
+
+        Slice<Observation> load(Pageable page);
+    }
+
+    /**
+     * Merges rows read newest first with their ghosts. Rows come in newest first and a ghost
+     * is at most {@code SHIFT} later than its row, so a pending entry later than the next row
+     * plus {@code SHIFT} cannot be preceded by anything still unread.
+     */
+    private final class EntryIterator {
+
+        private final SliceLoader loader;
+        private final PriorityQueue<Entry> pending = new PriorityQueue<>(NEWEST_FIRST);
+        private final Deque<Observation> rows = new ArrayDeque<>();
+        private int nextSlice;
+        private boolean lastSlice;
+
+        private EntryIterator(SliceLoader loader) {
+            this.loader = loader;
+        }
+
+        Entry next() {
+            while (true) {
+                Observation nextRow = peekRow();
+                Entry head = pending.peek();
+                if (head != null && (nextRow == null
+                        || head.getObservation().getObservationTime().isAfter(nextRow.getObservationTime().plus(SHIFT)))) {
+                    return pending.poll();
+                }
+                if (nextRow == null) {
+                    return null;
+                }
+                pending.addAll(entriesOf(rows.poll()));
+            }
+        }
+
+        private Observation peekRow() {
+            if (rows.isEmpty() && !lastSlice) {
+                Slice<Observation> slice = loader.load(PageRequest.of(nextSlice++, SLICE_SIZE));
+                rows.addAll(slice.getContent());
+                lastSlice = !slice.hasNext();
+            }
+            return rows.peek();
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package com.ecoguard.tracking.service;
+
+import com.ecoguard.tracking.entity.Device;
+import com.ecoguard.tracking.entity.Observation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The most recent stored observations of one device, held in primitive arrays rather than as
+ * entities: times as epoch microseconds, coordinates as fixed-point integers (1e-7 degrees),
+ * accuracy as a float and 64-character hex reporter hashes as four longs. Only the strings
+ * that cannot be packed are kept as references.
+ * <p>
+ * Slots form a circular buffer kept sorted by time then id, oldest first. When the buffer is
+ * full, the oldest row is dropped and its entries (itself and its ghosts) are added to the
+ * count of entries held only in the database, so the total of the device is still known.
+ */
+final class RecentObservationRing {
+
+    private static final int NULL_INT = Integer.MIN_VALUE;
+    private static final double COORDINATE_SCALE = 1e7;
+
+    private static final byte HAS_GHOST_SEED = 1;
+    private static final byte STORED_GHOST = 2;
+    private static final byte PACKED_REPORTER_HASH = 4;
+
+    private final Long deviceId;
+    private final int capacity;
+
+    private final long[] ids;
+    private final long[] times;
+    private final long[] createdAts;
+    private final long[] ghostSeeds;
+    private final long[] reporterHashes;
+    private final int[] latitudes;
+    private final int[] longitudes;
+    private final int[] signalStrengths;
+    private final int[] batteryLevels;
+    private final float[] accuracies;
+    private final byte[] confidences;
+    private final byte[] ghostCounts;
+    private final byte[] flags;
+    private final String[] unpackedReporterHashes;
+    private final String[] networkTypes;
+    private final String[] additionalData;
+
+    private String deviceName;
+    private boolean loaded;
+    private int head;
+    private int size;
+    private long ringEntries;
+    private long databaseOnlyEntries;
+    private long newestId;
+    private long version;
+
+    RecentObservationRing(Long deviceId, int capacity) {
+        this.deviceId = deviceId;
+        this.capacity = capacity;
+        this.ids = new long[capacity];
+        this.times = new long[capacity];
+        this.createdAts = new long[capacity];
+        this.ghostSeeds = new long[capacity];
+        this.reporterHashes = new long[capacity * 4];
+        this.latitudes = new int[capacity];
+        this.longitudes = new int[capacity];
+        this.signalStrengths = new int[capacity];
+        this.batteryLevels = new int[capacity];
+        this.accuracies = new float[capacity];
+        this.confidences = new byte[capacity];
+        this.ghostCounts = new byte[capacity];
+        this.flags = new byte[capacity];
+        this.unpackedReporterHashes = new String[capacity];
+        this.networkTypes = new String[capacity];
+        this.additionalData = new String[capacity];
+    }
+
+    /**
+     * Fill the ring from the database.
+     *
+     * @param newestRows   the newest rows of the device, read in the same snapshot as {@code totalEntries}
+     * @param totalEntries entries of all rows of the device, ghosts included
+     */
+    synchronized void load(String deviceName, List<Observation> newestRows, long totalEntries) {
+        this.deviceName = deviceName;
+        long loadedEntries = 0;
+        for (Observation row : newestRows) {
+            loadedEntries += entriesOf(row);
+            add(row);
+        }
+        databaseOnlyEntries += Math.max(0, totalEntries - loadedEntries);
+        loaded = true;
+        version++;
+    }
+
+    synchronized boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Whether the ring holds every row of the device, given the newest id and entries stored for it.
+     */
+    synchronized boolean matches(long storedNewestId, long storedEntries) {
+        return newestId == storedNewestId && ringEntries + databaseOnlyEntries == storedEntries;
+    }
+
+    /**
+     * Insert a newly stored row at its place in time order. Rows already present are ignored.
+     */
+    synchronized void add(Observation row) {
+        if (indexOf(row.getId()) >= 0) {
+            return;
+        }
+        newestId = Math.max(newestId, row.getId());
+        long time = toMicros(row.getObservationTime());
+        int position = insertionPoint(time, row.getId());
+        if (size == capacity) {
+            if (position == 0) {
+                // Older than everything kept: only the database has it
+                databaseOnlyEntries += entriesOf(row);
+                version++;
+                return;
+            }
+            int oldest = slot(0);
+            databaseOnlyEntries += 1 + ghostCounts[oldest];
+            ringEntries -= 1 + ghostCounts[oldest];
+            head = slot(1);
+            size--;
+            position--;
+        }
+        for (int i = size; i > position; i--) {
+            move(slot(i - 1), slot(i));
+        }
+        write(slot(position), row, time);
+        size++;
+        ringEntries += entriesOf(row);
+        version++;
+    }
+
+    /**
+     * Consistent view of the ring for one listing. Slices are read lazily; if the ring changes
+     * in between, or the listing needs rows older than those kept, the view is marked
+     * inconsistent and the caller falls back to the database.
+     */
+    synchronized View view() {
+        return new View(version, ringEntries + databaseOnlyEntries);
+    }
+
+    final class View {
+
+        private final long version;
+        private final long totalEntries;
+        private final Device device;
+        private boolean consistent = true;
+
+        private View(long version, long totalEntries) {
+            this.version = version;
+            this.totalEntries = totalEntries;
+            this.device = Device.builder().id(deviceId).name(deviceName).build();
+        }
+
+        long getTotalEntries() {
+            return totalEntries;
+        }
+
+        boolean isConsistent() {
+            return consistent;
+        }
+
+        /**
+         * Rows newest first, in the same slices as the database listing.
+         */
+        Slice<Observation> slice(Pageable page) {
+            synchronized (RecentObservationRing.this) {
+                int from = (int) Math.min(page.getOffset(), size);
+                boolean complete = databaseOnlyEntries == 0;
+                if (RecentObservationRing.this.version != version || (from == size && !complete)) {
+                    consistent = false;
+                    return new SliceImpl<>(new ArrayList<>(0), page, false);
+                }
+                int to = Math.min(from + page.getPageSize(), size);
+                List<Observation> rows = new ArrayList<>(to - from);
+                for (int i = from; i < to; i++) {
+                    rows.add(read(slot(size - 1 - i), device));
+                }
+                // Past the last kept row the next call reports the view as inconsistent
+                return new SliceImpl<>(rows, page, to < size || !complete);
+            }
+        }
+    }
+
+    private int slot(int logicalIndex) {
+        return (head + logicalIndex) % capacity;
+    }
+
+    private int indexOf(long id) {
+        for (int i = 0; i < size; i++) {
+            if (ids[slot(i)] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int insertionPoint(long time, long id) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int s = slot(middle);
+            if (times[s] < time || (times[s] == time && ids[s] < id)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void write(int s, Observation row, long time) {
+        ids[s] = row.getId();
+        times[s] = time;
+        createdAts[s] = row.getCreatedAt() != null ? toMicros(row.getCreatedAt()) : Long.MIN_VALUE;
+        latitudes[s] = (int) Math.round(row.getLatitude() * COORDINATE_SCALE);
+        longitudes[s] = (int) Math.round(row.getLongitude() * COORDINATE_SCALE);
+        accuracies[s] = row.getAccuracy().floatValue();
+        confidences[s] = row.getConfidence().byteValue();
+        ghostCounts[s] = row.getGhostCount() != null ? row.getGhostCount().byteValue() : 0;
+        signalStrengths[s] = row.getSignalStrength() != null ? row.getSignalStrength() : NULL_INT;
+        batteryLevels[s] = row.getBatteryLevel() != null ? row.getBatteryLevel() : NULL_INT;
+        networkTypes[s] = row.getNetworkType() != null ? row.getNetworkType().intern() : null;
+        additionalData[s] = row.getAdditionalData();
+
+        byte flag = 0;
+        if (row.getGhostSeed() != null) {
+            flag |= HAS_GHOST_SEED;
+            ghostSeeds[s] = row.getGhostSeed();
+        }
+        if (row.isGhost()) {
+            flag |= STORED_GHOST;
+        }
+        if (packReporterHash(row.getReporterHash(), s)) {
+            flag |= PACKED_REPORTER_HASH;
+            unpackedReporterHashes[s] = null;
+        } else {
+            unpackedReporterHashes[s] = row.getReporterHash();
+        }
+        flags[s] = flag;
+    }
+
+    private Observation read(int s, Device device) {
+        double latitude = latitudes[s] / COORDINATE_SCALE;
+        double longitude = longitudes[s] / COORDINATE_SCALE;
+        return Observation.builder()
+                .id(ids[s])
+                .device(device)
+                .observationTime(fromMicros(times[s]))
+                .latitude(latitude)
+                .longitude(longitude)
+                .accuracy((double) accuracies[s])
+                .confidence((int) confidences[s])
+                .reporterHash((flags[s] & PACKED_REPORTER_HASH) != 0 ? unpackReporterHash(s) : unpackedReporterHashes[s])
+                .ghost((flags[s] & STORED_GHOST) != 0)
+                .ghostSeed((flags[s] & HAS_GHOST_SEED) != 0 ? ghostSeeds[s] : null)
+                .ghostCount((int) ghostCounts[s])
+                .signalStrength(signalStrengths[s] != NULL_INT ? signalStrengths[s] : null)
+                .batteryLevel(batteryLevels[s] != NULL_INT ? batteryLevels[s] : null)
+                .networkType(networkTypes[s])
+                .additionalData(additionalData[s])
+                .createdAt(createdAts[s] != Long.MIN_VALUE ? fromMicros(createdAts[s]) : null)
+                .build();
+    }
+
+    private void move(int from, int to) {
+        ids[to] = ids[from];
+        times[to] = times[from];
+        createdAts[to] = createdAts[from];
+        ghostSeeds[to] = ghostSeeds[from];
+        System.arraycopy(reporterHashes, from * 4, reporterHashes, to * 4, 4);
+        latitudes[to] = latitudes[from];
+        longitudes[to] = longitudes[from];
+        signalStrengths[to] = signalStrengths[from];
+        batteryLevels[to] = batteryLevels[from];
+        accuracies[to] = accuracies[from];
+        confidences[to] = confidences[from];
+        ghostCounts[to] = ghostCounts[from];
+        flags[to] = flags[from];
+        unpackedReporterHashes[to] = unpackedReporterHashes[from];
+        networkTypes[to] = networkTypes[from];
+        additionalData[to] = additionalData[from];
+    }
+
+    /**
+     * Store a lowercase 64-character hex hash as four longs.
+     */
+    private boolean packReporterHash(String hash, int s) {
+        if (hash == null || hash.length() != 64) {
+            return false;
+        }
+        for (int part = 0; part < 4; part++) {
+            long value = 0;
+            for (int i = part * 16; i < part * 16 + 16; i++) {
+                int digit = Character.digit(hash.charAt(i), 16);
+                if (digit < 0 || Character.isUpperCase(hash.charAt(i))) {
+                    return false;
+                }
+                value = (value << 4) | digit;
+            }
+            reporterHashes[s * 4 + part] = value;
+        }
+        return true;
+    }
+
+    private String unpackReporterHash(int s) {
+        StringBuilder sb = new StringBuilder(64);
+        for (int part = 0; part < 4; part++) {
+            String hex = Long.toHexString(reporterHashes[s * 4 + part]);
+            for (int pad = hex.length(); pad < 16; pad++) {
+                sb.append('0');
+            }
+            sb.append(hex);
+        }
+        return sb.toString();
+    }
+
+    private static long entriesOf(Observation row) {
+        return 1 + (row.getGhostCount() != null ? row.getGhostCount() : 0);
+    }
+
+    private static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,312 @@
+package com.ecoguard.tracking.service;
+
+import com.ecoguard.tracking.entity.Device;
+import com.ecoguard.tracking.entity.Observation;
+import com.ecoguard.tracking.repository.DeviceRepository;
+import com.ecoguard.tracking.repository.ObservationRepository;
+import com.ecoguard.tracking.repository.TheftReportRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Recent observations of the devices with an active theft report, kept in memory in a
+ * {@link RecentObservationRing} per device so that their tracking pages are listed without
+ * reading the database.
+ * <p>
+ * Rings are filled from the database on startup and when a device enters the active set,
+ * then kept up to date by ingest once each observation is committed. Ingest on another node is
+ * announced over Redis pub/sub: the ring of the device is then read from the database until it
+ * is reloaded, within {@code ecoguard.observation.recent.sync-interval-ms}. As messages may be
+ * lost, each refresh also compares every ring with the newest id and total stored for its
+ * device and reloads those that differ. Devices whose report is no longer active are dropped
+ * on the next refresh. Jobs that delete observations call {@link #reloadOnCommit()} so that
+ * the rings never list deleted rows.
+ */
+@Component
+@Slf4j
+public class RecentObservationStore {
+
+    private static final char SEPARATOR = '|';
+    private static final int VERSION_CHUNK_SIZE = 1000;
+
+    private final ObservationRepository observationRepository;
+    private final TheftReportRepository theftReportRepository;
+    private final DeviceRepository deviceRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final String channel;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final TransactionTemplate snapshotTransaction;
+    private final boolean enabled;
+    private final int capacity;
+    private final int maxDevices;
+
+    private final Map<Long, RecentObservationRing> rings = new ConcurrentHashMap<>();
+    // Devices observed on another node since their ring was loaded
+    private final Set<Long> staleDeviceIds = ConcurrentHashMap.newKeySet();
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public RecentObservationStore(ObservationRepository observationRepository,
+                                  TheftReportRepository theftReportRepository,
+                                  DeviceRepository deviceRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  ObjectProvider<StringRedisTemplate> redisTemplate,
+                                  ObjectProvider<RedisMessageListenerContainer> listenerContainer,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${ecoguard.observation.recent.enabled:true}") boolean enabled,
+                                  @Value("${ecoguard.observation.recent.channel:ecoguard:observation:recent}") String channel,
+                                  @Value("${ecoguard.observation.recent.capacity:512}") int capacity,
+                                  @Value("${ecoguard.observation.recent.max-devices:10000}") int maxDevices) {
+        this.observationRepository = observationRepository;
+        this.theftReportRepository = theftReportRepository;
+        this.deviceRepository = deviceRepository;
+        this.redisTemplate = redisTemplate.getIfAvailable();
+        this.channel = channel;
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.maxDevices = maxDevices;
+
+        // Read-write, so that the rows come from the primary. No custom isolation level: the
+        // JPA dialect rejects one when connections are released after each transaction
+        // (read replicas); findNewestWithTotalByDeviceId reads rows and total in one statement instead.
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+
+        RedisMessageListenerContainer container = listenerContainer.getIfAvailable();
+        if (enabled && container != null) {
+            container.addMessageListener(this::onMessage, new ChannelTopic(channel));
+        }
+
+        Gauge.builder("ecoguard.observation.recent.devices", rings, Map::size)
+                .description("Devices whose recent observations are kept in memory")
+                .register(meterRegistry);
+        this.hits = readCounter(meterRegistry, "hit");
+        this.misses = readCounter(meterRegistry, "miss");
+    }
+
+    private static Counter readCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("ecoguard.observation.recent.reads")
+                .description("Observation listings served from memory or from the database")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * The loaded ring of a device, or {@code null} when its observations must be read from the database.
+     */
+    RecentObservationRing ring(Long deviceId) {
+        RecentObservationRing ring = rings.get(deviceId);
+        return ring != null && ring.isLoaded() && !staleDeviceIds.contains(deviceId) ? ring : null;
+    }
+
+    void recordRead(boolean hit) {
+        (hit ? hits : misses).increment();
+    }
+
+    /**
+     * Add a newly saved observation to the ring of its device once the current transaction
+     * commits, and announce it to the other nodes.
+     */
+    public void recordOnCommit(Observation observation) {
+        if (!enabled) {
+            return;
+        }
+        Long deviceId = observation.getDevice().getId();
+        afterCommit(() -> {
+            RecentObservationRing ring = rings.get(deviceId);
+            if (ring != null) {
+                ring.add(observation);
+            }
+            publish(deviceId);
+        });
+    }
+
+    private void publish(Long deviceId) {
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(channel, nodeId + SEPARATOR + deviceId);
+        } catch (RuntimeException e) {
+            log.warn("Failed to announce observation of device {}: {}", deviceId, e.getMessage());
+        }
+    }
+
+    private void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(SEPARATOR);
+        if (separator < 0 || nodeId.equals(body.substring(0, separator))) {
+            return;
+        }
+        try {
+            Long deviceId = Long.valueOf(body.substring(separator + 1));
+            if (rings.containsKey(deviceId)) {
+                staleDeviceIds.add(deviceId);
+            }
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed recent observation message: {}", body);
+        }
+    }
+
+    /**
+     * Reload the rings of the devices observed on another node.
+     * Runs every second by default.
+     */
+    @Scheduled(fixedDelayString = "${ecoguard.observation.recent.sync-interval-ms:1000}")
+    public synchronized void reloadStale() {
+        if (!enabled || staleDeviceIds.isEmpty()) {
+            return;
+        }
+        for (Long deviceId : new ArrayList<>(staleDeviceIds)) {
+            // Removed first, so that a message received during the load triggers another one
+            staleDeviceIds.remove(deviceId);
+            if (rings.containsKey(deviceId)) {
+                load(deviceId);
+            }
+        }
+    }
+
+    /**
+     * Rebuild all rings once the current transaction, which deleted observations, commits.
+     */
+    public void reloadOnCommit() {
+        if (!enabled) {
+            return;
+        }
+        afterCommit(() -> {
+            rings.clear();
+            refresh();
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refresh();
+    }
+
+    /**
+     * Track the devices that entered the active theft set, drop those that left it and reload
+     * the rings that no longer match the database. Runs every minute by default.
+     */
+    @Scheduled(fixedDelayString = "${ecoguard.observation.recent.refresh-interval-ms:60000}",
+            initialDelayString = "${ecoguard.observation.recent.refresh-interval-ms:60000}")
+    public synchronized void refresh() {
+        if (!enabled) {
+            return;
+        }
+        Set<Long> activeDeviceIds = new HashSet<>(theftReportRepository.findActiveDeviceIds());
+        rings.keySet().retainAll(activeDeviceIds);
+        staleDeviceIds.retainAll(activeDeviceIds);
+
+        int loaded = reloadChanged();
+        for (Long deviceId : activeDeviceIds) {
+            if (rings.size() >= maxDevices) {
+                log.warn("Recent observation store is full, {} active devices are read from the database",
+                        activeDeviceIds.size() - rings.size());
+                break;
+            }
+            if (!rings.containsKey(deviceId)) {
+                load(deviceId);
+                loaded++;
+            }
+        }
+        if (loaded > 0) {
+            log.info("Loaded recent observations of {} devices, {} tracked", loaded, rings.size());
+        }
+    }
+
+    /**
+     * Reload the rings whose newest id or total differs from the database, e.g. when a message
+     * from another node was lost.
+     */
+    private int reloadChanged() {
+        List<Long> deviceIds = new ArrayList<>(rings.keySet());
+        Map<Long, ObservationRepository.DeviceObservationVersion> versions = new HashMap<>();
+        try {
+            for (int from = 0; from < deviceIds.size(); from += VERSION_CHUNK_SIZE) {
+                List<Long> chunk = deviceIds.subList(from, Math.min(from + VERSION_CHUNK_SIZE, deviceIds.size()));
+                snapshotTransaction.executeWithoutResult(status -> observationRepository.findVersionsByDeviceIds(chunk)
+                        .forEach(version -> versions.put(version.getDeviceId(), version)));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not check recent observations against the database: {}", e.getMessage());
+            return 0;
+        }
+
+        int reloaded = 0;
+        for (Long deviceId : deviceIds) {
+            RecentObservationRing ring = rings.get(deviceId);
+            if (ring == null || !ring.isLoaded()) {
+                continue;
+            }
+            ObservationRepository.DeviceObservationVersion version = versions.get(deviceId);
+            if (version == null ? !ring.matches(0, 0) : !ring.matches(version.getNewestId(), version.getObservationCount())) {
+                load(deviceId);
+                reloaded++;
+            }
+        }
+        return reloaded;
+    }
+
+    private void load(Long deviceId) {
+        // Registered before reading, so that observations committed meanwhile are not missed
+        RecentObservationRing ring = new RecentObservationRing(deviceId, capacity);
+        rings.put(deviceId, ring);
+        try {
+            snapshotTransaction.executeWithoutResult(status -> {
+                String deviceName = deviceRepository.findById(deviceId).map(Device::getName).orElse(null);
+                List<Object[]> rowsWithTotal = observationRepository.findNewestWithTotalByDeviceId(
+                        deviceId, PageRequest.of(0, capacity));
+                List<Observation> rows = new ArrayList<>(rowsWithTotal.size());
+                for (Object[] row : rowsWithTotal) {
+                    rows.add((Observation) row[0]);
+                }
+                long total = rowsWithTotal.isEmpty() ? 0 : ((Number) rowsWithTotal.get(0)[1]).longValue();
+                ring.load(deviceName, rows, total);
+            });
+        } catch (RuntimeException e) {
+            rings.remove(deviceId, ring);
+            log.warn("Could not load recent observations of device {}: {}", deviceId, e.getMessage());
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
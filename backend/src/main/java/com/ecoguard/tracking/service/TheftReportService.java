@@ -29,7 +29,7 @@ public class TheftReportService {
     private final DeviceRepository deviceRepository;
     private final DeviceService deviceService;
     private final NotificationService notificationService;
-    private final FCMService fcmService;
+    private final CommunityAlertService communityAlertService;
     private final TheftReportMapper theftReportMapper;
 
     @Transactional(readOnly = true)
@@ -105,8 +105,8 @@ public class TheftReportService {
                 "Votre appareil " + device.getName() + " a été déclaré volé. Le système de tracking communautaire a été activé."
         );
         
-        // Send FCM alert to all devices
-        sendCommunityAlert(device);
+        // Send FCM alert to the phones around the theft location and the last known position
+        sendCommunityAlert(device, savedReport);
         
         return theftReportMapper.toDTO(savedReport);
     }
@@ -204,22 +204,12 @@ public class TheftReportService {
         return theftReportMapper.toDTO(cancelledReport);
     }
 
-    private void sendCommunityAlert(Device device) {
-        // Send FCM message to all devices
-        String title = "Alerte appareil volé";
-        String body = "Un appareil a été signalé volé dans votre région. Votre application EcoGuard va vérifier si elle l'a détecté récemment.";
-        
-        // Include device partition UUID in the data payload
-        fcmService.sendTopicMessage("stolen_devices", title, body, 
-                java.util.Map.of("devicePartitionUuid", device.getPartitionUuid()));
-        
-        // Update the theft report to mark alert as sent
-        theftReportRepository.findActiveReportByDeviceId(device.getId()).ifPresent(report -> {
-            report.setAlertSent(true);
-            report.setAlertSentAt(LocalDateTime.now());
-            theftReportRepository.save(report);
-        });
-        
-        log.info("Community alert sent for stolen device: {}", device.getName());
+    private void sendCommunityAlert(Device device, TheftReport theftReport) {
+        communityAlertService.sendAlert(device, theftReport);
+        
+        // Mark the alert as sent on the theft report
+        theftReport.setAlertSent(true);
+        theftReport.setAlertSentAt(LocalDateTime.now());
+        theftReportRepository.save(theftReport);
     }
 }
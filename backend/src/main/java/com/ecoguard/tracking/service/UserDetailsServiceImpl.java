@@ -1,11 +1,15 @@
 package com.ecoguard.tracking.service;
 
+import com.ecoguard.tracking.dto.UserDTO;
 import com.ecoguard.tracking.entity.User;
+import com.ecoguard.tracking.mapper.UserMapper;
 import com.ecoguard.tracking.repository.UserRepository;
+import com.ecoguard.tracking.security.UserPrincipal;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -17,30 +21,52 @@ import java.util.stream.Collectors;
 @Service
 @RequiredArgsConstructor
 @Slf4j
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
+    private final UserMapper userMapper;
 
     @Override
     @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email)
+        UserRepository.UserWithDeviceCount result = userRepository.findWithDeviceCountByEmail(email).stream()
+                .findFirst()
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
+        User user = result.getUser();
 
         log.debug("Found user: {}", user.getEmail());
 
+        UserDTO profile = userMapper.toDTO(user);
+        profile.setDeviceCount((int) result.getDeviceCount());
+
         List<SimpleGrantedAuthority> authorities = user.getRoles().stream()
                 .map(SimpleGrantedAuthority::new)
                 .collect(Collectors.toList());
 
-        return new org.springframework.security.core.userdetails.User(
-                user.getEmail(),
-                user.getPassword(),
-                user.isAccountEnabled(),
-                !user.isAccountExpired(),
-                !user.isCredentialsExpired(),
-                !user.isAccountLocked(),
-                authorities
-        );
+        return UserPrincipal.builder()
+                .id(user.getId())
+                .email(user.getEmail())
+                .password(user.getPassword())
+                .authorities(authorities)
+                .profile(profile)
+                .enabled(user.isAccountEnabled())
+                .accountNonExpired(!user.isAccountExpired())
+                .credentialsNonExpired(!user.isCredentialsExpired())
+                .accountNonLocked(!user.isAccountLocked())
+                .build();
+    }
+
+    /**
+     * Store a re-encoded password hash after a successful login with an outdated work factor.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        UserPrincipal principal = (UserPrincipal) user;
+        userRepository.updatePassword(principal.getId(), newPassword);
+        log.info("Upgraded password hash for user: {}", principal.getEmail());
+        return principal.toBuilder()
+                .password(newPassword)
+                .build();
     }
 }
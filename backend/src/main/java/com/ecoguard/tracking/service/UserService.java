@@ -14,7 +14,6 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -114,14 +113,6 @@ public class UserService {
         return updatedDTO;
     }
 
-    @Transactional
-    public void updateLastLogin(String email) {
-        userRepository.findByEmail(email).ifPresent(user -> {
-            user.setLastLogin(LocalDateTime.now());
-            userRepository.save(user);
-        });
-    }
-
     @Transactional
     public void deleteUser(Long id) {
         if (!userRepository.existsById(id)) {
@@ -0,0 +1,160 @@
+package com.ecoguard.tracking.util;
+
+import java.util.Arrays;
+
+/**
+ * Geohash encoding: cells of a recursive latitude/longitude grid named by base-32 strings,
+ * where every extra character divides the cell into 32. Points in the same cell share the
+ * hash prefix, so nearby positions can be grouped by prefix; a search around a point must
+ * also look at the {@link #neighbours} of its cell, since a neighbour may be closer than the
+ * far side of the cell itself.
+ */
+public final class Geohash {
+
+    public static final int MAX_PRECISION = 12;
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+    private static final int[] DECODE = new int[128];
+
+    static {
+        Arrays.fill(DECODE, -1);
+        for (int i = 0; i < BASE32.length; i++) {
+            DECODE[BASE32[i]] = i;
+        }
+    }
+
+    private Geohash() {
+    }
+
+    /**
+     * Hash of the cell of the given precision (1 to {@value #MAX_PRECISION} characters)
+     * containing the point.
+     */
+    public static String encode(double latitude, double longitude, int precision) {
+        if (precision < 1 || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Geohash precision must be between 1 and " + MAX_PRECISION);
+        }
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("Invalid coordinates: " + latitude + ", " + longitude);
+        }
+        double minLat = -90;
+        double maxLat = 90;
+        double minLon = -180;
+        double maxLon = 180;
+        char[] hash = new char[precision];
+        boolean evenBit = true;
+        for (int i = 0; i < precision; i++) {
+            int index = 0;
+            for (int bit = 0; bit < 5; bit++) {
+                // Bits alternate between longitude and latitude, starting with longitude
+                if (evenBit) {
+                    double mid = (minLon + maxLon) / 2;
+                    if (longitude >= mid) {
+                        index = (index << 1) | 1;
+                        minLon = mid;
+                    } else {
+                        index <<= 1;
+                        maxLon = mid;
+                    }
+                } else {
+                    double mid = (minLat + maxLat) / 2;
+                    if (latitude >= mid) {
+                        index = (index << 1) | 1;
+                        minLat = mid;
+                    } else {
+                        index <<= 1;
+                        maxLat = mid;
+                    }
+                }
+                evenBit = !evenBit;
+            }
+            hash[i] = BASE32[index];
+        }
+        return new String(hash);
+    }
+
+    /**
+     * Bounds of the cell as {@code {minLatitude, minLongitude, maxLatitude, maxLongitude}}.
+     */
+    public static double[] bounds(String geohash) {
+        if (geohash == null || geohash.isEmpty() || geohash.length() > MAX_PRECISION) {
+            throw new IllegalArgumentException("Invalid geohash: " + geohash);
+        }
+        double minLat = -90;
+        double maxLat = 90;
+        double minLon = -180;
+        double maxLon = 180;
+        boolean evenBit = true;
+        for (int i = 0; i < geohash.length(); i++) {
+            char c = Character.toLowerCase(geohash.charAt(i));
+            int index = c < DECODE.length ? DECODE[c] : -1;
+            if (index < 0) {
+                throw new IllegalArgumentException("Invalid geohash: " + geohash);
+            }
+            for (int bit = 4; bit >= 0; bit--) {
+                boolean set = ((index >> bit) & 1) == 1;
+                if (evenBit) {
+                    double mid = (minLon + maxLon) / 2;
+                    if (set) {
+                        minLon = mid;
+                    } else {
+                        maxLon = mid;
+                    }
+                } else {
+                    double mid = (minLat + maxLat) / 2;
+                    if (set) {
+                        minLat = mid;
+                    } else {
+                        maxLat = mid;
+                    }
+                }
+                evenBit = !evenBit;
+            }
+        }
+        return new double[]{minLat, minLon, maxLat, maxLon};
+    }
+
+    /**
+     * Center of the cell as {@code {latitude, longitude}}.
+     */
+    public static double[] decode(String geohash) {
+        double[] bounds = bounds(geohash);
+        return new double[]{(bounds[0] + bounds[2]) / 2, (bounds[1] + bounds[3]) / 2};
+    }
+
+    /**
+     * The cells of the same precision around this one, clockwise from north:
+     * N, NE, E, SE, S, SW, W, NW. Cells beyond a pole are {@code null}; longitudes wrap
+     * around the antimeridian.
+     */
+    public static String[] neighbours(String geohash) {
+        double[] bounds = bounds(geohash);
+        double height = bounds[2] - bounds[0];
+        double width = bounds[3] - bounds[1];
+        double latitude = (bounds[0] + bounds[2]) / 2;
+        double longitude = (bounds[1] + bounds[3]) / 2;
+        int precision = geohash.length();
+        return new String[]{
+                adjacent(latitude + height, longitude, precision),
+                adjacent(latitude + height, longitude + width, precision),
+                adjacent(latitude, longitude + width, precision),
+                adjacent(latitude - height, longitude + width, precision),
+                adjacent(latitude - height, longitude, precision),
+                adjacent(latitude - height, longitude - width, precision),
+                adjacent(latitude, longitude - width, precision),
+                adjacent(latitude + height, longitude - width, precision)
+        };
+    }
+
+    private static String adjacent(double latitude, double longitude, int precision) {
+        if (latitude > 90 || latitude < -90) {
+            return null;
+        }
+        if (longitude >= 180) {
+            longitude -= 360;
+        } else if (longitude < -180) {
+            longitude += 360;
+        }
+        return encode(latitude, longitude, precision);
+    }
+}
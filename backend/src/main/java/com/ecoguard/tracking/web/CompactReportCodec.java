@@ -0,0 +1,112 @@
+package com.ecoguard.tracking.web;
+
+import com.ecoguard.tracking.dto.AnonymousReportDTO;
+import com.ecoguard.tracking.dto.CompactAnonymousReport;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes anonymous reports in the {@link CompactAnonymousReport} CBOR format.
+ * Observation times are converted with the server time zone, like the local date-times of the
+ * JSON format.
+ */
+public class CompactReportCodec {
+
+    public static final MediaType MEDIA_TYPE = new MediaType("application", "cbor");
+
+    private static final double COORDINATE_SCALE = 1e7;
+    private static final double CENTIMETERS_PER_METER = 100;
+
+    private static final TypeReference<List<CompactAnonymousReport>> BATCH_TYPE = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper;
+    private final ZoneId zoneId;
+
+    public CompactReportCodec() {
+        this(ZoneId.systemDefault());
+    }
+
+    public CompactReportCodec(ZoneId zoneId) {
+        this.objectMapper = new ObjectMapper(new CBORFactory())
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        this.zoneId = zoneId;
+    }
+
+    public AnonymousReportDTO readReport(InputStream inputStream) throws IOException {
+        return toDTO(objectMapper.readValue(inputStream, CompactAnonymousReport.class));
+    }
+
+    public List<AnonymousReportDTO> readBatch(InputStream inputStream) throws IOException {
+        List<CompactAnonymousReport> compactReports = objectMapper.readValue(inputStream, BATCH_TYPE);
+        List<AnonymousReportDTO> reports = new ArrayList<>(compactReports.size());
+        for (CompactAnonymousReport compactReport : compactReports) {
+            reports.add(toDTO(compactReport));
+        }
+        return reports;
+    }
+
+    public byte[] writeReport(AnonymousReportDTO report) throws IOException {
+        return objectMapper.writeValueAsBytes(toCompact(report));
+    }
+
+    public byte[] writeBatch(List<AnonymousReportDTO> reports) throws IOException {
+        List<CompactAnonymousReport> compactReports = new ArrayList<>(reports.size());
+        for (AnonymousReportDTO report : reports) {
+            compactReports.add(toCompact(report));
+        }
+        return objectMapper.writeValueAsBytes(compactReports);
+    }
+
+    // Missing values stay null so that the usual AnonymousReportDTO validation reports them
+    private AnonymousReportDTO toDTO(CompactAnonymousReport compact) {
+        return AnonymousReportDTO.builder()
+                .devicePartitionUuid(compact.getDevicePartitionUuid())
+                .observationTime(compact.getObservationTimeMillis() != null
+                        ? LocalDateTime.ofInstant(Instant.ofEpochMilli(compact.getObservationTimeMillis()), zoneId)
+                        : null)
+                .latitude(compact.getLatitudeE7() != null ? compact.getLatitudeE7() / COORDINATE_SCALE : null)
+                .longitude(compact.getLongitudeE7() != null ? compact.getLongitudeE7() / COORDINATE_SCALE : null)
+                .accuracy(compact.getAccuracyCm() != null ? compact.getAccuracyCm() / CENTIMETERS_PER_METER : null)
+                .confidence(compact.getConfidence())
+                .reporterHash(compact.getReporterHash())
+                .signalStrength(compact.getSignalStrength())
+                .batteryLevel(compact.getBatteryLevel())
+                .networkType(compact.getNetworkType())
+                .additionalData(compact.getAdditionalData())
+                .reporterPublicKey(compact.getReporterPublicKey())
+                .signature(compact.getSignature())
+                .build();
+    }
+
+    private CompactAnonymousReport toCompact(AnonymousReportDTO report) {
+        return CompactAnonymousReport.builder()
+                .devicePartitionUuid(report.getDevicePartitionUuid())
+                .observationTimeMillis(report.getObservationTime() != null
+                        ? report.getObservationTime().atZone(zoneId).toInstant().toEpochMilli()
+                        : null)
+                .latitudeE7(report.getLatitude() != null ? (int) Math.round(report.getLatitude() * COORDINATE_SCALE) : null)
+                .longitudeE7(report.getLongitude() != null ? (int) Math.round(report.getLongitude() * COORDINATE_SCALE) : null)
+                .accuracyCm(report.getAccuracy() != null ? (int) Math.round(report.getAccuracy() * CENTIMETERS_PER_METER) : null)
+                .confidence(report.getConfidence())
+                .reporterHash(report.getReporterHash())
+                .signalStrength(report.getSignalStrength())
+                .batteryLevel(report.getBatteryLevel())
+                .networkType(report.getNetworkType())
+                .additionalData(report.getAdditionalData())
+                .reporterPublicKey(report.getReporterPublicKey())
+                .signature(report.getSignature())
+                .build();
+    }
+}
@@ -0,0 +1,55 @@
+package com.ecoguard.tracking.web;
+
+import com.ecoguard.tracking.dto.AnonymousReportBatchDTO;
+import com.ecoguard.tracking.dto.AnonymousReportDTO;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Reads anonymous reports and report batches sent as {@code application/cbor}
+ * (see {@link com.ecoguard.tracking.dto.CompactAnonymousReport}). JSON requests are still read
+ * by the regular Jackson converter. Picked up by Spring Boot as an additional message converter.
+ */
+@Component
+public class CompactReportHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    private final CompactReportCodec codec = new CompactReportCodec();
+
+    public CompactReportHttpMessageConverter() {
+        super(CompactReportCodec.MEDIA_TYPE);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return AnonymousReportDTO.class == clazz || AnonymousReportBatchDTO.class == clazz;
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        try {
+            if (clazz == AnonymousReportDTO.class) {
+                return codec.readReport(inputMessage.getBody());
+            }
+            return new AnonymousReportBatchDTO(codec.readBatch(inputMessage.getBody()));
+        } catch (IOException e) {
+            throw new HttpMessageNotReadableException("Invalid CBOR report: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object object, HttpOutputMessage outputMessage) {
+        throw new HttpMessageNotWritableException("Compact reports are only accepted in requests");
+    }
+}
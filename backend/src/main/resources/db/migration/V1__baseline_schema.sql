@@ -0,0 +1,102 @@
+-- Schema as previously generated by Hibernate (ddl-auto=update).
+-- Databases created that way are baselined at this version and start from V2.
+
+CREATE EXTENSION IF NOT EXISTS postgis;
+
+CREATE TABLE users (
+    id                  BIGSERIAL PRIMARY KEY,
+    email               VARCHAR(255) NOT NULL UNIQUE,
+    password            VARCHAR(255) NOT NULL,
+    name                VARCHAR(255) NOT NULL,
+    phone_number        VARCHAR(255),
+    two_factor_enabled  BOOLEAN      NOT NULL DEFAULT FALSE,
+    two_factor_secret   VARCHAR(255),
+    account_locked      BOOLEAN      NOT NULL DEFAULT FALSE,
+    account_expired     BOOLEAN      NOT NULL DEFAULT FALSE,
+    credentials_expired BOOLEAN      NOT NULL DEFAULT FALSE,
+    account_enabled     BOOLEAN      NOT NULL DEFAULT FALSE,
+    last_login          TIMESTAMP,
+    created_at          TIMESTAMP    NOT NULL,
+    updated_at          TIMESTAMP
+);
+
+CREATE TABLE user_roles (
+    user_id BIGINT NOT NULL REFERENCES users (id),
+    role    VARCHAR(255)
+);
+
+CREATE TABLE user_fcm_tokens (
+    user_id   BIGINT NOT NULL REFERENCES users (id),
+    fcm_token VARCHAR(255)
+);
+
+CREATE TABLE devices (
+    id                BIGSERIAL PRIMARY KEY,
+    user_id           BIGINT       NOT NULL REFERENCES users (id),
+    partition_uuid    VARCHAR(255) NOT NULL UNIQUE,
+    name              VARCHAR(255) NOT NULL,
+    model             VARCHAR(255) NOT NULL,
+    status            VARCHAR(255) NOT NULL,
+    registration_date TIMESTAMP    NOT NULL,
+    last_seen         TIMESTAMP,
+    last_latitude     DOUBLE PRECISION,
+    last_longitude    DOUBLE PRECISION,
+    last_accuracy     DOUBLE PRECISION,
+    created_at        TIMESTAMP    NOT NULL,
+    updated_at        TIMESTAMP
+);
+
+CREATE TABLE theft_reports (
+    id                   BIGSERIAL PRIMARY KEY,
+    device_id            BIGINT       NOT NULL REFERENCES devices (id),
+    reported_at          TIMESTAMP    NOT NULL,
+    theft_date           TIMESTAMP    NOT NULL,
+    theft_location       VARCHAR(255),
+    theft_latitude       DOUBLE PRECISION,
+    theft_longitude      DOUBLE PRECISION,
+    circumstances        TEXT,
+    police_report_number VARCHAR(255),
+    police_report_filed  BOOLEAN      NOT NULL DEFAULT FALSE,
+    status               VARCHAR(255) NOT NULL,
+    alert_sent           BOOLEAN      NOT NULL DEFAULT FALSE,
+    alert_sent_at        TIMESTAMP,
+    resolved_at          TIMESTAMP,
+    resolution_notes     TEXT,
+    created_at           TIMESTAMP    NOT NULL,
+    updated_at           TIMESTAMP
+);
+
+CREATE TABLE observations (
+    id                   BIGSERIAL PRIMARY KEY,
+    device_id            BIGINT           NOT NULL REFERENCES devices (id),
+    observation_time     TIMESTAMP        NOT NULL,
+    latitude             DOUBLE PRECISION NOT NULL,
+    longitude            DOUBLE PRECISION NOT NULL,
+    location             GEOMETRY(Point, 4326),
+    accuracy             DOUBLE PRECISION NOT NULL,
+    confidence           INTEGER          NOT NULL,
+    reporter_hash        VARCHAR(255),
+    is_ghost             BOOLEAN          NOT NULL DEFAULT FALSE,
+    ghost_seed           BIGINT,
+    ghost_count          INTEGER,
+    ghost_confidence_sum INTEGER,
+    signal_strength      INTEGER,
+    battery_level        INTEGER,
+    network_type         VARCHAR(255),
+    additional_data      TEXT,
+    created_at           TIMESTAMP        NOT NULL
+);
+
+CREATE TABLE notifications (
+    id          BIGSERIAL PRIMARY KEY,
+    user_id     BIGINT       NOT NULL REFERENCES users (id),
+    device_id   BIGINT REFERENCES devices (id),
+    type        VARCHAR(255) NOT NULL,
+    title       VARCHAR(255) NOT NULL,
+    message     TEXT         NOT NULL,
+    read_at     TIMESTAMP,
+    is_read     BOOLEAN      NOT NULL DEFAULT FALSE,
+    action_url  VARCHAR(255),
+    action_text VARCHAR(255),
+    created_at  TIMESTAMP    NOT NULL
+);
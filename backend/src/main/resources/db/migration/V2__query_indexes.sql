@@ -0,0 +1,59 @@
+-- Indexes for the queries of ObservationRepository, TheftReportRepository, NotificationRepository
+-- and DeviceRepository. Built CONCURRENTLY so that existing tables stay writable; Flyway runs this
+-- script outside a transaction. backend/check_query_plans.sh checks that the queries use them.
+
+-- Observation listings, range counts and per-device totals (ObservationTimeline): newest first,
+-- ties broken by id, with the aggregated columns included so that sums are index-only scans.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_observations_device_time
+    ON observations (device_id, observation_time DESC, id DESC)
+    INCLUDE (ghost_count, confidence, ghost_confidence_sum);
+
+-- Reports of a given phone; ghost reporter hashes are random and never looked up.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_observations_reporter_hash
+    ON observations (reporter_hash)
+    WHERE is_ghost = FALSE AND reporter_hash IS NOT NULL;
+
+-- Retention job: rows are appended roughly in time order, a BRIN index stays tiny.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_observations_time_brin
+    ON observations USING BRIN (observation_time);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_observations_location
+    ON observations USING GIST (location);
+
+-- At most a few reports per device; the active one is looked up for every anonymous report.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_theft_reports_device_status
+    ON theft_reports (device_id, status);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_theft_reports_active_device
+    ON theft_reports (device_id)
+    WHERE status = 'ACTIVE';
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_theft_reports_active_reported_at
+    ON theft_reports (reported_at)
+    WHERE status = 'ACTIVE';
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_notifications_user_read_created
+    ON notifications (user_id, is_read, created_at DESC);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_notifications_user_created
+    ON notifications (user_id, created_at DESC);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_notifications_read_created
+    ON notifications (created_at)
+    WHERE is_read = TRUE;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_notifications_device
+    ON notifications (device_id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_devices_user
+    ON devices (user_id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_devices_stolen
+    ON devices (id)
+    WHERE status = 'STOLEN';
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_user_roles_user
+    ON user_roles (user_id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_user_fcm_tokens_user
+    ON user_fcm_tokens (user_id);
@@ -0,0 +1,31 @@
+-- Areas whose crossing by a stolen device is notified to its owner (GeofenceService), either for
+-- one device or, when device_id is null, for every device of the user.
+CREATE TABLE geofences (
+    id               BIGSERIAL PRIMARY KEY,
+    user_id          BIGINT                   NOT NULL REFERENCES users (id),
+    device_id        BIGINT REFERENCES devices (id) ON DELETE CASCADE,
+    name             VARCHAR(255)             NOT NULL,
+    type             VARCHAR(255)             NOT NULL,
+    area             GEOMETRY(Polygon, 4326)  NOT NULL,
+    center_latitude  DOUBLE PRECISION,
+    center_longitude DOUBLE PRECISION,
+    radius_meters    DOUBLE PRECISION,
+    alert_on_enter   BOOLEAN                  NOT NULL DEFAULT TRUE,
+    alert_on_exit    BOOLEAN                  NOT NULL DEFAULT TRUE,
+    active           BOOLEAN                  NOT NULL DEFAULT TRUE,
+    created_at       TIMESTAMP                NOT NULL,
+    updated_at       TIMESTAMP
+);
+
+CREATE INDEX idx_geofences_user ON geofences (user_id);
+
+-- Last known side of each fence per device: a row per fence the device has entered, flipped to
+-- outside when it leaves. Transitions are conditional upserts, so that concurrent or late
+-- observations of the same crossing notify it only once.
+CREATE TABLE geofence_presences (
+    geofence_id BIGINT    NOT NULL REFERENCES geofences (id) ON DELETE CASCADE,
+    device_id   BIGINT    NOT NULL REFERENCES devices (id) ON DELETE CASCADE,
+    inside      BOOLEAN   NOT NULL,
+    changed_at  TIMESTAMP NOT NULL,
+    PRIMARY KEY (device_id, geofence_id)
+);
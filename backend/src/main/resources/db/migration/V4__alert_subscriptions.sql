@@ -0,0 +1,11 @@
+-- Geohash cell of each phone taking part in community alerts (CommunityAlertService). The phone
+-- is subscribed to the FCM topic of this cell only; the row lets the server move it to another
+-- topic when the phone changes cell, and unsubscribe phones that stopped reporting.
+CREATE TABLE alert_subscriptions (
+    token      VARCHAR(512) PRIMARY KEY,
+    cell       VARCHAR(12)  NOT NULL,
+    created_at TIMESTAMP    NOT NULL,
+    updated_at TIMESTAMP
+);
+
+CREATE INDEX idx_alert_subscriptions_updated_at ON alert_subscriptions (updated_at);
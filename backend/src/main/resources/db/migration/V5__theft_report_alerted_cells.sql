@@ -0,0 +1,8 @@
+-- Geohash cells already alerted for a theft report (CommunityAlertService). Shared by every node
+-- and kept across restarts, so that a cell is alerted once per report: the node whose insert
+-- creates the row publishes to the topic of the cell.
+CREATE TABLE theft_report_alerted_cells (
+    theft_report_id BIGINT      NOT NULL REFERENCES theft_reports (id) ON DELETE CASCADE,
+    cell            VARCHAR(12) NOT NULL,
+    PRIMARY KEY (theft_report_id, cell)
+);
@@ -0,0 +1,97 @@
+package com.ecoguard.tracking.geocoding;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GazetteerIndexTest {
+
+    private static final int PLACES = 5000;
+    private static final int QUERIES = 2000;
+
+    @TempDir
+    static Path directory;
+
+    private static double[] latitudes;
+    private static double[] longitudes;
+    private static GazetteerIndex index;
+
+    @BeforeAll
+    static void buildIndex() throws IOException {
+        Random random = new Random(42);
+        latitudes = new double[PLACES];
+        longitudes = new double[PLACES];
+        Path gazetteer = directory.resolve("places.txt");
+        try (Writer writer = Files.newBufferedWriter(gazetteer, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < PLACES; i++) {
+                // Uniform on the sphere, so that the poles and the antimeridian are covered
+                latitudes[i] = Math.toDegrees(Math.asin(2 * random.nextDouble() - 1));
+                longitudes[i] = -180 + 360 * random.nextDouble();
+                // GeoNames columns: the name is the place number, no country so that it is the whole label
+                writer.write(i + "\t" + i + "\t\t\t" + latitudes[i] + "\t" + longitudes[i] + "\tP\tPPL\t\t\t\t\t\t\t1000\t\t\t\t\n");
+            }
+            writer.write("-1\tNot a place\t\t\t0\t0\tH\tLK\t\t\t\t\t\t\t0\t\t\t\t\n");
+        }
+        Path file = directory.resolve("places.idx");
+        GazetteerIndex.build(gazetteer, null, file, 0);
+        index = GazetteerIndex.open(file);
+    }
+
+    @Test
+    void indexesPopulatedPlacesOnly() {
+        assertEquals(PLACES, index.size());
+    }
+
+    @Test
+    void nearestMatchesBruteForce() {
+        Random random = new Random(7);
+        for (int i = 0; i < QUERIES; i++) {
+            double latitude = Math.toDegrees(Math.asin(2 * random.nextDouble() - 1));
+            double longitude = -180 + 360 * random.nextDouble();
+
+            int place = index.nearest(latitude, longitude, 2);
+            assertTrue(place >= 0);
+            double found = chord(latitude, longitude, Integer.parseInt(index.label(place)));
+            double nearest = Double.MAX_VALUE;
+            for (int candidate = 0; candidate < PLACES; candidate++) {
+                nearest = Math.min(nearest, chord(latitude, longitude, candidate));
+            }
+            // Places are stored as floats
+            assertEquals(nearest, found, 1e-6, "nearest place to (" + latitude + ", " + longitude + ")");
+        }
+    }
+
+    @Test
+    void returnsNoPlaceBeyondMaxChord() {
+        assertEquals("0", index.label(index.nearest(latitudes[0], longitudes[0], 1e-4)));
+
+        double latitude = latitudes[0] > 0 ? latitudes[0] - 0.5 : latitudes[0] + 0.5;
+        double nearest = Double.MAX_VALUE;
+        for (int candidate = 0; candidate < PLACES; candidate++) {
+            nearest = Math.min(nearest, chord(latitude, longitudes[0], candidate));
+        }
+        assertEquals(-1, index.nearest(latitude, longitudes[0], nearest * 0.9));
+        assertTrue(index.nearest(latitude, longitudes[0], nearest * 1.1) >= 0);
+    }
+
+    private static double chord(double latitude, double longitude, int place) {
+        double lat1 = Math.toRadians(latitude);
+        double lon1 = Math.toRadians(longitude);
+        double lat2 = Math.toRadians(latitudes[place]);
+        double lon2 = Math.toRadians(longitudes[place]);
+        double dx = Math.cos(lat1) * Math.cos(lon1) - Math.cos(lat2) * Math.cos(lon2);
+        double dy = Math.cos(lat1) * Math.sin(lon1) - Math.cos(lat2) * Math.sin(lon2);
+        double dz = Math.sin(lat1) - Math.sin(lat2);
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+}
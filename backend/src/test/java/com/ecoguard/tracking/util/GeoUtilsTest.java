@@ -0,0 +1,98 @@
+package com.ecoguard.tracking.util;
+
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Polygon;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeoUtilsTest {
+
+    private static final int POINTS = 1000;
+
+    @Test
+    void batchDistancesMatchHaversine() {
+        Random random = new Random(42);
+        double[] latitudes = new double[POINTS];
+        double[] longitudes = new double[POINTS];
+        double[] distances = new double[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            latitudes[i] = -90 + 180 * random.nextDouble();
+            longitudes[i] = -180 + 360 * random.nextDouble();
+        }
+
+        GeoUtils.calculateDistances(48.8566, 2.3522, latitudes, longitudes, distances);
+        for (int i = 0; i < POINTS; i++) {
+            assertEquals(GeoUtils.calculateDistance(48.8566, 2.3522, latitudes[i], longitudes[i]), distances[i], 1e-9);
+        }
+    }
+
+    @Test
+    void approximateDistancesWithinDocumentedErrorBound() {
+        Random random = new Random(42);
+        double[] latitudes = new double[POINTS];
+        double[] longitudes = new double[POINTS];
+        double[] approximate = new double[POINTS];
+        double[] exact = new double[POINTS];
+        for (int origin = 0; origin < 100; origin++) {
+            // Origins between 80°S and 80°N, points within 100 km, across the antimeridian too
+            double originLatitude = -80 + 160 * random.nextDouble();
+            double originLongitude = origin % 10 == 0 ? 179.9 : -180 + 360 * random.nextDouble();
+            for (int i = 0; i < POINTS; i++) {
+                double[] point = destination(originLatitude, originLongitude,
+                        1 + 99 * random.nextDouble(), 2 * Math.PI * random.nextDouble());
+                latitudes[i] = point[0];
+                longitudes[i] = point[1];
+            }
+
+            GeoUtils.approximateDistances(originLatitude, originLongitude, latitudes, longitudes, approximate);
+            GeoUtils.calculateDistances(originLatitude, originLongitude, latitudes, longitudes, exact);
+            for (int i = 0; i < POINTS; i++) {
+                double error = Math.abs(approximate[i] - exact[i]) / exact[i];
+                assertTrue(error < 0.0005, "relative error " + error + " from (" + originLatitude + ", "
+                        + originLongitude + ") to (" + latitudes[i] + ", " + longitudes[i] + ")");
+            }
+        }
+    }
+
+    @Test
+    void rejectsBatchesOfMismatchedLengths() {
+        assertThrows(IllegalArgumentException.class, () ->
+                GeoUtils.approximateDistances(0, 0, new double[2], new double[1], new double[2]));
+    }
+
+    @Test
+    void circleVerticesLieOnTheCircle() {
+        double radiusMeters = 1000;
+        Polygon circle = GeoUtils.createCircle(48.8566, 2.3522, radiusMeters, 64);
+        assertTrue(circle.isValid());
+        for (Coordinate vertex : circle.getCoordinates()) {
+            assertEquals(radiusMeters / 1000, GeoUtils.calculateDistance(48.8566, 2.3522, vertex.y, vertex.x), 1e-6);
+        }
+    }
+
+    @Test
+    void rejectsCircleAcrossAntimeridian() {
+        assertThrows(IllegalArgumentException.class, () -> GeoUtils.createCircle(0, 179.999, 1000, 64));
+    }
+
+    private static double[] destination(double latitude, double longitude, double distanceKm, double bearing) {
+        double lat = Math.toRadians(latitude);
+        double angularDistance = distanceKm / 6371;
+        double lat2 = Math.asin(Math.sin(lat) * Math.cos(angularDistance)
+                + Math.cos(lat) * Math.sin(angularDistance) * Math.cos(bearing));
+        double lon2 = Math.toRadians(longitude) + Math.atan2(Math.sin(bearing) * Math.sin(angularDistance) * Math.cos(lat),
+                Math.cos(angularDistance) - Math.sin(lat) * Math.sin(lat2));
+        double longitude2 = Math.toDegrees(lon2);
+        if (longitude2 > 180) {
+            longitude2 -= 360;
+        } else if (longitude2 < -180) {
+            longitude2 += 360;
+        }
+        return new double[]{Math.toDegrees(lat2), longitude2};
+    }
+}
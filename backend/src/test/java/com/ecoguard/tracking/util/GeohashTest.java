@@ -0,0 +1,39 @@
+package com.ecoguard.tracking.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class GeohashTest {
+
+    @Test
+    void encodesReferenceVector() {
+        assertEquals("u4pruydqqvj", Geohash.encode(57.64911, 10.40744, 11));
+        assertEquals("u4pru", Geohash.encode(57.64911, 10.40744, 5));
+    }
+
+    @Test
+    void decodesToCellBoundsAndCenter() {
+        assertArrayEquals(new double[]{42.5830078125, -5.625, 42.626953125, -5.5810546875}, Geohash.bounds("ezs42"), 1e-12);
+        assertArrayEquals(new double[]{42.60498046875, -5.60302734375}, Geohash.decode("ezs42"), 1e-12);
+    }
+
+    @Test
+    void neighboursClockwiseFromNorth() {
+        assertArrayEquals(new String[]{"dqcjw", "dqcjx", "dqcjr", "dqcjp", "dqcjn", "dqcjj", "dqcjm", "dqcjt"},
+                Geohash.neighbours("dqcjq"));
+    }
+
+    @Test
+    void neighboursWrapAtAntimeridianAndStopAtPole() {
+        String[] neighbours = Geohash.neighbours("zzzz");
+        assertNull(neighbours[0]);
+        assertNull(neighbours[1]);
+        assertEquals("bpbp", neighbours[2]);
+        assertEquals("bpbn", neighbours[3]);
+        assertEquals("zzzy", neighbours[4]);
+        assertNull(neighbours[7]);
+    }
+}